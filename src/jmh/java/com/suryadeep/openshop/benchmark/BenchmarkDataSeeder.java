@@ -0,0 +1,160 @@
+package com.suryadeep.openshop.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the benchmark database with a realistic catalog and order history.
+ * Rows are written with plain JDBC batches so seeding a million orders stays in the seconds range,
+ * and the Hibernate sequences are moved past the seeded ids afterwards.
+ */
+public class BenchmarkDataSeeder {
+
+    static final int CATEGORIES = 50;
+    static final int USERS = 1_000;
+    static final String BENCHMARK_USER_EMAIL = "user1@bench.openshop";
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    public BenchmarkDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void seed(int products, int variantsPerProduct, int orders, int itemsPerOrder) {
+        seedCategories();
+        seedProducts(products);
+        seedVariants(products, variantsPerProduct);
+        seedUsers();
+        seedOrders(orders, itemsPerOrder, (long) products * variantsPerProduct);
+
+        restartSequence("category_seq", CATEGORIES + 1L);
+        restartSequence("product_seq", products + 1L);
+        restartSequence("variant_seq", (long) products * variantsPerProduct + 1);
+        restartSequence("address_seq", 2L * USERS + 1);
+        restartSequence("cart_seq", USERS + 1L);
+        restartSequence("order_seq", orders + 1L);
+        restartSequence("order_item_seq", (long) orders * itemsPerOrder + 1);
+    }
+
+    private void seedCategories() {
+        List<Object[]> rows = new ArrayList<>(CATEGORIES);
+        for (long id = 1; id <= CATEGORIES; id++) {
+            rows.add(new Object[]{id, "Category " + id, "Description of category " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categories (id, name, description) VALUES (?, ?, ?)", rows);
+    }
+
+    private void seedProducts(int products) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= products; id++) {
+            rows.add(new Object[]{id, "Product " + id, "A fairly typical product description for product " + id,
+                    true, id % CATEGORIES + 1});
+            flushIfFull("INSERT INTO products (id, name, description, is_enabled, category_id) VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        flush("INSERT INTO products (id, name, description, is_enabled, category_id) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private void seedVariants(int products, int variantsPerProduct) {
+        String sql = "INSERT INTO variant (id, name, price, stock, product_id) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        long id = 1;
+        for (long productId = 1; productId <= products; productId++) {
+            for (int v = 0; v < variantsPerProduct; v++) {
+                // Enough stock that checkouts never run out during a run
+                rows.add(new Object[]{id++, "Variant " + v, BigDecimal.valueOf(100 + random.nextInt(50_000), 2),
+                        1_000_000 + random.nextInt(1_000), productId});
+                flushIfFull(sql, rows);
+            }
+        }
+        flush(sql, rows);
+    }
+
+    private void seedUsers() {
+        List<Object[]> carts = new ArrayList<>(USERS);
+        List<Object[]> addresses = new ArrayList<>(USERS);
+        List<Object[]> users = new ArrayList<>(USERS);
+        List<Object[]> userAddresses = new ArrayList<>(USERS);
+        List<Object[]> userRoles = new ArrayList<>(USERS);
+        Long userRoleId = jdbcTemplate.queryForObject("SELECT role_id FROM roles WHERE role_name = 'USER'", Long.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // Users and addresses share the address_seq sequence, so addresses take 1..USERS and users the next block
+        for (long i = 1; i <= USERS; i++) {
+            long userId = USERS + i;
+            carts.add(new Object[]{i});
+            addresses.add(new Object[]{i, i + " Benchmark Street", "Hyderabad", "Telangana", "India", "500001"});
+            users.add(new Object[]{userId, "User " + i, "user" + i + "@bench.openshop", "9000000000",
+                    "{noop}password", now, now, i});
+            userAddresses.add(new Object[]{userId, i});
+            userRoles.add(new Object[]{userId, userRoleId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO carts (id) VALUES (?)", carts);
+        jdbcTemplate.batchUpdate("INSERT INTO addresses (id, address_line, city, state, country, pincode) VALUES (?, ?, ?, ?, ?, ?)", addresses);
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, phone_number, password, created_at, updated_at, cart_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO addresses_users (user_id, address_id) VALUES (?, ?)", userAddresses);
+        jdbcTemplate.batchUpdate("INSERT INTO users_roles (user_id, role_id) VALUES (?, ?)", userRoles);
+    }
+
+    private void seedOrders(int orders, int itemsPerOrder, long variants) {
+        String orderSql = "INSERT INTO orders (id, order_number, payment_ref_no, order_date, last_updated, status, user_id, "
+                + "address_id, total_item_price, tax_amount, shipping_price, total_price, currency_code, payment_status, "
+                + "payment_method, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'INR', ?, 'CARD', 0)";
+        String itemSql = "INSERT INTO order_items (id, order_id, variant_id, quantity, price) VALUES (?, ?, ?, ?, ?)";
+        String[] statuses = {"PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"};
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+
+        List<Object[]> orderRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> itemRows = new ArrayList<>(BATCH_SIZE);
+        long itemId = 1;
+        for (long id = 1; id <= orders; id++) {
+            long userIndex = id % USERS + 1;
+            BigDecimal itemTotal = BigDecimal.ZERO;
+            for (int i = 0; i < itemsPerOrder; i++) {
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+                itemTotal = itemTotal.add(price);
+                itemRows.add(new Object[]{itemId++, id, 1 + random.nextLong(variants), 1, price});
+            }
+            BigDecimal tax = itemTotal.multiply(BigDecimal.valueOf(0.05));
+            BigDecimal shipping = BigDecimal.valueOf(150);
+            Timestamp orderDate = Timestamp.valueOf(start.plusSeconds(id * 60));
+            String orderNumber = "ORD-BENCH-" + id;
+            orderRows.add(new Object[]{id, orderNumber, "txn" + orderNumber, orderDate, orderDate,
+                    statuses[(int) (id % statuses.length)], USERS + userIndex, userIndex,
+                    itemTotal, tax, shipping, itemTotal.add(tax).add(shipping), "PAID"});
+            // Items reference orders, so orders always go out first
+            if (orderRows.size() >= BATCH_SIZE) {
+                flush(orderSql, orderRows);
+                flush(itemSql, itemRows);
+            }
+        }
+        flush(orderSql, orderRows);
+        flush(itemSql, itemRows);
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() >= BATCH_SIZE) {
+            flush(sql, rows);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private void restartSequence(String sequence, long next) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+    }
+}
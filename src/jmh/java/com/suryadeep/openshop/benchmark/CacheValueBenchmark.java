@@ -0,0 +1,165 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.cache.CacheTagResolver;
+import com.suryadeep.openshop.cache.CacheValueCodec;
+import com.suryadeep.openshop.cache.SmileCacheValueCodec;
+import com.suryadeep.openshop.cache.TaggedCache;
+import com.suryadeep.openshop.dto.response.AddressResponse;
+import com.suryadeep.openshop.dto.response.OrderItemResponse;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache hits on "products" and "orders" entries stored as object graphs against the same entries stored as
+ * Smile bytes (caffeine.caches.<name>.serialize-values). The retained heap of both caches is measured with JOL
+ * at setup and printed, the benchmarks show what a hit costs once it has to be decoded.
+ * Needs no database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+// JOL needs the magic field offset to read record fields on recent JDKs
+@Fork(value = 1, jvmArgsAppend = "-Djol.magicFieldOffset=true")
+@State(Scope.Benchmark)
+public class CacheValueBenchmark {
+
+    @Param("1000")
+    public int entries;
+
+    private TaggedCache objectCache;
+    private TaggedCache serializedCache;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectCache = cache(CacheValueCodec.IDENTITY);
+        serializedCache = cache(new SmileCacheValueCodec());
+        for (long id = 1; id <= entries; id++) {
+            ProductResponse product = product(id);
+            objectCache.put(id, product);
+            serializedCache.put(id, product);
+            OrderResponse order = order(id, product);
+            objectCache.put("order_" + id, order);
+            serializedCache.put("order_" + id, order);
+        }
+
+        long objectBytes = retainedValueBytes(objectCache);
+        long serializedBytes = retainedValueBytes(serializedCache);
+        System.out.printf("%n%d products + %d orders retain %,d bytes as objects and %,d bytes serialized (%.1fx smaller)%n",
+                entries, entries, objectBytes, serializedBytes, (double) objectBytes / serializedBytes);
+    }
+
+    @Benchmark
+    public Object productHitObject() {
+        return objectCache.get(nextId(), ProductResponse.class);
+    }
+
+    @Benchmark
+    public Object productHitSerialized() {
+        return serializedCache.get(nextId(), ProductResponse.class);
+    }
+
+    @Benchmark
+    public Object orderHitObject() {
+        return objectCache.get("order_" + nextId(), OrderResponse.class);
+    }
+
+    @Benchmark
+    public Object orderHitSerialized() {
+        return serializedCache.get("order_" + nextId(), OrderResponse.class);
+    }
+
+    private long nextId() {
+        return 1 + random.nextInt(entries);
+    }
+
+    private static TaggedCache cache(CacheValueCodec codec) {
+        return new TaggedCache("products", Caffeine.newBuilder(), CacheTagResolver.NONE,
+                CacheInvalidationPublisher.NONE, codec);
+    }
+
+    // Only the values: keys and Caffeine's own nodes are the same in both modes
+    private static long retainedValueBytes(TaggedCache cache) {
+        return GraphLayout.parseInstance(new ArrayList<>(cache.getNativeCache().asMap().values()).toArray()).totalSize();
+    }
+
+    private static ProductResponse product(long id) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("A fairly typical product description for product " + id);
+        product.setEnabled(true);
+        product.setCategoryName("Category " + (id % 50 + 1));
+        product.setImageUrls(List.of("https://cdn.openshop.example/products/" + id + ".jpg"));
+        List<VariantResponse> variants = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            VariantResponse variant = new VariantResponse();
+            variant.setId(id * 10 + i);
+            variant.setName("Variant " + i);
+            variant.setPrice(BigDecimal.valueOf(49_999 + i, 2));
+            variant.setStockQuantity(100 + i);
+            variants.add(variant);
+        }
+        product.setVariants(variants);
+        return product;
+    }
+
+    private static OrderResponse order(long id, ProductResponse product) {
+        AddressResponse address = new AddressResponse();
+        address.setId(id);
+        address.setAddressLine(id + " Benchmark Street");
+        address.setCity("Hyderabad");
+        address.setState("Telangana");
+        address.setCountry("India");
+        address.setPincode("500001");
+
+        OrderResponse order = new OrderResponse();
+        order.setId(id);
+        order.setPaymentRefNo("txnORD-BENCH-" + id);
+        order.setOrderDate(LocalDateTime.now().minusMinutes(id));
+        order.setOrderStatus("CONFIRMED");
+        order.setPaymentStatus("PAID");
+        List<OrderItemResponse> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 3; i++) {
+            OrderItemResponse item = new OrderItemResponse();
+            item.setId(id * 3 + i);
+            item.setVariant(product.getVariants().get(i));
+            item.setQuantity(2);
+            item.setPrice(product.getVariants().get(i).getPrice().multiply(BigDecimal.valueOf(2)));
+            total = total.add(item.getPrice());
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setTotalItemPrice(total);
+        order.setTaxAmount(total.multiply(BigDecimal.valueOf(0.05)));
+        order.setTotalShippingPrice(BigDecimal.valueOf(150));
+        order.setTotalPrice(total.add(order.getTaxAmount()).add(order.getTotalShippingPrice()));
+        order.setShippingAddress(address);
+        return order;
+    }
+}
@@ -0,0 +1,83 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.inventory.StripedStockCounter;
+import com.suryadeep.openshop.repository.VariantRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every thread buys one unit of the same variant, as during a flash sale.
+ * {@code inMemory} reserves against a StripedStockCounter, with {@code -p stripes=1} for a single counter
+ * every thread retries on; {@code conditionalUpdate} runs the checkout's conditional UPDATE against the
+ * seeded H2 database, where every buyer waits for the row lock. Compare thread counts with {@code -t 1}, {@code -t 4}, ...
+ * {@code inMemory} needs no database, e.g. {@code -Djmh.args="HotStockBenchmark.inMemory -t 8"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(Threads.MAX)
+public class HotStockBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Counter {
+
+        /** 0 for one stripe per available processor */
+        @Param({"0", "1"})
+        public int stripes;
+
+        StripedStockCounter counter;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            counter = new StripedStockCounter(Long.MAX_VALUE / 2,
+                    stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private static final long HOT_VARIANT_ID = 1L;
+
+        VariantRepository variantRepository;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp(OpenShopState state) {
+            variantRepository = state.getBean(VariantRepository.class);
+            transactionTemplate = state.transactionTemplate();
+            state.getBean(JdbcTemplate.class).update("UPDATE variant SET stock = ? WHERE id = ?",
+                    Integer.MAX_VALUE, HOT_VARIANT_ID);
+        }
+    }
+
+    @Benchmark
+    public boolean inMemory(Counter state) {
+        return state.counter.tryTake(1);
+    }
+
+    @Benchmark
+    public List<Long> conditionalUpdate(Database state) {
+        return state.transactionTemplate.execute(status ->
+                state.variantRepository.reserveStock(Map.of(Database.HOT_VARIANT_ID, 1)));
+    }
+}
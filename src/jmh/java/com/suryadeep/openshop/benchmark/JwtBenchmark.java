@@ -0,0 +1,123 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.entity.Role;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.security.CustomUserDetails;
+import com.suryadeep.openshop.security.TokenRevocationRegistry;
+import com.suryadeep.openshop.service.implementation.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Tokens validated per second by the authentication filter's JWT work.
+ * {@code legacyValidate} reproduces the previous behaviour, where the signing key and parser were rebuilt
+ * on every call and a token was parsed three times per request. {@code validate} is the current path with
+ * the verified-token cache disabled, so every call verifies the signature with the shared key and parser,
+ * as on a token's first request; it also cycles through distinct tokens, so none is ever served from a cache.
+ * {@code validateCached} is the current path for a repeated token, served from the verified-token cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final long EXPIRATION_TIME = 3_600_000;
+    private static final int TOKENS = 1024;
+
+    private JwtServiceImpl jwtService;
+    private JwtServiceImpl uncachedJwtService;
+    private CustomUserDetails userDetails;
+    private String token;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TokenRevocationRegistry tokenRevocationRegistry = new TokenRevocationRegistry(EXPIRATION_TIME, CacheInvalidationPublisher.NONE);
+        jwtService = new JwtServiceImpl(SECRET_KEY, EXPIRATION_TIME, false, 10_000, tokenRevocationRegistry,
+                new SimpleMeterRegistry());
+        uncachedJwtService = new JwtServiceImpl(SECRET_KEY, EXPIRATION_TIME, false, 0, tokenRevocationRegistry,
+                new SimpleMeterRegistry());
+
+        Role role = new Role();
+        role.setRoleName("USER");
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(BenchmarkDataSeeder.BENCHMARK_USER_EMAIL);
+        user.setPassword("{noop}password");
+        user.setRoles(Set.of(role));
+        userDetails = new CustomUserDetails(user);
+        token = jwtService.generateToken(userDetails);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateToken(Map.of("n", i), userDetails);
+        }
+    }
+
+    /**
+     * The next token of each benchmark thread, without contending on a shared counter
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) % TOKENS;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public boolean validate(Cursor cursor) {
+        String uncachedToken = tokens[cursor.next()];
+        Claims claims = uncachedJwtService.extractAllClaims(uncachedToken);
+        return claims.getSubject() != null && uncachedJwtService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyValidate() {
+        String username = legacyExtractClaim(token, Claims::getSubject);
+        return username != null
+                && legacyExtractClaim(token, Claims::getSubject).equals(userDetails.getUsername())
+                && !legacyExtractClaim(token, Claims::getExpiration).before(new Date());
+    }
+
+    private static <T> T legacyExtractClaim(String token, Function<Claims, T> claimsResolver) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return claimsResolver.apply(claims);
+    }
+}
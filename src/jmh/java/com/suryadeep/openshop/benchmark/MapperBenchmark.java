@@ -0,0 +1,127 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.entity.Address;
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.entity.Order;
+import com.suryadeep.openshop.entity.OrderItem;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.entity.enums.OrderStatus;
+import com.suryadeep.openshop.entity.enums.PaymentStatus;
+import com.suryadeep.openshop.mapper.EntityMapper;
+import com.suryadeep.openshop.mapper.OrderMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response conversions on their own, without any database access.
+ * Entities are shaped like the seeded data: ten variants per product and a few items per order.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private EntityMapper entityMapper;
+    private OrderMapper orderMapper;
+    private Product product;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityMapper = Mappers.getMapper(EntityMapper.class);
+        orderMapper = Mappers.getMapper(OrderMapper.class);
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+        category.setDescription("Phones, laptops and accessories");
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Smartphone X");
+        product.setDescription("A fairly typical product description for a smartphone");
+        product.setEnabled(true);
+        product.setCategory(category);
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            variants.add(variant(i + 1L, product));
+        }
+        product.setVariants(variants);
+
+        Address address = new Address();
+        address.setId(1L);
+        address.setAddressLine("1 Benchmark Street");
+        address.setCity("Hyderabad");
+        address.setState("Telangana");
+        address.setCountry("India");
+        address.setPincode("500001");
+
+        order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-BENCH-1");
+        order.setPaymentRefNo("txnORD-BENCH-1");
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setShippingAddress(address);
+        List<OrderItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(i + 1L);
+            item.setOrder(order);
+            item.setVariant(variants.get(i));
+            item.setQuantity(2);
+            item.setPrice(variants.get(i).getPrice().multiply(BigDecimal.valueOf(2)));
+            total = total.add(item.getPrice());
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setTotalItemPrice(total);
+        order.setTaxAmount(total.multiply(BigDecimal.valueOf(0.05)));
+        order.setShippingPrice(BigDecimal.valueOf(150));
+        order.setTotalPrice(total.add(order.getTaxAmount()).add(order.getShippingPrice()));
+    }
+
+    @Benchmark
+    public ProductResponse toProductResponse() {
+        return entityMapper.toProductResponse(product);
+    }
+
+    @Benchmark
+    public OrderResponse toOrderResponse() {
+        return orderMapper.toResponse(order);
+    }
+
+    private static Variant variant(long id, Product product) {
+        Variant variant = new Variant();
+        variant.setId(id);
+        variant.setName("Variant " + id);
+        variant.setPrice(BigDecimal.valueOf(49_999, 2).add(BigDecimal.valueOf(id)));
+        variant.setStock(100);
+        variant.setProduct(product);
+        return variant;
+    }
+}
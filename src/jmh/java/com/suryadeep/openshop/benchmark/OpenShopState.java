@@ -0,0 +1,79 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.OpenshopApplication;
+import com.suryadeep.openshop.security.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Boots the application once per fork against an in-memory H2 database (profile "bench")
+ * and seeds it with the configured catalog and order volume.
+ * Sizes can be overridden from the command line, e.g. {@code -p orders=10000}.
+ */
+@State(Scope.Benchmark)
+public class OpenShopState {
+
+    @Param("100000")
+    public int products;
+
+    @Param("10")
+    public int variantsPerProduct;
+
+    @Param("1000000")
+    public int orders;
+
+    @Param("2")
+    public int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(OpenshopApplication.class)
+                .profiles("bench")
+                .run();
+        new BenchmarkDataSeeder(getBean(JdbcTemplate.class)).seed(products, variantsPerProduct, orders, itemsPerOrder);
+
+        // JMH may run setup and measurement on different threads, so the authenticated user is shared globally
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        UserDetails userDetails = getBean(CustomUserDetailsService.class)
+                .loadUserByUsername(BenchmarkDataSeeder.BENCHMARK_USER_EMAIL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SecurityContextHolder.clearContext();
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Service calls run inside a transaction the same way a web request runs inside the open-in-view session,
+     * otherwise the lazy associations touched by the mappers cannot be loaded.
+     */
+    public TransactionTemplate transactionTemplate() {
+        return getBean(TransactionTemplate.class);
+    }
+
+    public long variantCount() {
+        return (long) products * variantsPerProduct;
+    }
+}
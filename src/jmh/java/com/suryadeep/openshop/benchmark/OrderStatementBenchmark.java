@@ -0,0 +1,105 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout of a cart holding {@code items} variants, with the JDBC statements Hibernate prepares for it.
+ * Sequence calls, the order insert, the batched item inserts and the batched cart item deletes all count,
+ * a JDBC batch counts once. The average per order is printed after every iteration, e.g.
+ * {@code -p items=30 -p orders=10000} for the 30 item order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dspring.jpa.properties.hibernate.generate_statistics=true"})
+@State(Scope.Thread)
+public class OrderStatementBenchmark {
+
+    private static final long BENCHMARK_CART_ID = 1L;
+    private static final long BENCHMARK_ADDRESS_ID = 1L;
+
+    @Param({"1", "10", "30"})
+    public int items;
+
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private long variantCount;
+    private final SplittableRandom random = new SplittableRandom(13);
+
+    private long orders;
+    private long statements;
+    private long inserts;
+
+    @Setup(Level.Trial)
+    public void setUp(OpenShopState state) {
+        orderService = state.getBean(OrderService.class);
+        jdbcTemplate = state.getBean(JdbcTemplate.class);
+        statistics = state.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        variantCount = state.variantCount();
+    }
+
+    /** Refills the cart through JdbcTemplate, so none of it shows up in the Hibernate statistics. */
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", BENCHMARK_CART_ID);
+        List<Object[]> rows = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            rows.add(new Object[]{1 + random.nextLong(variantCount), 1 + random.nextInt(3), BENCHMARK_CART_ID});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (id, variant_id, quantity, cart_id) "
+                + "VALUES (NEXT VALUE FOR cart_item_seq, ?, ?, ?)", rows);
+        statistics.clear();
+    }
+
+    @TearDown(Level.Invocation)
+    public void count() {
+        orders++;
+        statements += statistics.getPrepareStatementCount();
+        inserts += statistics.getEntityInsertCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        if (orders > 0) {
+            System.out.printf("%n%d item order: %.1f statements for %.1f inserted rows per order (%d orders)%n",
+                    items, (double) statements / orders, (double) inserts / orders, orders);
+        }
+        orders = 0;
+        statements = 0;
+        inserts = 0;
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddressId(BENCHMARK_ADDRESS_ID);
+        request.setPaymentMethod("CARD");
+        return orderService.createOrder(request);
+    }
+}
@@ -0,0 +1,131 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.dto.request.CartItemRequest;
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.CartItemResponse;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.service.CartService;
+import com.suryadeep.openshop.service.OrderService;
+import com.suryadeep.openshop.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths measured end to end against the seeded H2 database.
+ * Throughput and SampleTime (p50/p99/p999) are reported for every method; add {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Thread)
+public class ServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final long BENCHMARK_CART_ID = 1L;
+    private static final long BENCHMARK_ADDRESS_ID = 1L;
+
+    private ProductService productService;
+    private CartService cartService;
+    private OrderService orderService;
+    private TransactionTemplate transactionTemplate;
+    private final SplittableRandom random = new SplittableRandom(7);
+    private long variantCount;
+    private int pageCount;
+    private int nextPage;
+
+    @Setup(Level.Trial)
+    public void setUp(OpenShopState state) {
+        productService = state.getBean(ProductService.class);
+        cartService = state.getBean(CartService.class);
+        orderService = state.getBean(OrderService.class);
+        transactionTemplate = state.transactionTemplate();
+        variantCount = state.variantCount();
+        pageCount = Math.max(1, state.products / PAGE_SIZE);
+    }
+
+    /**
+     * Walks through the catalog page by page. There are far more pages than cache entries,
+     * so this measures the database and mapping path rather than Caffeine hits.
+     */
+    @Benchmark
+    public Page<ProductResponse> findAllPaginated() {
+        int page = nextPage++ % pageCount;
+        return transactionTemplate.execute(status -> productService.findAllPaginated(page, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public CartItemResponse addItemToCart(EmptyCart cart) {
+        CartItemRequest request = new CartItemRequest();
+        request.setVariantId(1 + random.nextLong(variantCount));
+        request.setQuantity(1);
+        return transactionTemplate.execute(status -> cartService.addItemToCart(request));
+    }
+
+    @Benchmark
+    public OrderResponse createOrder(FilledCart cart) {
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddressId(BENCHMARK_ADDRESS_ID);
+        request.setPaymentMethod("CARD");
+        return orderService.createOrder(request);
+    }
+
+    /** Starts every addItemToCart invocation from an empty cart so the insert path is measured each time. */
+    @State(Scope.Thread)
+    public static class EmptyCart {
+        private JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp(OpenShopState state) {
+            jdbcTemplate = state.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void clear() {
+            jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", BENCHMARK_CART_ID);
+        }
+    }
+
+    /** Puts three random variants into the cart before every checkout. */
+    @State(Scope.Thread)
+    public static class FilledCart {
+        private static final int ITEMS = 3;
+
+        private JdbcTemplate jdbcTemplate;
+        private long variantCount;
+        private final SplittableRandom random = new SplittableRandom(11);
+
+        @Setup(Level.Trial)
+        public void setUp(OpenShopState state) {
+            jdbcTemplate = state.getBean(JdbcTemplate.class);
+            variantCount = state.variantCount();
+        }
+
+        @Setup(Level.Invocation)
+        public void fill() {
+            jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", BENCHMARK_CART_ID);
+            for (int i = 0; i < ITEMS; i++) {
+                jdbcTemplate.update("INSERT INTO cart_items (id, variant_id, quantity, cart_id) "
+                                + "VALUES (NEXT VALUE FOR cart_item_seq, ?, ?, ?)",
+                        1 + random.nextLong(variantCount), 1 + random.nextInt(3), BENCHMARK_CART_ID);
+            }
+        }
+    }
+}
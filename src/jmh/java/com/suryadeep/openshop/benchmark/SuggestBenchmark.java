@@ -0,0 +1,96 @@
+package com.suryadeep.openshop.benchmark;
+
+import com.suryadeep.openshop.search.SearchTokenizer;
+import com.suryadeep.openshop.search.SuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups on a SuggestIndex of generated product names. At setup the heap retained by the index is
+ * measured with JOL and printed next to what the same entries take as a TreeMap from each word suffix to its
+ * suggestion, the obvious way to write it. Needs no database.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+// JOL needs the magic field offset to read record fields on recent JDKs, the TreeMap needs the heap
+@Fork(value = 1, jvmArgsAppend = {"-Djol.magicFieldOffset=true", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+
+    private static final String[] ADJECTIVES = {"blue", "red", "black", "white", "green", "classic", "slim",
+            "cotton", "leather", "wireless", "organic", "vintage", "compact", "premium", "waterproof", "wooden"};
+    private static final String[] NOUNS = {"shirt", "jacket", "speaker", "headphones", "sneakers", "backpack",
+            "watch", "lamp", "mug", "notebook", "charger", "bottle", "wallet", "sunglasses", "blender", "kettle"};
+
+    @Param("1000000")
+    public int names;
+
+    private SuggestIndex index;
+    private String[] shortPrefixes;
+    private String[] longPrefixes;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom generator = new SplittableRandom(7);
+        SuggestIndex.Builder builder = SuggestIndex.builder();
+        TreeMap<String, SuggestIndex.Suggestion> naive = new TreeMap<>();
+        String[] generated = new String[names];
+        for (int id = 1; id <= names; id++) {
+            String name = ADJECTIVES[generator.nextInt(ADJECTIVES.length)] + " "
+                    + ADJECTIVES[generator.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[generator.nextInt(NOUNS.length)] + " " + Integer.toString(id, 36);
+            // A few products take most of the orders
+            long orders = (long) (Math.pow(generator.nextDouble(), 8) * 10_000);
+            builder.add(SuggestIndex.Type.PRODUCT, id, name, orders);
+            SuggestIndex.Suggestion suggestion = new SuggestIndex.Suggestion(SuggestIndex.Type.PRODUCT, id, name);
+            List<String> words = SearchTokenizer.tokenize(name);
+            for (int word = 0; word < words.size(); word++) {
+                naive.put(String.join(" ", words.subList(word, words.size())) + '\0' + id, suggestion);
+            }
+            generated[id - 1] = name;
+        }
+        index = builder.build();
+
+        long indexBytes = GraphLayout.parseInstance(index).totalSize();
+        long naiveBytes = GraphLayout.parseInstance(naive).totalSize();
+        System.out.printf("%n%,d names (%,d entries) retain %,d bytes in the index and %,d bytes as a TreeMap (%.1fx smaller)%n",
+                index.size(), index.entries(), indexBytes, naiveBytes, (double) naiveBytes / indexBytes);
+
+        shortPrefixes = new String[1024];
+        longPrefixes = new String[1024];
+        for (int i = 0; i < shortPrefixes.length; i++) {
+            String name = generated[random.nextInt(generated.length)];
+            shortPrefixes[i] = name.substring(0, 1);
+            longPrefixes[i] = name.substring(0, name.indexOf(' ') + 4);
+        }
+    }
+
+    @Benchmark
+    public Object suggestOneLetter() {
+        return index.suggest(shortPrefixes[random.nextInt(shortPrefixes.length)], 10);
+    }
+
+    @Benchmark
+    public Object suggestTwoWords() {
+        return index.suggest(longPrefixes[random.nextInt(longPrefixes.length)], 10);
+    }
+}
@@ -0,0 +1,23 @@
+package com.suryadeep.openshop.cache;
+
+/**
+ * An eviction broadcast to the other nodes through the CacheInvalidationBus.
+ *
+ * @param origin    the node that published it, nodes ignore their own invalidations
+ * @param cacheName the cache to invalidate
+ * @param type      what to do
+ * @param key       the key or tag, null for CLEAR
+ */
+public record CacheInvalidation(String origin, String cacheName, Type type, Object key) {
+
+    public enum Type {
+        /** Evict one key */
+        EVICT,
+        /** Evict every key carrying the tag */
+        EVICT_TAG,
+        /** Reload one key in the background, see RefreshAheadCache */
+        REFRESH,
+        /** Evict everything */
+        CLEAR
+    }
+}
@@ -0,0 +1,23 @@
+package com.suryadeep.openshop.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel that carries cache invalidations between the nodes, so an admin write on one node
+ * does not leave the Caffeine caches of the others serving stale entries.
+ * Every invalidation is delivered to every subscriber, the publishing node included.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Send an invalidation to all nodes
+     * @param invalidation The invalidation
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Receive the invalidations published by any node
+     * @param listener Called once per invalidation
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
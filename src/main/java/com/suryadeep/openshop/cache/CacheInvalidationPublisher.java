@@ -0,0 +1,19 @@
+package com.suryadeep.openshop.cache;
+
+/**
+ * Called by a node-local cache after it invalidated entries, to pass the invalidation on to the other nodes.
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+    /** Keeps invalidations on this node */
+    CacheInvalidationPublisher NONE = (cacheName, type, key) -> { };
+
+    /**
+     * Publish an invalidation
+     * @param cacheName The cache that was invalidated
+     * @param type What was done
+     * @param key The key or tag, null for CLEAR
+     */
+    void publish(String cacheName, CacheInvalidation.Type type, Object key);
+}
@@ -0,0 +1,82 @@
+package com.suryadeep.openshop.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Connects the node-local caches of this node to the CacheInvalidationBus:
+ * invalidations made here are published with this node's id, and invalidations
+ * published by other nodes are applied to the local caches.
+ * Listeners see both, for state derived from the caches that has to be dropped with them.
+ */
+@Slf4j
+public class CacheInvalidationRelay implements CacheInvalidationPublisher {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationBus bus;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidationRelay(CacheInvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @Override
+    public void publish(String cacheName, CacheInvalidation.Type type, Object key) {
+        CacheInvalidation invalidation = new CacheInvalidation(nodeId, cacheName, type, key);
+        notifyListeners(invalidation);
+        try {
+            bus.publish(invalidation);
+        } catch (RuntimeException e) {
+            // The local caches are already invalidated, the other nodes catch up when their entries expire
+            log.warn("Failed to publish {} of '{}' in cache {}: {}", type, key, cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Start applying the invalidations of other nodes to the caches of the cache manager
+     * @param cacheManager The cache manager of this node
+     */
+    public void applyTo(CacheManager cacheManager) {
+        bus.subscribe(invalidation -> {
+            if (nodeId.equals(invalidation.origin())) {
+                return;
+            }
+            Cache cache = cacheManager.getCache(invalidation.cacheName());
+            if (cache instanceof NodeLocalCache nodeLocalCache) {
+                log.debug("Applying {} of '{}' in cache {} from node {}", invalidation.type(), invalidation.key(),
+                        invalidation.cacheName(), invalidation.origin());
+                nodeLocalCache.applyInvalidation(invalidation);
+            }
+            notifyListeners(invalidation);
+        });
+    }
+
+    /**
+     * Be told of every invalidation, whether made on this node or applied from another one
+     * @param listener Called on the thread that invalidated or polled the bus, must not block
+     */
+    public void addListener(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyListeners(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation listener failed on {} of '{}' in cache {}: {}", invalidation.type(),
+                        invalidation.key(), invalidation.cacheName(), e.getMessage());
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
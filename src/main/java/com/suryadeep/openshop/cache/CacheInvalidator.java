@@ -0,0 +1,83 @@
+package com.suryadeep.openshop.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cache entries by key or by tag.
+ * Inside a transaction the eviction runs after commit, so a concurrent read cannot
+ * put the old state back into the cache before the change is visible.
+ */
+@Slf4j
+@AllArgsConstructor
+@Component
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Evict a single entry
+     * @param cacheName The cache holding the entry
+     * @param key The key of the entry
+     */
+    public void evict(String cacheName, Object key) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(key);
+            }
+        });
+    }
+
+    /**
+     * Reload an entry of a refresh-ahead cache in the background, readers keep getting the old value meanwhile.
+     * Other caches evict the entry instead.
+     * @param cacheName The cache holding the entry
+     * @param key The key of the entry
+     */
+    public void refresh(String cacheName, Object key) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof RefreshAheadCache refreshAheadCache) {
+                refreshAheadCache.refresh(key);
+            } else if (cache != null) {
+                cache.evict(key);
+            }
+        });
+    }
+
+    /**
+     * Evict every entry carrying the tag
+     * @param cacheName The cache holding the entries
+     * @param tag The tag to evict
+     */
+    public void evictTag(String cacheName, String tag) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof TaggedCache taggedCache) {
+                taggedCache.evictTag(tag);
+            } else if (cache != null) {
+                log.warn("Cache {} does not support tags, clearing it to evict tag '{}'", cacheName, tag);
+                cache.clear();
+            }
+        });
+    }
+
+    static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
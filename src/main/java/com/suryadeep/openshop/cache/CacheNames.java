@@ -0,0 +1,61 @@
+package com.suryadeep.openshop.cache;
+
+import com.suryadeep.openshop.entity.enums.OrderStatus;
+
+/**
+ * Names of the application caches and of the tags their entries carry.
+ * Tags are derived from the cache keys in CacheConfig, so keys and tags have to agree.
+ */
+public final class CacheNames {
+
+    public static final String CATEGORIES = "categories";
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+    public static final String ORDERS = "orders";
+    /** Refresh-ahead cache of the full catalog lists, keyed by ALL_CATEGORIES and ALL_PRODUCTS */
+    public static final String CATALOG = "catalog";
+    /** Serialized JSON bodies of the public catalog GET endpoints, see ResponseBodyCache */
+    public static final String RESPONSES = "responses";
+    /** Not a cache: token revocations relayed to the other nodes, keyed by revocation time and user */
+    public static final String TOKEN_REVOCATIONS = "tokenRevocations";
+    /** Not a cache: stock changes relayed to the other nodes, keyed by the ids of the products joined by commas */
+    public static final String PRODUCT_STOCK = "productStock";
+    /** Not a cache: products and categories added, deleted or renamed, relayed to the other nodes, keyed by type and id */
+    public static final String CATALOG_NAMES = "catalogNames";
+
+    public static final String ALL_CATEGORIES = "allCategories";
+    public static final String ALL_PRODUCTS = "allProducts";
+
+    /** Every paginated listing of a cache that is not filtered by category or status */
+    public static final String PAGES_TAG = "pages";
+
+    private static final String CATEGORY_TAG_PREFIX = "category_";
+
+    private CacheNames() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /** Product listings of one category, in all pages and sizes */
+    public static String categoryTag(Long categoryId) {
+        return CATEGORY_TAG_PREFIX + categoryId;
+    }
+
+    public static boolean isCategoryTag(String tag) {
+        return tag.startsWith(CATEGORY_TAG_PREFIX);
+    }
+
+    /** The category of a tag made by categoryTag */
+    public static Long categoryIdOf(String categoryTag) {
+        return Long.valueOf(categoryTag.substring(CATEGORY_TAG_PREFIX.length()));
+    }
+
+    /** Order pages of one status, in all pages and sizes */
+    public static String statusTag(OrderStatus status) {
+        return "status_" + status;
+    }
+
+    /** Order lists of one user, with and without a status filter */
+    public static String userTag(Long userId) {
+        return "user_" + userId;
+    }
+}
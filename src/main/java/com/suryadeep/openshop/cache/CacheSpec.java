@@ -0,0 +1,56 @@
+package com.suryadeep.openshop.cache;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Sizing and expiry of a single Caffeine cache.
+ * Unset fields are taken from the defaults, but bounds and expiry are inherited as a group:
+ * a cache that sets maximum-weight does not also get the default maximum-size, and one that sets
+ * expire-after-write does not also get the default expire-after-access.
+ */
+@Data
+public class CacheSpec {
+
+    /** Maximum number of entries */
+    private Long maximumSize;
+    /** Maximum estimated size of all entries, weighed by ResponseSizeWeigher; takes precedence over maximumSize */
+    private DataSize maximumWeight;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    /** Only valid for caches that have a loader to refresh entries with */
+    private Duration refreshAfterWrite;
+    /** Let the garbage collector reclaim values under memory pressure */
+    private Boolean softValues;
+    /** Store response DTOs as Smile bytes, decoded on every read, see SmileCacheValueCodec */
+    private Boolean serializeValues;
+
+    /**
+     * Fill the unset fields of this spec from the defaults
+     * @param defaults The spec to inherit from
+     * @return A new spec, this one is left untouched
+     */
+    public CacheSpec withDefaults(CacheSpec defaults) {
+        CacheSpec resolved = new CacheSpec();
+        if (maximumSize != null || maximumWeight != null) {
+            resolved.setMaximumSize(maximumSize);
+            resolved.setMaximumWeight(maximumWeight);
+        } else {
+            resolved.setMaximumSize(defaults.getMaximumSize());
+            resolved.setMaximumWeight(defaults.getMaximumWeight());
+        }
+        if (expireAfterWrite != null || expireAfterAccess != null) {
+            resolved.setExpireAfterWrite(expireAfterWrite);
+            resolved.setExpireAfterAccess(expireAfterAccess);
+        } else {
+            resolved.setExpireAfterWrite(defaults.getExpireAfterWrite());
+            resolved.setExpireAfterAccess(defaults.getExpireAfterAccess());
+        }
+        resolved.setRefreshAfterWrite(refreshAfterWrite != null ? refreshAfterWrite : defaults.getRefreshAfterWrite());
+        resolved.setSoftValues(softValues != null ? softValues : defaults.getSoftValues());
+        resolved.setSerializeValues(serializeValues != null ? serializeValues : defaults.getSerializeValues());
+        return resolved;
+    }
+}
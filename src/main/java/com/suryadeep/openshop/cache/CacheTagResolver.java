@@ -0,0 +1,53 @@
+package com.suryadeep.openshop.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the tags of a cache entry from its key.
+ * Tags group entries that have to be invalidated together, such as every page of one category.
+ */
+@FunctionalInterface
+public interface CacheTagResolver {
+
+    CacheTagResolver NONE = key -> Set.of();
+
+    Set<String> tagsFor(Object key);
+
+    /**
+     * Creates a resolver that matches string keys against regular expressions.
+     * Patterns and tag templates alternate; a template may refer to groups of its pattern,
+     * e.g. {@code byKeyPattern("category_(\\d+)(_page_.*)?", "category_$1")}.
+     *
+     * @param patternsAndTags regular expressions, each followed by the tag template it produces
+     * @return the resolver
+     */
+    static CacheTagResolver byKeyPattern(String... patternsAndTags) {
+        if (patternsAndTags.length % 2 != 0) {
+            throw new IllegalArgumentException("Every key pattern needs a tag template");
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        List<String> templates = new ArrayList<>();
+        for (int i = 0; i < patternsAndTags.length; i += 2) {
+            patterns.add(Pattern.compile(patternsAndTags[i]));
+            templates.add(patternsAndTags[i + 1]);
+        }
+        return key -> {
+            if (!(key instanceof String stringKey)) {
+                return Set.of();
+            }
+            Set<String> tags = new LinkedHashSet<>();
+            for (int i = 0; i < patterns.size(); i++) {
+                Matcher matcher = patterns.get(i).matcher(stringKey);
+                if (matcher.matches()) {
+                    tags.add(matcher.replaceFirst(templates.get(i)));
+                }
+            }
+            return tags;
+        };
+    }
+}
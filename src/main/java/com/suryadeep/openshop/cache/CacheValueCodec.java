@@ -0,0 +1,32 @@
+package com.suryadeep.openshop.cache;
+
+/**
+ * Converts values between the form the application caches and the form stored in Caffeine.
+ */
+public interface CacheValueCodec {
+
+    /** Stores values as they are */
+    CacheValueCodec IDENTITY = new CacheValueCodec() {
+        @Override
+        public Object encode(Object value) {
+            return value;
+        }
+
+        @Override
+        public Object decode(Object stored) {
+            return stored;
+        }
+    };
+
+    /**
+     * @param value The value to cache, may be null
+     * @return The value to store
+     */
+    Object encode(Object value);
+
+    /**
+     * @param stored A value returned by {@link #encode(Object)}, may be null
+     * @return A value equal to the one that was encoded
+     */
+    Object decode(Object stored);
+}
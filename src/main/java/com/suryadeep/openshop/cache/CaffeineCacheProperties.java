@@ -0,0 +1,46 @@
+package com.suryadeep.openshop.cache;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caffeine settings bound from the {@code caffeine.*} properties.
+ * The top-level values are the defaults for every cache, and {@code caffeine.caches.<name>.*}
+ * overrides them for one cache, e.g. {@code caffeine.caches.products.maximum-weight=64MB}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ConfigurationProperties(prefix = "caffeine")
+public class CaffeineCacheProperties extends CacheSpec {
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * Get the effective spec of a cache
+     * @param cacheName The cache name
+     * @return The cache's own settings, completed with the defaults
+     */
+    public CacheSpec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, new CacheSpec()).withDefaults(this);
+    }
+
+    /**
+     * How evictions reach the caches of the other nodes, bound from {@code caffeine.invalidation.*}
+     */
+    @Data
+    public static class Invalidation {
+
+        /** "loopback" keeps invalidations on this node, "jdbc" shares them through the database */
+        private String bus = "loopback";
+        private Duration pollInterval = Duration.ofSeconds(1);
+        /** How far each poll looks back for rows committed late or stamped by a node with a slower clock */
+        private Duration lookback = Duration.ofSeconds(30);
+        private Duration retention = Duration.ofHours(1);
+    }
+}
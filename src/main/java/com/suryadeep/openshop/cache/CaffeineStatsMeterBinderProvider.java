@@ -0,0 +1,23 @@
+package com.suryadeep.openshop.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
+
+/**
+ * Exposes the statistics Caffeine records for the application caches (TaggedCache, RefreshAheadCache)
+ * as the standard {@code cache.*} meters. Spring Boot only knows how to bind its own CaffeineCache,
+ * so without this the caches in the SimpleCacheManager report nothing.
+ */
+public class CaffeineStatsMeterBinderProvider implements CacheMeterBinderProvider<Cache> {
+
+    @Override
+    public MeterBinder getMeterBinder(Cache cache, Iterable<Tag> tags) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return new CaffeineCacheMetrics<>(caffeine, cache.getName(), tags);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.suryadeep.openshop.cache;
+
+import com.suryadeep.openshop.entity.CacheInvalidationEntry;
+import com.suryadeep.openshop.repository.CacheInvalidationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between nodes through the cache_invalidations table of the shared database,
+ * so no infrastructure beyond the database is needed.
+ * Publishing inserts a row, and every node polls for rows created since its last poll.
+ * Ids are not handed out in commit order, so each poll looks back a little further and
+ * skips the rows it already delivered; the lookback also absorbs clock differences between nodes.
+ * Rows older than the retention are deleted by every node.
+ */
+@Slf4j
+public class JdbcCacheInvalidationBus implements CacheInvalidationBus, AutoCloseable {
+
+    private final CacheInvalidationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pollInterval;
+    private final Duration lookback;
+    private final Duration retention;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Long, Instant> deliveredIds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Instant lastPoll = Instant.now();
+
+    public JdbcCacheInvalidationBus(CacheInvalidationRepository repository, PlatformTransactionManager transactionManager,
+                                    Duration pollInterval, Duration lookback, Duration retention) {
+        this.repository = repository;
+        this.pollInterval = pollInterval;
+        this.lookback = lookback;
+        this.retention = retention;
+        // Invalidations are published after commit, when the caller's transaction can no longer write
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Start polling the table and purging old rows
+     */
+    public void start() {
+        long pollMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        long purgeMillis = Math.max(pollMillis, retention.toMillis() / 10);
+        scheduler.scheduleWithFixedDelay(this::purgeSafely, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+        log.info("Polling cache invalidations every {}", pollInterval);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        CacheInvalidationEntry entry = toEntry(invalidation);
+        transactionTemplate.executeWithoutResult(status -> repository.save(entry));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Deliver the invalidations published since the last poll
+     * @return The number of invalidations delivered
+     */
+    public int poll() {
+        Instant now = Instant.now();
+        List<CacheInvalidationEntry> entries = transactionTemplate.execute(status ->
+                repository.findByCreatedAtAfterOrderByIdAsc(lastPoll.minus(lookback)));
+        int delivered = 0;
+        for (CacheInvalidationEntry entry : entries) {
+            if (deliveredIds.putIfAbsent(entry.getId(), now) == null) {
+                CacheInvalidation invalidation = toInvalidation(entry);
+                listeners.forEach(listener -> listener.accept(invalidation));
+                delivered++;
+            }
+        }
+        lastPoll = now;
+        // Ids older than any future poll window can never come back
+        Instant forgetBefore = now.minus(lookback).minus(pollInterval);
+        deliveredIds.values().removeIf(deliveredAt -> deliveredAt.isBefore(forgetBefore));
+        return delivered;
+    }
+
+    /**
+     * Delete the rows older than the retention
+     * @return The number of rows deleted
+     */
+    public int purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteCreatedBefore(Instant.now().minus(retention)));
+        return deleted != null ? deleted : 0;
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Failed to poll cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    private void purgeSafely() {
+        try {
+            int deleted = purge();
+            log.debug("Purged {} cache invalidations", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    private static CacheInvalidationEntry toEntry(CacheInvalidation invalidation) {
+        CacheInvalidationEntry entry = new CacheInvalidationEntry();
+        entry.setOrigin(invalidation.origin());
+        entry.setCacheName(invalidation.cacheName());
+        entry.setCreatedAt(Instant.now());
+        Object key = invalidation.key();
+        if (key == null || key instanceof String || key instanceof Long || key instanceof Integer) {
+            entry.setType(invalidation.type());
+            entry.setKeyType(key != null ? key.getClass().getSimpleName() : null);
+            entry.setCacheKey(key != null ? key.toString() : null);
+        } else {
+            // Keys that cannot be stored as text are evicted by clearing the cache on the other nodes
+            entry.setType(CacheInvalidation.Type.CLEAR);
+        }
+        return entry;
+    }
+
+    private static CacheInvalidation toInvalidation(CacheInvalidationEntry entry) {
+        String cacheKey = entry.getCacheKey();
+        Object key = cacheKey == null ? null : switch (entry.getKeyType()) {
+            case "Long" -> Long.valueOf(cacheKey);
+            case "Integer" -> Integer.valueOf(cacheKey);
+            default -> cacheKey;
+        };
+        return new CacheInvalidation(entry.getOrigin(), entry.getCacheName(), entry.getType(), key);
+    }
+}
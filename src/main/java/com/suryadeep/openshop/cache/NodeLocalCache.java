@@ -0,0 +1,15 @@
+package com.suryadeep.openshop.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache held in the memory of one node, whose evictions are published to the other nodes.
+ */
+public interface NodeLocalCache extends Cache {
+
+    /**
+     * Apply an invalidation published by another node, without publishing it again
+     * @param invalidation The invalidation
+     */
+    void applyInvalidation(CacheInvalidation invalidation);
+}
@@ -0,0 +1,91 @@
+package com.suryadeep.openshop.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Drops the cached products whose stock changed, on every node, once the change commits.
+ * A stock change is not a catalog change: only the product's own cache entry and response are dropped,
+ * not the listings, the search index or the suggestions, which keep the stock they were built with until
+ * they expire or the catalog changes. So it is not published as an eviction of the products cache, but as
+ * an invalidation of CacheNames.PRODUCT_STOCK carrying the ids of all the products of one commit.
+ */
+@Slf4j
+public class ProductStockInvalidator {
+
+    static final String ID_SEPARATOR = ",";
+    // Length of the cache_key column of the JDBC bus
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final CacheManager cacheManager;
+    private final ResponseBodyCache responseBodyCache;
+    private final CacheInvalidationPublisher publisher;
+
+    public ProductStockInvalidator(CacheManager cacheManager, ResponseBodyCache responseBodyCache,
+                                   CacheInvalidationPublisher publisher) {
+        this.cacheManager = cacheManager;
+        this.responseBodyCache = responseBodyCache;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Drop the cached products once the transaction changing their stock commits
+     * @param productIds The products whose variants' stock changed
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = keysOf(productIds);
+        CacheInvalidator.afterCommit(() -> keys.forEach(key ->
+                publisher.publish(CacheNames.PRODUCT_STOCK, CacheInvalidation.Type.EVICT, key)));
+    }
+
+    /**
+     * Apply a stock change made on this node or on another one
+     * @param invalidation The invalidation, ignored unless it is of CacheNames.PRODUCT_STOCK
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        if (!CacheNames.PRODUCT_STOCK.equals(invalidation.cacheName())
+                || !(invalidation.key() instanceof String key)) {
+            return;
+        }
+        Cache products = cacheManager.getCache(CacheNames.PRODUCTS);
+        for (String id : key.split(ID_SEPARATOR)) {
+            Long productId = Long.valueOf(id);
+            if (products instanceof NodeLocalCache nodeLocalCache) {
+                // Applied as if from another node, so the eviction is not published as a catalog change
+                nodeLocalCache.applyInvalidation(new CacheInvalidation(invalidation.origin(), CacheNames.PRODUCTS,
+                        CacheInvalidation.Type.EVICT, productId));
+            } else if (products != null) {
+                products.evict(productId);
+            }
+            responseBodyCache.evictResource(CacheNames.PRODUCTS, productId);
+        }
+        log.debug("Dropped cached products {} after a stock change on node {}", key, invalidation.origin());
+    }
+
+    // As few keys as fit the bus, so a checkout writes one row however many products it holds
+    static List<String> keysOf(Collection<Long> productIds) {
+        List<String> keys = new ArrayList<>();
+        StringBuilder key = new StringBuilder();
+        for (Long productId : productIds) {
+            String id = productId.toString();
+            if (!key.isEmpty() && key.length() + ID_SEPARATOR.length() + id.length() > MAX_KEY_LENGTH) {
+                keys.add(key.toString());
+                key.setLength(0);
+            }
+            if (!key.isEmpty()) {
+                key.append(ID_SEPARATOR);
+            }
+            key.append(id);
+        }
+        keys.add(key.toString());
+        return keys;
+    }
+}
@@ -0,0 +1,158 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caffeine AsyncLoadingCache for a few hot, expensive keys such as the full category and product lists.
+ * Each key has a loader, registered on first use. Concurrent misses on a key share a single load,
+ * and once refresh-after-write has passed, the stale value keeps being served while one background reload runs.
+ * Writes should call {@link #refresh(Object)} instead of evicting, so readers never wait for a reload.
+ * Refreshes and evictions are passed to the publisher, so the other nodes reload or evict as well.
+ */
+@Slf4j
+public class RefreshAheadCache implements NodeLocalCache {
+
+    private final String name;
+    private final AsyncLoadingCache<Object, Object> cache;
+    private final CacheInvalidationPublisher publisher;
+    private final Map<Object, Supplier<?>> loaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param name     the cache name
+     * @param caffeine a builder for this cache, usually with refreshAfterWrite set
+     */
+    public RefreshAheadCache(String name, Caffeine<Object, Object> caffeine) {
+        this(name, caffeine, CacheInvalidationPublisher.NONE);
+    }
+
+    /**
+     * @param name      the cache name
+     * @param caffeine  a builder for this cache, usually with refreshAfterWrite set
+     * @param publisher receives the refreshes and evictions made on this node
+     */
+    public RefreshAheadCache(String name, Caffeine<Object, Object> caffeine, CacheInvalidationPublisher publisher) {
+        this.name = name;
+        this.publisher = publisher;
+        this.cache = caffeine.buildAsync(this::load);
+    }
+
+    /**
+     * Get a value, loading it with the key's loader on a miss.
+     * The first loader passed for a key is kept and used for all later loads and refreshes.
+     * @param key The key
+     * @param loader Computes the value without going through this cache
+     * @return The cached or loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(Object key, Supplier<T> loader) {
+        loaders.putIfAbsent(key, loader);
+        try {
+            return (T) cache.get(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reload a cached value in the background, readers get the old value until the reload completes.
+     * Keys that are not cached are left alone, the next read loads them.
+     * @param key The key to refresh
+     */
+    public void refresh(Object key) {
+        refreshLocally(key);
+        publisher.publish(name, CacheInvalidation.Type.REFRESH, key);
+    }
+
+    private void refreshLocally(Object key) {
+        if (cache.getIfPresent(key) != null) {
+            log.debug("Refreshing '{}' in cache {}", key, name);
+            cache.synchronous().refresh(key);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LoadingCache<Object, Object> getNativeCache() {
+        return cache.synchronous();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = cache.synchronous().getIfPresent(key);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = cache.synchronous().getIfPresent(key);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) cache.synchronous().get(key, k -> {
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.synchronous().put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.synchronous().invalidate(key);
+        publisher.publish(name, CacheInvalidation.Type.EVICT, key);
+    }
+
+    @Override
+    public void clear() {
+        cache.synchronous().invalidateAll();
+        publisher.publish(name, CacheInvalidation.Type.CLEAR, null);
+    }
+
+    @Override
+    public void applyInvalidation(CacheInvalidation invalidation) {
+        switch (invalidation.type()) {
+            case REFRESH -> refreshLocally(invalidation.key());
+            case EVICT -> cache.synchronous().invalidate(invalidation.key());
+            case EVICT_TAG, CLEAR -> cache.synchronous().invalidateAll();
+        }
+    }
+
+    private Object load(Object key) {
+        Supplier<?> loader = loaders.get(key);
+        if (loader == null) {
+            throw new IllegalStateException("No loader registered for key '" + key + "' in cache " + name);
+        }
+        log.debug("Loading '{}' into cache {}", key, name);
+        return loader.get();
+    }
+}
@@ -0,0 +1,296 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the final JSON bodies of the public catalog GET endpoints, keyed by path and query,
+ * so a hit is written out as is instead of being serialized and compressed again (see ResponseCacheFilter).
+ * Each entry also keeps its gzipped bytes and a strong ETag.
+ * <p>
+ * The bodies are derived from the source caches, so they are dropped with the source entries they were built
+ * from, on this node or on another one. Entries are indexed by what their path names, the way TaggedCache
+ * indexes its keys: a path ending in an id shows that one resource and is dropped when the id is evicted from
+ * its source cache; any other path is a listing, dropped when any other key or tag of the source cache is.
+ * Every change to a listed resource also evicts the listings of the source cache, so nothing else is dropped.
+ */
+@Slf4j
+public class ResponseBodyCache {
+
+    /** Bodies smaller than this are not worth compressing, same as server.compression.min-response-size */
+    static final int MIN_COMPRESSED_SIZE = 1024;
+
+    // A put only races with the drops of its own tag, and of the tags sharing its stripe
+    private static final int GENERATION_STRIPES = 1024;
+    private static final String LISTINGS = "listings";
+    private static final String TAG_SEPARATOR = ":";
+    // Longer digit strings are not ids of the source caches, whose keys are longs
+    private static final int MAX_ID_LENGTH = 18;
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, String> sourceCachesByPath;
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * @param caffeine           a builder for this cache only; an eviction listener is registered on it
+     * @param sourceCachesByPath names of the caches the bodies are built from, by the path below the context
+     *                           path the bodies are served at, e.g. /api/products
+     */
+    public ResponseBodyCache(Caffeine<Object, Object> caffeine, Map<String, String> sourceCachesByPath) {
+        this.sourceCachesByPath = Map.copyOf(sourceCachesByPath);
+        this.cache = caffeine
+                .<String, CachedResponse>evictionListener((key, value, cause) -> {
+                    if (key != null) {
+                        untrack(key);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Get a cached response
+     * @param key The path and query
+     * @return The response, null on a miss
+     */
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * The current generation of a key, to be read before building its response and passed to {@link #put}
+     * @param key The path and query
+     * @return A number that changes whenever the responses the key is dropped with are dropped
+     */
+    public long generation(String key) {
+        return generations.get(stripe(tagOf(key)));
+    }
+
+    /**
+     * Cache a response body. It is not kept if responses it is dropped with were dropped since the generation
+     * was read, since the body may have been built from data that was invalidated meanwhile. Nor is it kept
+     * if its path is not served from a source cache, as nothing would ever drop it.
+     * @param key The path and query
+     * @param generation The generation read before building the body
+     * @param contentType The content type of the body
+     * @param body The serialized body
+     * @return The response to write, whether it was kept or not
+     */
+    public CachedResponse put(String key, long generation, String contentType, byte[] body) {
+        CachedResponse response = CachedResponse.of(contentType, body);
+        String tag = tagOf(key);
+        if (tag == null) {
+            return response;
+        }
+        int stripe = stripe(tag);
+        if (generation == generations.get(stripe)) {
+            cache.put(key, response);
+            track(tag, key);
+            // A drop between the check and the put would otherwise leave this entry behind
+            if (generation != generations.get(stripe)) {
+                cache.invalidate(key);
+                untrack(key);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Drop every cached response
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        cache.invalidateAll();
+        keysByTag.clear();
+    }
+
+    /**
+     * Drop the responses built from the source entries an invalidation concerns
+     * @param invalidation An invalidation made on this node or applied from another one
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        String cacheName = invalidation.cacheName();
+        if (!sourceCachesByPath.containsValue(cacheName)) {
+            return;
+        }
+        switch (invalidation.type()) {
+            case EVICT, REFRESH -> {
+                Object key = invalidation.key();
+                // Resources are cached by their id, listings by their page or category
+                boolean resource = key instanceof Long || key instanceof Integer;
+                drop(tag(cacheName, resource ? key.toString() : LISTINGS));
+            }
+            case EVICT_TAG -> drop(tag(cacheName, LISTINGS));
+            case CLEAR -> {
+                log.debug("Clearing cached responses after a clear of cache {}", cacheName);
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Drop the responses of one resource, leaving the listings it appears in
+     * @param cacheName The source cache of the resource
+     * @param id The id the resource is cached by
+     */
+    public void evictResource(String cacheName, Object id) {
+        if (sourceCachesByPath.containsValue(cacheName)) {
+            drop(tag(cacheName, id.toString()));
+        }
+    }
+
+    public Cache<String, CachedResponse> getNativeCache() {
+        return cache;
+    }
+
+    private void drop(String tag) {
+        generations.incrementAndGet(stripe(tag));
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+            log.debug("Dropped {} cached responses tagged '{}'", keys.size(), tag);
+        }
+    }
+
+    private void track(String tag, String key) {
+        // Adding inside compute keeps a concurrent untrack from dropping the set we add to
+        keysByTag.compute(tag, (t, keys) -> {
+            Set<String> tagged = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            tagged.add(key);
+            return tagged;
+        });
+    }
+
+    private void untrack(String key) {
+        String tag = tagOf(key);
+        if (tag != null) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * The tag of a key: the source cache and the id its path ends in, or the listings of the source cache
+     * @param key The path and query
+     * @return The tag, null if the path is not served from a source cache
+     */
+    private String tagOf(String key) {
+        int query = key.indexOf('?');
+        String path = query >= 0 ? key.substring(0, query) : key;
+        for (Map.Entry<String, String> source : sourceCachesByPath.entrySet()) {
+            String sourcePath = source.getKey();
+            if (path.equals(sourcePath)) {
+                return tag(source.getValue(), LISTINGS);
+            }
+            if (path.startsWith(sourcePath) && path.charAt(sourcePath.length()) == '/') {
+                String id = idOf(path.substring(sourcePath.length() + 1));
+                return tag(source.getValue(), id != null ? id : LISTINGS);
+            }
+        }
+        return null;
+    }
+
+    // The id as the source cache's key prints it, so /api/products/007 is dropped with key 7
+    private static String idOf(String segment) {
+        if (segment.isEmpty() || segment.length() > MAX_ID_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        return Long.toString(Long.parseLong(segment));
+    }
+
+    private static String tag(String cacheName, String id) {
+        return cacheName + TAG_SEPARATOR + id;
+    }
+
+    private static int stripe(String tag) {
+        return tag != null ? Math.floorMod(tag.hashCode(), GENERATION_STRIPES) : 0;
+    }
+
+    /**
+     * A serialized response body, its gzipped form and its ETag
+     * @param contentType The content type of the body
+     * @param body The body as produced by the handler
+     * @param gzipped The gzipped body, null if the body is too small to be worth compressing
+     * @param etag The strong ETag of the body, quoted; the gzipped form has its own, see {@link #gzipEtag()}
+     */
+    public record CachedResponse(String contentType, byte[] body, byte[] gzipped, String etag) {
+
+        static CachedResponse of(String contentType, byte[] body) {
+            byte[] gzipped = body.length >= MIN_COMPRESSED_SIZE ? gzip(body) : null;
+            return new CachedResponse(contentType, body, gzipped, "\"" + hash(body) + "\"");
+        }
+
+        /**
+         * A strong ETag identifies one representation, so the gzipped bytes need a tag of their own
+         * @return The ETag of the gzipped body, quoted
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        /**
+         * Whether the client already has this body, in either encoding
+         * @param ifNoneMatch The If-None-Match header, may be null
+         * @return True if the header is * or lists one of the ETags
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                // If-None-Match uses the weak comparison, so a W/ prefix does not matter
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static String hash(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return HexFormat.of().formatHex(Arrays.copyOf(digest, 16));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
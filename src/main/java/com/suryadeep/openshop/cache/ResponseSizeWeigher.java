@@ -0,0 +1,142 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighs cache entries by a rough estimate of their heap size in bytes, so a cached list of
+ * a thousand products counts for more than a single category.
+ * Application objects (DTOs) are walked field by field; everything else is either a collection,
+ * a map, an array or treated as a small fixed-size value. The estimate only has to be proportional,
+ * not exact, and is computed once per write. Values stored as Smile bytes weigh what their bytes do.
+ */
+public class ResponseSizeWeigher implements Weigher<Object, Object> {
+
+    private static final String APPLICATION_PACKAGE = "com.suryadeep.openshop.";
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int SMALL_VALUE = 24;
+    private static final int MAX_DEPTH = 16;
+
+    private static final ClassValue<List<Field>> INSTANCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return List.copyOf(fields);
+        }
+    };
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = estimate(key, 0) + estimate(value, 0);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes));
+    }
+
+    /**
+     * Estimate the retained size of an object graph
+     * @param value The object to weigh, may be null
+     * @return The estimated size in bytes
+     */
+    public long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    private long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return OBJECT_HEADER + SMALL_VALUE + text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return OBJECT_HEADER + bytes.length;
+        }
+        if (value instanceof SmileCacheValueCodec.Encoded encoded) {
+            // The type is shared between entries, only the wrapper and the bytes belong to this one
+            return OBJECT_HEADER + 2 * REFERENCE + OBJECT_HEADER + encoded.bytes().length;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return value instanceof BigDecimal || value instanceof BigInteger ? 2L * SMALL_VALUE : OBJECT_HEADER;
+        }
+        if (value instanceof Enum<?>) {
+            // Enum constants are shared, only the reference is paid for
+            return 0;
+        }
+        if (value instanceof Temporal) {
+            return 2L * SMALL_VALUE;
+        }
+        if (depth >= MAX_DEPTH) {
+            return SMALL_VALUE;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_HEADER + SMALL_VALUE;
+            for (Object element : collection) {
+                size += REFERENCE + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = OBJECT_HEADER + SMALL_VALUE;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += OBJECT_HEADER + 2 * REFERENCE
+                        + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Iterable<?> iterable) {
+            // Pages and other result wrappers: their content is what counts
+            long size = OBJECT_HEADER + SMALL_VALUE;
+            for (Object element : iterable) {
+                size += REFERENCE + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            long size = OBJECT_HEADER + (long) length * REFERENCE;
+            if (!value.getClass().getComponentType().isPrimitive()) {
+                for (int i = 0; i < length; i++) {
+                    size += estimate(Array.get(value, i), depth + 1);
+                }
+            }
+            return size;
+        }
+        if (!value.getClass().getName().startsWith(APPLICATION_PACKAGE)) {
+            return SMALL_VALUE;
+        }
+        return estimateFields(value, depth);
+    }
+
+    private long estimateFields(Object value, int depth) {
+        List<Field> fields = INSTANCE_FIELDS.get(value.getClass());
+        long size = OBJECT_HEADER + (long) fields.size() * REFERENCE;
+        for (Field field : fields) {
+            if (!field.getType().isPrimitive()) {
+                try {
+                    size += estimate(field.get(value), depth + 1);
+                } catch (IllegalAccessException e) {
+                    size += SMALL_VALUE;
+                }
+            }
+        }
+        return size;
+    }
+}
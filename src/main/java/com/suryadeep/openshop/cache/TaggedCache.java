@@ -0,0 +1,228 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caffeine-backed cache that keeps an index from tag to the keys carrying it,
+ * so a whole group of entries can be evicted without scanning or clearing the cache.
+ * Entries leave the index when they are evicted explicitly, and when Caffeine evicts them for size or expiry.
+ * The latter is done by an eviction listener, which runs inside the removal: a removal listener runs later on
+ * the cache's executor, by when the key may have been cached again and would be dropped from the index.
+ * Explicit evictions are passed to the publisher, so the other nodes evict the same entries.
+ * Values pass through a codec on their way in and out, e.g. to be stored as bytes.
+ */
+@Slf4j
+public class TaggedCache implements NodeLocalCache {
+
+    private final CaffeineCache delegate;
+    private final CacheTagResolver tagResolver;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheValueCodec codec;
+    private final Map<String, Set<Object>> keysByTag = new ConcurrentHashMap<>();
+
+    /**
+     * @param name        the cache name
+     * @param caffeine    a builder for this cache only; an eviction listener is registered on it
+     * @param tagResolver derives the tags of an entry from its key
+     */
+    public TaggedCache(String name, Caffeine<Object, Object> caffeine, CacheTagResolver tagResolver) {
+        this(name, caffeine, tagResolver, CacheInvalidationPublisher.NONE);
+    }
+
+    /**
+     * @param name        the cache name
+     * @param caffeine    a builder for this cache only; an eviction listener is registered on it
+     * @param tagResolver derives the tags of an entry from its key
+     * @param publisher   receives the evictions made on this node
+     */
+    public TaggedCache(String name, Caffeine<Object, Object> caffeine, CacheTagResolver tagResolver,
+                       CacheInvalidationPublisher publisher) {
+        this(name, caffeine, tagResolver, publisher, CacheValueCodec.IDENTITY);
+    }
+
+    /**
+     * @param name        the cache name
+     * @param caffeine    a builder for this cache only; an eviction listener is registered on it
+     * @param tagResolver derives the tags of an entry from its key
+     * @param publisher   receives the evictions made on this node
+     * @param codec       converts values to and from their stored form
+     */
+    public TaggedCache(String name, Caffeine<Object, Object> caffeine, CacheTagResolver tagResolver,
+                       CacheInvalidationPublisher publisher, CacheValueCodec codec) {
+        this.tagResolver = tagResolver;
+        this.publisher = publisher;
+        this.codec = codec;
+        this.delegate = new CaffeineCache(name, caffeine
+                .evictionListener((Object key, Object value, RemovalCause cause) -> {
+                    if (key != null) {
+                        untrack(key);
+                    }
+                })
+                .build());
+    }
+
+    /**
+     * Evict every entry carrying the tag
+     * @param tag The tag to evict
+     * @return The number of keys evicted
+     */
+    public int evictTag(String tag) {
+        int evicted = evictTagLocally(tag);
+        publisher.publish(getName(), CacheInvalidation.Type.EVICT_TAG, tag);
+        return evicted;
+    }
+
+    private int evictTagLocally(String tag) {
+        Set<Object> keys = keysByTag.remove(tag);
+        if (keys == null) {
+            return 0;
+        }
+        for (Object key : keys) {
+            delegate.evict(key);
+            // Drops the key from its other tags
+            untrack(key);
+        }
+        log.debug("Evicted {} entries tagged '{}' from cache {}", keys.size(), tag, getName());
+        return keys.size();
+    }
+
+    /**
+     * Get the keys currently indexed under a tag
+     * @param tag The tag to look up
+     * @return The keys, empty if none
+     */
+    public Set<Object> keysTagged(String tag) {
+        Set<Object> keys = keysByTag.get(tag);
+        return keys != null ? Set.copyOf(keys) : Set.of();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return decode(delegate.get(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = delegate.get(key, () -> codec.encode(valueLoader.call()));
+        track(key);
+        return (T) codec.decode(stored);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, codec.encode(value));
+        track(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, codec.encode(value));
+        track(key);
+        return decode(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        untrack(key);
+        publisher.publish(getName(), CacheInvalidation.Type.EVICT, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        untrack(key);
+        // Other nodes may hold the entry even if this one did not
+        publisher.publish(getName(), CacheInvalidation.Type.EVICT, key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        clearLocally();
+        publisher.publish(getName(), CacheInvalidation.Type.CLEAR, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        keysByTag.clear();
+        publisher.publish(getName(), CacheInvalidation.Type.CLEAR, null);
+        return invalidated;
+    }
+
+    @Override
+    public void applyInvalidation(CacheInvalidation invalidation) {
+        switch (invalidation.type()) {
+            case EVICT, REFRESH -> {
+                delegate.evict(invalidation.key());
+                untrack(invalidation.key());
+            }
+            case EVICT_TAG -> evictTagLocally((String) invalidation.key());
+            case CLEAR -> clearLocally();
+        }
+    }
+
+    private ValueWrapper decode(ValueWrapper wrapper) {
+        if (wrapper == null || codec == CacheValueCodec.IDENTITY) {
+            return wrapper;
+        }
+        return new SimpleValueWrapper(codec.decode(wrapper.get()));
+    }
+
+    private void clearLocally() {
+        delegate.clear();
+        keysByTag.clear();
+    }
+
+    private void track(Object key) {
+        for (String tag : tagResolver.tagsFor(key)) {
+            // Adding inside compute keeps a concurrent untrack from dropping the set we add to
+            keysByTag.compute(tag, (t, keys) -> {
+                Set<Object> tagged = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                tagged.add(key);
+                return tagged;
+            });
+        }
+    }
+
+    private void untrack(Object key) {
+        for (String tag : tagResolver.tagsFor(key)) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.suryadeep.openshop.config;
 
 
+import com.suryadeep.openshop.cache.CacheInvalidationRelay;
 import com.suryadeep.openshop.security.CustomUserDetailsService;
+import com.suryadeep.openshop.security.TokenRevocationRegistry;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,4 +37,19 @@ public class ApplicationConfiguration {
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
-}
\ No newline at end of file
+
+    /**
+     * Revocations made on this node are published through the relay, those of the other nodes applied.
+     */
+    @Bean
+    TokenRevocationRegistry tokenRevocationRegistry(@Value("${security.jwt.expiration-time}") long expirationTime,
+                                                    CacheInvalidationRelay relay) {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(expirationTime, relay);
+        relay.addListener(invalidation -> {
+            if (!relay.getNodeId().equals(invalidation.origin())) {
+                registry.applyRemote(invalidation);
+            }
+        });
+        return registry;
+    }
+}
@@ -1,54 +1,251 @@
 package com.suryadeep.openshop.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.cache.CacheInvalidationBus;
+import com.suryadeep.openshop.cache.CacheInvalidationRelay;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.CacheSpec;
+import com.suryadeep.openshop.cache.CacheTagResolver;
+import com.suryadeep.openshop.cache.CacheValueCodec;
+import com.suryadeep.openshop.cache.CaffeineCacheProperties;
+import com.suryadeep.openshop.cache.ProductStockInvalidator;
+import com.suryadeep.openshop.cache.RefreshAheadCache;
+import com.suryadeep.openshop.cache.ResponseBodyCache;
+import com.suryadeep.openshop.cache.ResponseSizeWeigher;
+import com.suryadeep.openshop.cache.SmileCacheValueCodec;
+import com.suryadeep.openshop.cache.TaggedCache;
+import com.suryadeep.openshop.repository.CacheInvalidationRepository;
+import com.suryadeep.openshop.cache.CaffeineStatsMeterBinderProvider;
+import com.suryadeep.openshop.cache.JdbcCacheInvalidationBus;
+import com.suryadeep.openshop.cache.LoopbackCacheInvalidationBus;
+import com.suryadeep.openshop.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Configuration class for caching in the application.
- * Uses Caffeine as the caching provider.
+ * Uses Caffeine as the caching provider. Every cache indexes its entries by tags derived
+ * from the cache keys, so all pages of a listing can be evicted together (see CacheInvalidator).
+ * The hot catalog keys live in a separate refresh-ahead cache (see RefreshAheadCache).
+ * Sizing and expiry are configured per cache through {@link CaffeineCacheProperties}.
+ * The caches are local to each node; their evictions reach the other nodes through the
+ * CacheInvalidationBus selected by {@code caffeine.invalidation.bus}.
+ * The serialized bodies of the public catalog endpoints are cached in front of the handlers
+ * (see ResponseBodyCache), outside the cache manager since they are not keyed by service arguments.
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CaffeineCacheProperties.class)
+@AllArgsConstructor
 @Slf4j
 public class CacheConfig {
 
-    @Value("${caffeine.maximum-size}")
-    private int maximumSize;
-    @Value("${caffeine.expire-after-access}")
-    private Duration expireAfterAccess;
+    private final CaffeineCacheProperties properties;
+    // Shared by the caches storing serialized values, the mapper and its type cache are thread-safe
+    private final SmileCacheValueCodec smileCacheValueCodec = new SmileCacheValueCodec();
 
     /**
      * Creates and configures the Caffeine cache manager.
-     * 
+     *
+     * @param relay        publishes the evictions of this node and applies those of the others
+     * @param catalogCache the refresh-ahead cache, registered alongside the tagged caches
      * @return the configured cache manager
      */
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheInvalidationRelay relay, RefreshAheadCache catalogCache) {
         log.info("Initializing Caffeine Cache Manager");
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        
-        // Configure Caffeine
-        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
-                .maximumSize(maximumSize)
-                .expireAfterAccess(expireAfterAccess)
-                .recordStats();
-        
-        cacheManager.setCaffeine(caffeine);
-        
-
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-                "categories", "products", "users", "orders"
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+
+        cacheManager.setCaches(List.of(
+                new TaggedCache(CacheNames.CATEGORIES, caffeine(CacheNames.CATEGORIES), CacheTagResolver.byKeyPattern(
+                        "page_\\d+_size_\\d+", CacheNames.PAGES_TAG), relay, codec(CacheNames.CATEGORIES)),
+                new TaggedCache(CacheNames.PRODUCTS, caffeine(CacheNames.PRODUCTS), CacheTagResolver.byKeyPattern(
+                        "page_\\d+_size_\\d+", CacheNames.PAGES_TAG,
+                        "category_(\\d+)(_page_\\d+_size_\\d+)?", "category_$1"), relay, codec(CacheNames.PRODUCTS)),
+                new TaggedCache(CacheNames.USERS, caffeine(CacheNames.USERS), CacheTagResolver.NONE, relay, codec(CacheNames.USERS)),
+                new TaggedCache(CacheNames.ORDERS, caffeine(CacheNames.ORDERS), CacheTagResolver.byKeyPattern(
+                        "all_page_\\d+_size_\\d+", CacheNames.PAGES_TAG,
+                        "status_([A-Z_]+)_page_\\d+_size_\\d+", "status_$1",
+                        "user_(\\d+)(_status_[A-Z_]+)?", "user_$1"), relay, codec(CacheNames.ORDERS)),
+                catalogCache
         ));
-        
+        relay.applyTo(cacheManager);
+
         log.info("Caffeine Cache Manager initialized successfully");
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the refresh-ahead cache for the full category and product lists.
+     * Loads query the database, so they run on the application task executor (virtual threads when enabled)
+     * rather than on the common fork-join pool.
+     *
+     * @param relay    publishes the refreshes of this node
+     * @param executor the application task executor
+     * @return the catalog cache, also registered with the cache manager
+     */
+    @Bean
+    public RefreshAheadCache catalogCache(CacheInvalidationRelay relay,
+                                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                          Executor executor) {
+        return new RefreshAheadCache(CacheNames.CATALOG, caffeine(CacheNames.CATALOG, true).executor(executor), relay);
+    }
+
+    /**
+     * Creates the cache of serialized catalog responses, whose entries are dropped with the product and
+     * category cache entries they were built from, on any node. No cached endpoint reads the catalog cache.
+     *
+     * @param relay    reports the invalidations of the source caches
+     * @param registry the meter registry the cache statistics are published to
+     * @return the response body cache
+     */
+    @Bean
+    public ResponseBodyCache responseBodyCache(CacheInvalidationRelay relay, MeterRegistry registry) {
+        ResponseBodyCache responseBodyCache = new ResponseBodyCache(caffeine(CacheNames.RESPONSES),
+                Map.of("/api/products", CacheNames.PRODUCTS, "/api/categories", CacheNames.CATEGORIES));
+        relay.addListener(responseBodyCache::onInvalidation);
+        CaffeineCacheMetrics.monitor(registry, responseBodyCache.getNativeCache(), CacheNames.RESPONSES);
+        return responseBodyCache;
+    }
+
+    /**
+     * Creates the invalidator of the products whose stock changed, applying the stock changes of every node.
+     *
+     * @param cacheManager      holds the cached products
+     * @param responseBodyCache holds their cached responses
+     * @param relay             publishes the stock changes of this node and reports those of the others
+     * @return the stock invalidator
+     */
+    @Bean
+    public ProductStockInvalidator productStockInvalidator(CacheManager cacheManager, ResponseBodyCache responseBodyCache,
+                                                           CacheInvalidationRelay relay) {
+        ProductStockInvalidator invalidator = new ProductStockInvalidator(cacheManager, responseBodyCache, relay);
+        relay.addListener(invalidator::onInvalidation);
+        return invalidator;
+    }
+
+    /**
+     * Serves the anonymous product and category GET requests from the response body cache.
+     * Runs after the security filter chain, so cached responses get the same security and CORS headers.
+     * Suggestions and searches are left out: they come from their own indexes, rebuilt on their own schedule,
+     * and a request per keystroke or query would push the catalog pages out of the cache.
+     *
+     * @param responseBodyCache the cached bodies
+     * @return the registration of the response cache filter
+     */
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseBodyCache responseBodyCache) {
+        FilterRegistrationBean<ResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCacheFilter(responseBodyCache, Set.of("/api/products/suggest", "/api/products/search")));
+        registration.addUrlPatterns("/api/products/*", "/api/categories/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    /**
+     * Creates the relay between the caches of this node and the invalidation bus.
+     *
+     * @param bus the invalidation bus
+     * @return the relay
+     */
+    @Bean
+    public CacheInvalidationRelay cacheInvalidationRelay(CacheInvalidationBus bus) {
+        return new CacheInvalidationRelay(bus);
+    }
+
+    /**
+     * Keeps invalidations on this node, for single-node deployments and tests.
+     *
+     * @return the loopback bus
+     */
+    @Bean
+    @ConditionalOnProperty(name = "caffeine.invalidation.bus", havingValue = "loopback", matchIfMissing = true)
+    public CacheInvalidationBus loopbackCacheInvalidationBus() {
+        return new LoopbackCacheInvalidationBus();
+    }
+
+    /**
+     * Shares invalidations between nodes through the cache_invalidations table.
+     *
+     * @param repository         the invalidation table
+     * @param transactionManager used to write and read the table outside the caller's transaction
+     * @return the polling bus
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "caffeine.invalidation.bus", havingValue = "jdbc")
+    public CacheInvalidationBus jdbcCacheInvalidationBus(CacheInvalidationRepository repository,
+                                                         PlatformTransactionManager transactionManager) {
+        CaffeineCacheProperties.Invalidation invalidation = properties.getInvalidation();
+        return new JdbcCacheInvalidationBus(repository, transactionManager,
+                invalidation.getPollInterval(), invalidation.getLookback(), invalidation.getRetention());
+    }
+
+    /**
+     * Binds the Caffeine statistics of every cache to the meter registry.
+     *
+     * @return the meter binder provider picked up by the actuator cache metrics
+     */
+    @Bean
+    public CaffeineStatsMeterBinderProvider caffeineStatsMeterBinderProvider() {
+        return new CaffeineStatsMeterBinderProvider();
+    }
+
+    // Each cache needs its own builder, since TaggedCache registers a removal listener on it
+    Caffeine<Object, Object> caffeine(String cacheName) {
+        return caffeine(cacheName, false);
+    }
+
+    private CacheValueCodec codec(String cacheName) {
+        return Boolean.TRUE.equals(properties.specFor(cacheName).getSerializeValues())
+                ? smileCacheValueCodec : CacheValueCodec.IDENTITY;
+    }
+
+    // refreshAfterWrite needs a CacheLoader, which only the loading caches have
+    Caffeine<Object, Object> caffeine(String cacheName, boolean loading) {
+        CacheSpec spec = properties.specFor(cacheName);
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder().recordStats();
+
+        if (spec.getMaximumWeight() != null) {
+            caffeine.maximumWeight(spec.getMaximumWeight().toBytes()).weigher(new ResponseSizeWeigher());
+        } else if (spec.getMaximumSize() != null) {
+            caffeine.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            caffeine.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            caffeine.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.getRefreshAfterWrite() != null) {
+            if (!loading) {
+                throw new IllegalStateException("caffeine.caches." + cacheName
+                        + ".refresh-after-write is set, but cache '" + cacheName + "' has no loader to refresh with");
+            }
+            caffeine.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        if (Boolean.TRUE.equals(spec.getSoftValues())) {
+            caffeine.softValues();
+        }
+        log.info("Cache '{}' configured with {}", cacheName, spec);
+        return caffeine;
+    }
+}
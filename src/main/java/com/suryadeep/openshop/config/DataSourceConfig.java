@@ -0,0 +1,199 @@
+package com.suryadeep.openshop.config;
+
+import com.suryadeep.openshop.datasource.ConnectionQueueDataSource;
+import com.suryadeep.openshop.datasource.ReadWriteRoutingDataSource;
+import com.suryadeep.openshop.filter.ReadYourWritesCookie;
+import com.suryadeep.openshop.filter.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Connection pools. Read-only transactions and the rest get separate Hikari pools behind one routing
+ * DataSource (see ReadWriteRoutingDataSource), so a burst of catalog reads cannot take every connection
+ * checkout needs. The read pool connects to the primary database unless {@code datasource.read.url}
+ * points it at a replica; a client's reads then stay on the primary for a short while after it writes,
+ * so it does not miss its own changes on a lagging replica (see ReadYourWritesFilter).
+ * With virtual threads (spring.threads.virtual.enabled) each pool is also fronted by a fair queue.
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Creates the pool for read-write transactions and work outside transactions, configured from
+     * {@code spring.datasource.*} like the pool Spring Boot would create.
+     *
+     * @param properties the spring.datasource properties
+     * @return the write pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("write");
+        return pool;
+    }
+
+    /**
+     * Creates the pool for read-only transactions, sized by {@code datasource.read.hikari.*}. It connects to
+     * {@code datasource.read.url} if set, with {@code datasource.read.username} and {@code datasource.read.password}
+     * defaulting to the primary credentials, and to the primary database otherwise.
+     *
+     * @param properties  the spring.datasource properties
+     * @param environment supplies the datasource.read connection settings
+     * @return the read pool
+     */
+    @Bean
+    @ConfigurationProperties("datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties, Environment environment) {
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder().type(HikariDataSource.class);
+        String url = environment.getProperty("datasource.read.url");
+        if (StringUtils.hasText(url)) {
+            String username = environment.getProperty("datasource.read.username");
+            String password = environment.getProperty("datasource.read.password");
+            builder.url(url)
+                    .username(StringUtils.hasText(username) ? username : properties.determineUsername())
+                    .password(StringUtils.hasText(password) ? password : properties.determinePassword());
+            log.info("Read-only transactions use the replica at {}", url);
+        }
+        HikariDataSource pool = builder.build();
+        pool.setPoolName("read");
+        return pool;
+    }
+
+    /**
+     * Creates the DataSource used by JPA and JdbcTemplate, which takes the connection of each transaction
+     * from the read or the write pool once the transaction starts using it.
+     *
+     * @param write the write pool
+     * @param read  the read pool
+     * @return the routing DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource write,
+                                 @Qualifier("readDataSource") DataSource read) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(write, read));
+    }
+
+    /**
+     * Publishes how many connections were routed to each pool and why, as datasource.routing.
+     *
+     * @param dataSource the routing DataSource
+     * @return the binder of the routing counters
+     */
+    @Bean
+    public MeterBinder dataSourceRoutingMetrics(DataSource dataSource) {
+        ReadWriteRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReadWriteRoutingDataSource.class);
+        return registry -> {
+            for (ReadWriteRoutingDataSource.Reason reason : ReadWriteRoutingDataSource.Reason.values()) {
+                FunctionCounter.builder("datasource.routing", routing, r -> r.routed(reason))
+                        .description("Connections taken from the read or write pool")
+                        .tag("pool", reason.getRoute().name().toLowerCase())
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Creates the cookie keeping a client's reads on the primary for {@code datasource.read-your-writes.window}
+     * after it writes, signed with {@code datasource.read-your-writes.secret}. Only used with a replica.
+     *
+     * @param environment supplies the replica URL, window and secret
+     * @return the cookie
+     */
+    @Bean
+    public ReadYourWritesCookie readYourWritesCookie(Environment environment) {
+        boolean replica = StringUtils.hasText(environment.getProperty("datasource.read.url"));
+        Duration window = environment.getProperty("datasource.read-your-writes.window", Duration.class,
+                Duration.ofSeconds(5));
+        String secret = replica ? environment.getRequiredProperty("datasource.read-your-writes.secret") : null;
+        return new ReadYourWritesCookie(replica, secret, window, Clock.systemUTC());
+    }
+
+    /**
+     * Registers the filter pinning the reads that follow a write to the primary, ahead of the security filters
+     * so the user lookup is pinned as well. Disabled without a replica.
+     *
+     * @param cookie the read-your-writes cookie
+     * @return the registration of the filter
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesCookie cookie) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(cookie));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        registration.setEnabled(cookie.isEnabled());
+        return registration;
+    }
+
+    /**
+     * With virtual threads, puts a {@link ConnectionQueueDataSource} in front of each Hikari pool so requests queue
+     * fairly for connections, waiting up to {@code datasource.connection-queue.timeout}. The queue length is
+     * reported as datasource.connections.queued.
+     *
+     * @param environment   supplies the queue timeout
+     * @param meterRegistry the registry for the queue gauge, looked up once the pool is created
+     * @return the post processor wrapping the pool
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor connectionQueuePostProcessor(Environment environment,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Duration timeout = environment.getProperty("datasource.connection-queue.timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                int connections = maximumPoolSize(pool);
+                ConnectionQueueDataSource queue = new ConnectionQueueDataSource(pool, connections, timeout);
+                meterRegistry.ifAvailable(registry -> Gauge.builder("datasource.connections.queued", queue,
+                                ConnectionQueueDataSource::queued)
+                        .description("Threads waiting for a database connection")
+                        .tag("name", beanName)
+                        .register(registry));
+                log.info("Queueing for the {} connections of data source '{}'", connections, beanName);
+                return queue;
+            }
+        };
+    }
+
+    // Unset until the pool starts, when Hikari sizes it as below
+    private static int maximumPoolSize(HikariDataSource pool) {
+        if (pool.getMaximumPoolSize() > 0) {
+            return pool.getMaximumPoolSize();
+        }
+        return pool.getMinimumIdle() > 0 ? pool.getMinimumIdle() : DEFAULT_POOL_SIZE;
+    }
+}
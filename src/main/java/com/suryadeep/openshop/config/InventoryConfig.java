@@ -0,0 +1,56 @@
+package com.suryadeep.openshop.config;
+
+import com.suryadeep.openshop.cache.ProductStockInvalidator;
+import com.suryadeep.openshop.inventory.HotStockFlusher;
+import com.suryadeep.openshop.inventory.HotStockInventory;
+import com.suryadeep.openshop.inventory.HotStockProperties;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.VariantRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Stock reservation settings. Variants listed in {@code inventory.hot.variant-ids} are reserved in memory
+ * and written behind (see HotStockInventory); all others are reserved with a conditional UPDATE at checkout.
+ */
+@Configuration
+@EnableConfigurationProperties(HotStockProperties.class)
+@AllArgsConstructor
+public class InventoryConfig {
+
+    private final HotStockProperties properties;
+
+    /**
+     * Creates the in-memory counters of the hot variants, empty unless some are configured.
+     *
+     * @return the hot inventory
+     */
+    @Bean
+    public HotStockInventory hotStockInventory() {
+        int stripes = properties.getStripes() > 0 ? properties.getStripes() : Runtime.getRuntime().availableProcessors();
+        return new HotStockInventory(properties.getVariantIds(), stripes);
+    }
+
+    /**
+     * Applies the stock left pending by the previous run and loads the counters before the application
+     * takes requests, then writes the reserved units to the database in the background. Runs even with no
+     * hot variants configured, so turning hot mode off cannot strand pending items.
+     *
+     * @param inventory               the counters to load
+     * @param orderItemRepository     the pending order items
+     * @param variantRepository       the stock to subtract them from
+     * @param productStockInvalidator drops the cached products of the flushed variants
+     * @param transactionManager      used to flush outside of any request
+     * @return the flusher
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public HotStockFlusher hotStockFlusher(HotStockInventory inventory, OrderItemRepository orderItemRepository,
+                                           VariantRepository variantRepository, ProductStockInvalidator productStockInvalidator,
+                                           PlatformTransactionManager transactionManager) {
+        return new HotStockFlusher(inventory, orderItemRepository, variantRepository, productStockInvalidator,
+                transactionManager, properties.getFlushInterval());
+    }
+}
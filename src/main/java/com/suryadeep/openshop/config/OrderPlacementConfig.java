@@ -0,0 +1,42 @@
+package com.suryadeep.openshop.config;
+
+import com.suryadeep.openshop.order.OrderPlacementPipeline;
+import com.suryadeep.openshop.order.OrderPlacementProperties;
+import com.suryadeep.openshop.service.OrderService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Asynchronous order placement (POST /api/orders/async), sized through {@link OrderPlacementProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties(OrderPlacementProperties.class)
+@AllArgsConstructor
+public class OrderPlacementConfig {
+
+    private final OrderPlacementProperties properties;
+
+    /**
+     * Creates the queue and workers placing the orders, and reports the queue length as orders.placement.queued.
+     *
+     * @param orderService       places each order
+     * @param transactionManager used for the transactions grouping the orders of a batch
+     * @param meterRegistry      the registry for the queue gauge
+     * @return the pipeline
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OrderPlacementPipeline orderPlacementPipeline(OrderService orderService,
+                                                         PlatformTransactionManager transactionManager,
+                                                         MeterRegistry meterRegistry) {
+        OrderPlacementPipeline pipeline = new OrderPlacementPipeline(orderService, transactionManager, properties);
+        Gauge.builder("orders.placement.queued", pipeline, OrderPlacementPipeline::queued)
+                .description("Orders waiting to be placed")
+                .register(meterRegistry);
+        return pipeline;
+    }
+}
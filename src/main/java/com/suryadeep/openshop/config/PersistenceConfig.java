@@ -0,0 +1,29 @@
+package com.suryadeep.openshop.config;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+
+/**
+ * Persistence settings shared by the web layer.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    /**
+     * Opens the request's EntityManager before the security filter chain instead of at the handler
+     * (spring.jpa.open-in-view is turned off). The user loaded by the JWT filter then stays managed
+     * for the whole request and the services can keep working with it instead of loading it again.
+     *
+     * @return the registration of the open-in-view filter
+     */
+    @Bean
+    public FilterRegistrationBean<OpenEntityManagerInViewFilter> openEntityManagerInViewFilter() {
+        FilterRegistrationBean<OpenEntityManagerInViewFilter> registration =
+                new FilterRegistrationBean<>(new OpenEntityManagerInViewFilter());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,93 @@
+package com.suryadeep.openshop.config;
+
+import com.suryadeep.openshop.cache.CacheInvalidationRelay;
+import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.search.ProductSearchIndex;
+import com.suryadeep.openshop.search.ProductSearchIndexer;
+import com.suryadeep.openshop.search.ProductSuggester;
+import com.suryadeep.openshop.search.SuggestProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Product search (GET /api/products/search) and typeahead (GET /api/products/suggest), both answered
+ * from memory on every node.
+ */
+@Configuration
+@EnableConfigurationProperties(SuggestProperties.class)
+public class SearchConfig {
+
+    /**
+     * Creates the index, reporting its size as search.index.products.
+     *
+     * @param meterRegistry the registry for the size gauge
+     * @return the empty index
+     */
+    @Bean
+    public ProductSearchIndex productSearchIndex(MeterRegistry meterRegistry) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        Gauge.builder("search.index.products", index, ProductSearchIndex::size)
+                .description("Products in the search index")
+                .register(meterRegistry);
+        return index;
+    }
+
+    /**
+     * Fills the index before the application takes requests, and keeps it up to date with the changes
+     * made on this node and, through their cache invalidations, on the others.
+     *
+     * @param index              the index to fill
+     * @param productRepository  the products to index
+     * @param transactionManager used to read the products outside of any request
+     * @param relay              reports the invalidations of the other nodes
+     * @param executor           the application task executor, reads the products changed on other nodes
+     * @return the indexer
+     */
+    @Bean(initMethod = "start")
+    public ProductSearchIndexer productSearchIndexer(ProductSearchIndex index, ProductRepository productRepository,
+                                                     PlatformTransactionManager transactionManager,
+                                                     CacheInvalidationRelay relay,
+                                                     @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                                     Executor executor) {
+        ProductSearchIndexer indexer = new ProductSearchIndexer(index, productRepository, transactionManager, executor);
+        relay.addListener(invalidation -> {
+            if (!relay.getNodeId().equals(invalidation.origin())) {
+                indexer.applyRemote(invalidation);
+            }
+        });
+        return indexer;
+    }
+
+    /**
+     * Builds the typeahead suggestions before the application takes requests, and rebuilds them in the
+     * background whenever products or categories are added, deleted or renamed on any node.
+     *
+     * @param productRepository   the product names
+     * @param categoryRepository  the category names
+     * @param orderItemRepository the order counts the suggestions are ranked by
+     * @param transactionManager  used to read outside of any request
+     * @param relay               publishes the name changes of this node and reports those of every node
+     * @param properties          the refresh settings
+     * @return the suggester
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ProductSuggester productSuggester(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                             OrderItemRepository orderItemRepository,
+                                             PlatformTransactionManager transactionManager,
+                                             CacheInvalidationRelay relay, SuggestProperties properties) {
+        ProductSuggester suggester = new ProductSuggester(productRepository, categoryRepository, orderItemRepository,
+                transactionManager, properties, relay);
+        relay.addListener(suggester::onInvalidation);
+        return suggester;
+    }
+}
@@ -1,5 +1,6 @@
 package com.suryadeep.openshop.controller;
 
+import com.suryadeep.openshop.dto.request.CartBatchRequest;
 import com.suryadeep.openshop.dto.request.CartItemRequest;
 import com.suryadeep.openshop.service.CartService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -7,6 +8,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -56,6 +58,26 @@ public class CartController {
         return ResponseEntity.ok(cartService.addItemToCart(cartItemRequest));
     }
 
+    @Operation(
+        summary = "Change several cart items at once",
+        description = "Applies a list of ADD, UPDATE and REMOVE operations in order, in one transaction, "
+                + "and returns the resulting cart. If any operation fails, none is applied"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operations applied, returns the updated cart"),
+        @ApiResponse(responseCode = "400", description = "Invalid request - Empty batch, too many or malformed operations"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "404", description = "Variant or cart item not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/items/batch")
+    public ResponseEntity<Object> applyCartBatch(
+        @Parameter(description = "Operations to apply, in order", required = true)
+        @Valid @RequestBody CartBatchRequest batchRequest) {
+        log.info("Applying {} cart operations", batchRequest.getOperations().size());
+        return ResponseEntity.ok(cartService.applyBatch(batchRequest));
+    }
+
     @Operation(
         summary = "Update cart item",
         description = "Updates an existing item in the user's shopping cart"
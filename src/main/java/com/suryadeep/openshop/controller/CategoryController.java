@@ -1,6 +1,7 @@
 package com.suryadeep.openshop.controller;
 
 import com.suryadeep.openshop.dto.response.CategoryResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
 import com.suryadeep.openshop.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @Slf4j
 @AllArgsConstructor
@@ -43,20 +45,27 @@ public class CategoryController {
 
     @Operation(
         summary = "Get category by ID",
-        description = "Returns a single category by its ID"
+        description = "Returns a single category by its ID. Send the ETag back in If-None-Match "
+                + "to get 304 Not Modified while the category is unchanged"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved category",
                     content = @Content(mediaType = "application/json", 
                                       schema = @Schema(implementation = CategoryResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Category not modified since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Category not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{categoryId}")
     public ResponseEntity<CategoryResponse> getCategoryById(
         @Parameter(description = "ID of the category to retrieve", required = true) 
-        @PathVariable Long categoryId) {
+        @PathVariable Long categoryId,
+        WebRequest request) {
         log.info("Fetching category with ID: {}", categoryId);
-        return new ResponseEntity<>(categoryService.getCategoryById(categoryId),HttpStatus.OK);
+        CategoryResponse category = categoryService.getCategoryById(categoryId);
+        if (request.checkNotModified(ResourceVersion.of(category).etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return new ResponseEntity<>(category, HttpStatus.OK);
     }
 }
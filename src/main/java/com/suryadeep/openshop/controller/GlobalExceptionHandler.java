@@ -1,7 +1,13 @@
 package com.suryadeep.openshop.controller;
 
+import com.suryadeep.openshop.exception.InsufficientStockException;
+import com.suryadeep.openshop.exception.InvalidCartOperationException;
+import com.suryadeep.openshop.exception.InvalidCursorException;
+import com.suryadeep.openshop.exception.InvalidPageRequestException;
+import com.suryadeep.openshop.exception.OrderQueueFullException;
 import com.suryadeep.openshop.exception.ProductNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -18,6 +24,38 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex) {
+        log.warn("Invalid pagination cursor: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Object> handleInvalidPageRequest(InvalidPageRequestException ex) {
+        log.warn("Invalid page request: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCartOperationException.class)
+    public ResponseEntity<Object> handleInvalidCartOperation(InvalidCartOperationException ex) {
+        log.warn("Invalid cart operation: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Object> handleInsufficientStock(InsufficientStockException ex) {
+        log.warn("Checkout rejected: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<Object> handleOrderQueueFull(OrderQueueFullException ex) {
+        log.warn("Order rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<Object> handleBadCredentials(BadCredentialsException ex) {
         log.warn("Authentication failed - Bad credentials: {}", ex.getMessage());
@@ -1,7 +1,11 @@
 package com.suryadeep.openshop.controller;
 
 import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.filter.ReadYourWritesCookie;
+import com.suryadeep.openshop.service.OrderPlacementService;
 import com.suryadeep.openshop.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +19,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @AllArgsConstructor
@@ -24,6 +33,8 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderPlacementService orderPlacementService;
+    private final ReadYourWritesCookie readYourWritesCookie;
 
     @Operation(
         summary = "Create a new order",
@@ -36,6 +47,7 @@ public class OrderController {
         @ApiResponse(responseCode = "400", description = "Invalid request - Bad input parameters"),
         @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
         @ApiResponse(responseCode = "404", description = "Address not found or cart is empty"),
+        @ApiResponse(responseCode = "409", description = "Not enough stock left for some of the cart items"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("")
@@ -46,14 +58,72 @@ public class OrderController {
         return ResponseEntity.ok(orderService.createOrder(orderRequest));
     }
 
+    @Operation(
+        summary = "Place an order asynchronously",
+        description = "Validates the order and queues it for placement, returning its order number at once. "
+                + "Poll the Location for the outcome"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Order queued",
+                    content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = OrderPlacementResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request - Bad input parameters or empty cart"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "404", description = "Address not found"),
+        @ApiResponse(responseCode = "503", description = "Too many orders queued, retry after the Retry-After delay"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/async")
+    public ResponseEntity<Object> placeOrder(
+        @Parameter(description = "Order details", required = true)
+        @RequestBody OrderRequest orderRequest){
+        log.info("Queueing new order for user with shipping address ID: {}", orderRequest.getShippingAddressId());
+        OrderPlacementResponse placement = orderPlacementService.placeOrder(orderRequest);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/placements/" + placement.getOrderNumber()))
+                .body(placement);
+    }
+
+    @Operation(
+        summary = "Get the outcome of an asynchronous order",
+        description = "Returns whether an order queued by its order number is still queued, placed or failed. "
+                + "With waitSeconds, waits up to that long for the order to leave the queue before answering"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order placed or failed",
+                    content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = OrderPlacementResponse.class))),
+        @ApiResponse(responseCode = "202", description = "Order still queued"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "404", description = "No order of the user with this number"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/placements/{orderNumber}")
+    public CompletableFuture<ResponseEntity<Object>> getPlacement(
+        @Parameter(description = "Order number returned when the order was queued", required = true)
+        @PathVariable String orderNumber,
+        @Parameter(description = "Seconds to wait for the outcome while the order is queued")
+        @RequestParam(defaultValue = "0") long waitSeconds){
+        log.debug("Fetching placement of order {}", orderNumber);
+        return orderPlacementService.getPlacement(orderNumber, Duration.ofSeconds(waitSeconds))
+                .thenApply(placement -> switch (placement.getStatus()) {
+                    case QUEUED -> ResponseEntity.accepted().body(placement);
+                    // Placed by a worker, so the client's next reads have not been pinned to the primary yet
+                    case PLACED -> ResponseEntity.ok().headers(readYourWritesCookie.headers()).body(placement);
+                    case FAILED -> ResponseEntity.ok(placement);
+                });
+    }
+
     @Operation(
         summary = "Get order by ID",
-        description = "Returns a specific order by its ID"
+        description = "Returns a specific order by its ID, with its version as ETag and its last update as "
+                + "Last-Modified. Conditional requests get 304 Not Modified while the order is unchanged"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved order",
                     content = @Content(mediaType = "application/json", 
                                       schema = @Schema(implementation = OrderResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag or date"),
         @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
         @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized to access this order"),
         @ApiResponse(responseCode = "404", description = "Order not found"),
@@ -62,8 +132,13 @@ public class OrderController {
     @GetMapping("/{orderId}")
     public ResponseEntity<Object> getOrder(
         @Parameter(description = "ID of the order to retrieve", required = true) 
-        @PathVariable Long orderId){
+        @PathVariable Long orderId,
+        WebRequest request){
         log.info("Fetching order with ID: {}", orderId);
+        ResourceVersion version = orderService.getOrderVersion(orderId);
+        if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(orderService.getOrder(orderId));
     }
 
@@ -1,7 +1,12 @@
 package com.suryadeep.openshop.controller;
 
 import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.dto.response.SliceResponse;
+import com.suryadeep.openshop.dto.response.SuggestionResponse;
+import com.suryadeep.openshop.search.ProductSearchQuery;
 import com.suryadeep.openshop.service.ProductService;
+import com.suryadeep.openshop.util.PageRequestUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +19,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 @Slf4j
 @AllArgsConstructor
@@ -46,23 +55,98 @@ public class ProductController {
         return new ResponseEntity<>(productService.findAllPaginated(page, size), HttpStatus.OK);
     }
 
+    @Operation(
+        summary = "Scroll through products",
+        description = "Returns a slice of products after the given cursor, optionally filtered by category. "
+                + "Unlike page/size this stays fast for deep positions; pass nextCursor as 'after' to continue"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<SliceResponse<ProductResponse>> scrollProducts(
+        @Parameter(description = "Cursor returned as nextCursor by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Number of items per slice") @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Category ID to filter products") @RequestParam(required = false) Long categoryId,
+        @Parameter(description = "Also return the total number of products") @RequestParam(defaultValue = "false") boolean count) {
+
+        PageRequestUtil.checkSize(size);
+        log.info("Scrolling products after: {}, size: {}, categoryId: {}, count: {}", after, size, categoryId, count);
+        return new ResponseEntity<>(productService.scrollProducts(categoryId, after, size, count), HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Search products",
+        description = "Returns the products whose name, description, category or variant names contain every word "
+                + "of the query, best matches first. The last word also matches longer words it starts, "
+                + "so the query can be sent while it is being typed"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched products"),
+        @ApiResponse(responseCode = "400", description = "Invalid page or size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchProducts(
+        @Parameter(description = "Words to search for", required = true) @RequestParam String q,
+        @Parameter(description = "Only products with a variant at or above this price") @RequestParam(required = false) BigDecimal minPrice,
+        @Parameter(description = "Only products with a variant at or below this price") @RequestParam(required = false) BigDecimal maxPrice,
+        @Parameter(description = "Only products with a variant in stock (in the price range, if given)") @RequestParam(defaultValue = "false") boolean inStock,
+        @Parameter(description = "Page number (zero-based)") @RequestParam(defaultValue = "0") int page,
+        @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int size) {
+
+        PageRequestUtil.checkPage(page, size);
+        log.info("Searching products for: '{}', minPrice: {}, maxPrice: {}, inStock: {}, page: {}, size: {}",
+                q, minPrice, maxPrice, inStock, page, size);
+        return new ResponseEntity<>(productService.searchProducts(
+                new ProductSearchQuery(q, minPrice, maxPrice, inStock), page, size), HttpStatus.OK);
+    }
+
+    @Operation(
+        summary = "Suggest products and categories",
+        description = "Returns the most ordered products and categories with a word starting with the text typed so far, "
+                + "for a search box to call on every keystroke. Served from memory, so changes to the catalog "
+                + "show up after a few seconds"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+        @Parameter(description = "Text typed so far", required = true) @RequestParam String q,
+        @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("Suggesting for: '{}', limit: {}", q, limit);
+        return new ResponseEntity<>(productService.suggest(q, limit), HttpStatus.OK);
+    }
+
     @Operation(
         summary = "Get product by ID",
-        description = "Returns a single product by its ID"
+        description = "Returns a single product by its ID. Send the ETag back in If-None-Match "
+                + "to get 304 Not Modified while the product and its variants are unchanged"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved product",
                     content = @Content(mediaType = "application/json", 
                                       schema = @Schema(implementation = ProductResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Product not modified since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Product not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{productId}")
     public ResponseEntity<ProductResponse> getProduct(
         @Parameter(description = "ID of the product to retrieve", required = true) 
-        @PathVariable Long productId) {
+        @PathVariable Long productId,
+        WebRequest request) {
         log.info("Fetching product with ID: {}", productId);
-        return new ResponseEntity<>(productService.getProduct(productId), HttpStatus.OK);
+        ProductResponse product = productService.getProduct(productId);
+        if (request.checkNotModified(ResourceVersion.of(product).etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return new ResponseEntity<>(product, HttpStatus.OK);
     }
     //TODO Add Image to product
     //TODO Configure refresh token in jwt service
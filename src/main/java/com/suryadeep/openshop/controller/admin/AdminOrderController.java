@@ -1,8 +1,10 @@
 package com.suryadeep.openshop.controller.admin;
 
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.SliceResponse;
 import com.suryadeep.openshop.entity.enums.OrderStatus;
 import com.suryadeep.openshop.service.OrderService;
+import com.suryadeep.openshop.util.PageRequestUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -107,4 +109,49 @@ public class AdminOrderController {
         log.info("Fetching orders with status: {}, page: {}, and size: {}", orderStatus, page, size);
         return ResponseEntity.ok(orderService.getOrdersByStatus(orderStatus, page, size));
     }
+
+    @Operation(
+        summary = "Scroll through orders",
+        description = "Returns a slice of orders, newest first, after the given cursor (Admin only). "
+                + "Unlike page/size this stays fast for deep positions; pass nextCursor as 'after' to continue"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved orders"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized as admin"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<SliceResponse<OrderResponse>> scrollOrders(
+        @Parameter(description = "Cursor returned as nextCursor by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Number of items per slice") @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Also return the total number of orders") @RequestParam(defaultValue = "false") boolean count) {
+        PageRequestUtil.checkSize(size);
+        log.info("Scrolling orders after: {}, size: {}, count: {}", after, size, count);
+        return ResponseEntity.ok(orderService.scrollOrders(after, size, count));
+    }
+
+    @Operation(
+        summary = "Scroll through orders by status",
+        description = "Returns a slice of orders with the given status, newest first, after the given cursor (Admin only)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved orders by status"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized as admin"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/status/scroll")
+    public ResponseEntity<SliceResponse<OrderResponse>> scrollOrdersByStatus(
+        @Parameter(description = "Order status to filter by", required = true)
+        @RequestParam OrderStatus orderStatus,
+        @Parameter(description = "Cursor returned as nextCursor by the previous slice") @RequestParam(required = false) String after,
+        @Parameter(description = "Number of items per slice") @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Also return the total number of orders with the status") @RequestParam(defaultValue = "false") boolean count) {
+        PageRequestUtil.checkSize(size);
+        log.info("Scrolling orders with status: {}, after: {}, size: {}, count: {}", orderStatus, after, size, count);
+        return ResponseEntity.ok(orderService.scrollOrdersByStatus(orderStatus, after, size, count));
+    }
 }
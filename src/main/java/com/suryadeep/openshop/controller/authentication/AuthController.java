@@ -26,6 +26,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -111,4 +112,24 @@ public class AuthController {
     }
 
 
-}
+    @Operation(
+        summary = "Log out",
+        description = "Revokes every token issued to the authenticated user so far"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Tokens successfully revoked"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - User not authenticated"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Object> logout() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            log.warn("Logout attempted without an authenticated user");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated");
+        }
+        jwtService.revokeTokens(userDetails.getUsername());
+        log.info("User successfully logged out: {}", userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.suryadeep.openshop.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions ({@code @Transactional(readOnly = true)}) to the read pool and everything else,
+ * including work outside any transaction, to the write pool. Read-only transactions of a request that has to
+ * see its client's recent writes (see {@link ReadYourWrites}) go to the write pool as well. A read-write
+ * transaction counts as a write once it commits, and only if it ran an INSERT, UPDATE, DELETE or similar
+ * statement, so a transaction that merely is not marked read-only does not pin the client to the primary.
+ * The transaction manager opens its connection before the transaction is marked read-only, so this has to sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers choosing
+ * the pool until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { READ, WRITE }
+
+    /** Why a connection was taken from its pool */
+    public enum Reason {
+        READ_ONLY(Route.READ),
+        RECENT_WRITE(Route.WRITE),
+        READ_WRITE(Route.WRITE),
+        NO_TRANSACTION(Route.WRITE);
+
+        private final Route route;
+
+        Reason(Route route) {
+            this.route = route;
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+    }
+
+    // Statements starting with one of these change data; SELECT ... FOR UPDATE only locks
+    private static final Set<String> WRITE_STATEMENTS = Set.of("insert", "update", "delete", "merge", "replace");
+
+    private final Map<Reason, LongAdder> routed = new EnumMap<>(Reason.class);
+
+    public ReadWriteRoutingDataSource(DataSource write, DataSource read) {
+        for (Reason reason : Reason.values()) {
+            routed.put(reason, new LongAdder());
+        }
+        setTargetDataSources(Map.of(Route.WRITE, write, Route.READ, read));
+        setDefaultTargetDataSource(write);
+        afterPropertiesSet();
+    }
+
+    /**
+     * @param reason The reason
+     * @return The number of connections taken for it
+     */
+    public long routed(Reason reason) {
+        return routed.get(reason).sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recordingWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recordingWrites(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Reason reason;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            reason = ReadYourWrites.readsFromPrimary() ? Reason.RECENT_WRITE : Reason.READ_ONLY;
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            reason = Reason.READ_WRITE;
+        } else {
+            reason = Reason.NO_TRANSACTION;
+        }
+        routed.get(reason).increment();
+        return reason.getRoute();
+    }
+
+    /**
+     * Watch the statements of a read-write transaction's connection, when a request tracks its writes
+     * @param target The connection taken from the write pool
+     * @return The connection, wrapped if its writes have to be recorded
+     */
+    private static Connection recordingWrites(Connection target) {
+        if (!ReadYourWrites.tracking() || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return target;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new WriteRecordingInvocationHandler(target));
+    }
+
+    static boolean isWrite(String sql) {
+        int start = 0;
+        while (start < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(start))) {
+                start++;
+            } else if (sql.startsWith("/*", start)) {
+                int end = sql.indexOf("*/", start + 2);
+                start = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return WRITE_STATEMENTS.contains(sql.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Records the request's write once the transaction commits, on the first statement that changes data.
+     * A connection serves one transaction, the one that was active when it was taken.
+     */
+    private static class WriteRecordingInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+        private boolean recorded;
+
+        WriteRecordingInvocationHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "prepareStatement", "prepareCall":
+                    inspect(args[0]);
+                    break;
+                default:
+                    break;
+            }
+            Object result = invokeOn(target, method, args);
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return inspecting(statement, (Connection) proxy);
+            }
+            return result;
+        }
+
+        // A plain statement only gets its SQL when executed
+        private Statement inspecting(Statement target, Connection connection) {
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("getConnection")) {
+                            return connection;
+                        }
+                        if (args != null && (name.startsWith("execute") || name.equals("addBatch"))) {
+                            inspect(args[0]);
+                        }
+                        return invokeOn(target, method, args);
+                    });
+        }
+
+        private void inspect(Object sql) {
+            if (!recorded && sql instanceof String statement && isWrite(statement)
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                recorded = true;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        ReadYourWrites.written();
+                    }
+                });
+            }
+        }
+
+        private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.suryadeep.openshop.datasource;
+
+/**
+ * Whether the read-only transactions of the current request have to read from the primary, because the
+ * client wrote shortly before (see ReadYourWritesFilter) or the request has written itself.
+ * Outside a request, such as on the order placement workers, reads are not pinned.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Start tracking the current thread's request
+     * @param recentWrite Whether the client wrote within the window
+     * @param onFirstWrite Called when the request first writes, to tell the client
+     * @return The scope to close when the request is done
+     */
+    public static Scope open(boolean recentWrite, Runnable onFirstWrite) {
+        Scope scope = new Scope(recentWrite, onFirstWrite);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return True if reads of the current request must see the primary
+     */
+    public static boolean readsFromPrimary() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.readsFromPrimary;
+    }
+
+    /**
+     * @return True if the current thread serves a request whose writes are recorded
+     */
+    public static boolean tracking() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Record that the current request wrote, pinning its later reads, and the client's, to the primary
+     */
+    public static void written() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.written();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Runnable onFirstWrite;
+        private boolean readsFromPrimary;
+        private boolean written;
+
+        private Scope(boolean recentWrite, Runnable onFirstWrite) {
+            this.readsFromPrimary = recentWrite;
+            this.onFirstWrite = onFirstWrite;
+        }
+
+        private void written() {
+            readsFromPrimary = true;
+            if (!written) {
+                written = true;
+                onFirstWrite.run();
+            }
+        }
+
+        @Override
+        public void close() {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.suryadeep.openshop.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change of a batch cart update.
+ * ADD puts a variant into the cart, or sets its quantity if it is already there, like POST /api/cart/items.
+ * UPDATE and REMOVE address an item by cartItemId, or by variantId when the caller does not know the item.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperation {
+
+    public enum Action { ADD, UPDATE, REMOVE }
+
+    @NotNull
+    private Action action;
+    private Long cartItemId;
+    private Long variantId;
+    private int quantity;       // ignored by REMOVE
+}
@@ -0,0 +1,33 @@
+package com.suryadeep.openshop.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an order placed asynchronously, polled by its order number.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPlacementResponse {
+
+    public enum Status { QUEUED, PLACED, FAILED }
+
+    private String orderNumber;
+    private Status status;
+    private Long orderId;       // set once PLACED
+    private String message;     // why the order FAILED
+
+    public static OrderPlacementResponse queued(String orderNumber) {
+        return new OrderPlacementResponse(orderNumber, Status.QUEUED, null, null);
+    }
+
+    public static OrderPlacementResponse placed(String orderNumber, Long orderId) {
+        return new OrderPlacementResponse(orderNumber, Status.PLACED, orderId, null);
+    }
+
+    public static OrderPlacementResponse failed(String orderNumber, String message) {
+        return new OrderPlacementResponse(orderNumber, Status.FAILED, null, message);
+    }
+}
@@ -14,4 +14,6 @@ public class ProductResponse {
     private boolean isEnabled;
     private String categoryName;
     private List<VariantResponse> variants;
+    private Long version;
+    private Long categoryVersion;
 }
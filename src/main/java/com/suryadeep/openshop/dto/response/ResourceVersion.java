@@ -0,0 +1,68 @@
+package com.suryadeep.openshop.dto.response;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Validators of a resource, sent as ETag and Last-Modified so clients can make conditional GETs.
+ * Built from entity versions rather than from the response bytes, so a conditional request is answered
+ * without serializing the resource. Cached responses carry the versions they were built from, and their tags
+ * are taken from them: a node still holding an old response sends that response's tag, never a newer one.
+ *
+ * @param etag         a weak entity tag, quoted
+ * @param lastModified when the resource last changed, null if not tracked
+ */
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    /**
+     * @param version an opaque value that changes whenever the resource does
+     * @return the validators with a weak ETag and no Last-Modified
+     */
+    public static ResourceVersion of(String version) {
+        return new ResourceVersion("W/\"" + version + "\"", null);
+    }
+
+    /**
+     * @param version      an opaque value that changes whenever the resource does
+     * @param lastModified when the resource last changed, may be null
+     * @return the validators with a weak ETag and Last-Modified
+     */
+    public static ResourceVersion of(String version, Instant lastModified) {
+        return new ResourceVersion("W/\"" + version + "\"", lastModified);
+    }
+
+    /**
+     * A product response shows its category's name and its variants, and a variant update does not increment
+     * the product's own version, so the tag hashes all of their versions.
+     * @param product the response the validators are sent with
+     * @return the validators with a weak ETag and no Last-Modified
+     */
+    public static ResourceVersion of(ProductResponse product) {
+        StringBuilder versions = new StringBuilder()
+                .append(product.getId()).append('.').append(product.getVersion())
+                .append('.').append(product.getCategoryVersion());
+        if (product.getVariants() != null) {
+            for (VariantResponse variant : product.getVariants()) {
+                versions.append('.').append(variant.getId()).append(':').append(variant.getVersion());
+            }
+        }
+        return of(DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param category the response the validators are sent with
+     * @return the validators with a weak ETag and no Last-Modified
+     */
+    public static ResourceVersion of(CategoryResponse category) {
+        return of(category.getId() + "." + category.getVersion());
+    }
+
+    /**
+     * @return Last-Modified in epoch milliseconds, -1 if not tracked, as WebRequest.checkNotModified expects
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
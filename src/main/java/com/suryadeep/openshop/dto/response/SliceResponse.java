@@ -0,0 +1,22 @@
+package com.suryadeep.openshop.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a cursor-paginated listing.
+ * Pass nextCursor as the "after" parameter to get the following slice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;      // null on the last slice
+    private Long totalElements;     // null unless the count was requested
+}
@@ -0,0 +1,19 @@
+package com.suryadeep.openshop.dto.response;
+
+import com.suryadeep.openshop.search.SuggestIndex;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A product or category name suggested while a search is being typed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    private SuggestIndex.Type type;
+    private Long id;            // of the product or the category
+    private String name;
+}
@@ -12,4 +12,5 @@ public class VariantResponse {
     private String name;
     private BigDecimal price;
     private int stockQuantity;
+    private Long version;
 }
@@ -0,0 +1,38 @@
+package com.suryadeep.openshop.entity;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A cache invalidation published through the database, see JdbcCacheInvalidationBus.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidation_created", columnList = "createdAt")
+})
+@Getter
+@Setter
+public class CacheInvalidationEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cache_invalidation_sequence")
+    @SequenceGenerator(name = "cache_invalidation_sequence", sequenceName = "cache_invalidation_seq", initialValue = 1, allocationSize = 50)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+    @Column(nullable = false, length = 36)
+    private String origin;
+    @Column(nullable = false)
+    private String cacheName;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CacheInvalidation.Type type;
+    /** Java type of the key, so a Long id comes back as a Long */
+    private String keyType;
+    private String cacheKey;
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -13,7 +13,7 @@ import java.math.BigDecimal;
 public class CartItem {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_item_sequence")
-    @SequenceGenerator(name = "cart_item_sequence", sequenceName = "cart_item_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "cart_item_sequence", sequenceName = "cart_item_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -3,6 +3,7 @@ package com.suryadeep.openshop.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -14,7 +15,7 @@ public class Category {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_sequence")
-    @SequenceGenerator(name = "category_sequence", sequenceName = "category_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "category_sequence", sequenceName = "category_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
     private String name;
@@ -26,4 +27,9 @@ public class Category {
     )
     private List<Image> images;
     private String description;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
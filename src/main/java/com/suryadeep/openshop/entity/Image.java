@@ -11,7 +11,7 @@ import lombok.Setter;
 public class Image {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_sequence")
-    @SequenceGenerator(name = "image_sequence", sequenceName = "image_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "image_sequence", sequenceName = "image_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
     private String name;
@@ -25,6 +25,8 @@ import java.util.UUID;
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_user", columnList = "user_id"),
     @Index(name = "idx_order_status", columnList = "status"),
+    @Index(name = "idx_order_status_date", columnList = "status, orderDate, id"),
+    @Index(name = "idx_order_date", columnList = "orderDate, id"),
     @Index(name = "idx_order_number", columnList = "orderNumber", unique = true),
     @Index(name = "idx_payment_ref", columnList = "paymentRefNo", unique = true)
 })
@@ -32,7 +34,7 @@ public class Order {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_sequence")
-    @SequenceGenerator(name = "order_sequence", sequenceName = "order_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "order_sequence", sequenceName = "order_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -109,7 +111,7 @@ public class Order {
     @Column(name = "user_agent", length = 255)
     private String userAgent;
 
-    private static String generateOrderId() {
+    public static String generateOrderId() {
         String time = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").format(LocalDateTime.now());
         String random = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
         return "ORD-" + time + "-" + random;
@@ -117,7 +119,10 @@ public class Order {
 
     @PrePersist
     protected void onCreate() {
-        orderNumber = generateOrderId();
+        // Orders placed asynchronously already got their number when they were queued
+        if (orderNumber == null) {
+            orderNumber = generateOrderId();
+        }
         //TODO remove below func after payment adding
         paymentRefNo = "txn"+orderNumber;
         if (status == null) {
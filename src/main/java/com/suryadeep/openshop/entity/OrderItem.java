@@ -3,17 +3,20 @@ package com.suryadeep.openshop.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_item_stock_pending", columnList = "stockPending")
+})
 @Entity
 @Getter
 @Setter
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_sequence")
-    @SequenceGenerator(name = "order_item_sequence", sequenceName = "order_item_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "order_item_sequence", sequenceName = "order_item_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -27,4 +30,9 @@ public class OrderItem {
 
     private int quantity;
     private BigDecimal price;
+
+    // Set for hot variants until HotStockFlusher has subtracted the quantity from the variant's stock
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean stockPending;
 }
@@ -15,7 +15,7 @@ import lombok.Setter;
 public class Role {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_sequence")
-    @SequenceGenerator(name = "role_sequence", sequenceName = "role_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "role_sequence", sequenceName = "role_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false,name = "role_id")
     private Long roleId;
     private String roleName;
@@ -3,6 +3,7 @@ package com.suryadeep.openshop.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -12,7 +13,7 @@ import java.math.BigDecimal;
 public class Variant {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "variant_sequence")
-    @SequenceGenerator(name = "variant_sequence", sequenceName = "variant_seq", initialValue = 1, allocationSize = 1)
+    @SequenceGenerator(name = "variant_sequence", sequenceName = "variant_seq", initialValue = 1, allocationSize = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
     private String name;
@@ -22,4 +23,9 @@ public class Variant {
     @ManyToOne
     @JoinColumn(name = "product_id")
     private Product product;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
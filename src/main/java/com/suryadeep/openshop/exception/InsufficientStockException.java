@@ -0,0 +1,16 @@
+package com.suryadeep.openshop.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Long> variantIds;
+
+    public InsufficientStockException(List<Long> variantIds) {
+        super(String.format("Not enough stock left for variants %s", variantIds));
+        this.variantIds = List.copyOf(variantIds);
+    }
+}
@@ -0,0 +1,7 @@
+package com.suryadeep.openshop.exception;
+
+public class InvalidCartOperationException extends RuntimeException {
+    public InvalidCartOperationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.suryadeep.openshop.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,109 @@
+package com.suryadeep.openshop.filter;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Cookie telling that a client wrote recently, so its reads go to the primary until the replica has caught up.
+ * The value is the end of the window in epoch millis, signed so a client cannot pin its reads to the primary
+ * for longer. Disabled when reads are not sent to a replica.
+ */
+public class ReadYourWritesCookie {
+
+    public static final String NAME = "primary_until";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Duration window;
+    private final Clock clock;
+
+    /**
+     * @param enabled Whether reads go to a replica
+     * @param secret Signs the cookies, shared by all nodes
+     * @param window How long after a write the client reads from the primary, longer than the replication lag
+     * @param clock The clock
+     */
+    public ReadYourWritesCookie(boolean enabled, String secret, Duration window, Clock clock) {
+        this.enabled = enabled;
+        this.key = enabled ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM) : null;
+        this.window = window;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return A cookie for the window starting now
+     */
+    public ResponseCookie issue() {
+        String until = Long.toString(clock.millis() + window.toMillis());
+        return ResponseCookie.from(NAME, until + "." + sign(until))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+    }
+
+    /**
+     * @return Headers setting a new cookie, none when disabled
+     */
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        if (enabled) {
+            headers.add(HttpHeaders.SET_COOKIE, issue().toString());
+        }
+        return headers;
+    }
+
+    /**
+     * @param cookie The cookie sent by the client, if any
+     * @return True if it was issued by us and its window has not ended
+     */
+    public boolean isValid(Cookie cookie) {
+        if (!enabled || cookie == null || cookie.getValue() == null) {
+            return false;
+        }
+        String value = cookie.getValue();
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        String until = value.substring(0, dot);
+        byte[] signature = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(until).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        try {
+            return Long.parseLong(until) > clock.millis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Mac instances are not thread-safe, and cheap next to the request
+    private String sign(String value) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(value.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign the read-your-writes cookie", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.suryadeep.openshop.filter;
+
+import com.suryadeep.openshop.datasource.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Keeps a client's reads on the primary right after it writes, so e.g. the order it has just placed cannot be
+ * missing from a lagging replica. The first write of a request sets the ReadYourWritesCookie, and requests
+ * bringing a valid one read from the primary (see ReadWriteRoutingDataSource). Registered in DataSourceConfig.
+ */
+@AllArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesCookie cookie;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean recentWrite = cookie.isValid(WebUtils.getCookie(request, ReadYourWritesCookie.NAME));
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(recentWrite, () -> {
+            // Writes happen in the handler, before the body is written
+            if (!response.isCommitted()) {
+                response.addHeader(HttpHeaders.SET_COOKIE, cookie.issue().toString());
+            }
+        })) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.suryadeep.openshop.filter;
+
+import com.suryadeep.openshop.cache.ResponseBodyCache;
+import com.suryadeep.openshop.cache.ResponseBodyCache.CachedResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * Serves anonymous GET requests from the ResponseBodyCache.
+ * A hit is written straight from the cached bytes, gzipped if the client accepts it, or answered with
+ * 304 Not Modified when If-None-Match lists its ETag. On a miss the handler's JSON body is buffered,
+ * cached and then written the same way. Requests with an Authorization header are passed through, and so are
+ * the paths whose answers are not built from the cached catalog alone.
+ * Registered for the catalog endpoints only, see CacheConfig.
+ */
+@Slf4j
+@AllArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    // Bounds the memory a client can make us spend on keys by varying the query string
+    private static final int MAX_KEY_LENGTH = 512;
+    private static final String GZIP = "gzip";
+
+    private final ResponseBodyCache cache;
+    // Below the context path
+    private final Set<String> uncachedPaths;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.AUTHORIZATION) != null
+                || uncachedPaths.contains(path(request))
+                || cacheKey(request).length() > MAX_KEY_LENGTH;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String key = cacheKey(request);
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            write(request, response, cached);
+            return;
+        }
+
+        long generation = cache.generation(key);
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, buffered);
+
+        if (isCacheable(buffered)) {
+            log.debug("Caching response of {}", key);
+            write(request, response, cache.put(key, generation, buffered.getContentType(),
+                    buffered.getContentAsByteArray()));
+        } else {
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request);
+        response.setHeader(HttpHeaders.ETAG, gzip ? cached.gzipEtag() : cached.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Let clients keep the body, but have them revalidate it with If-None-Match on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (cached.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? cached.gzipped() : cached.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            // The container does not compress a response that already has a Content-Encoding
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean isCacheable(ContentCachingResponseWrapper response) {
+        if (response.getStatus() != HttpServletResponse.SC_OK || response.isCommitted()
+                || response.containsHeader(HttpHeaders.SET_COOKIE) || response.getContentType() == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if ((name.equalsIgnoreCase(GZIP) || name.equals("*")) && !isRefused(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // "gzip;q=0" means the client does not want gzip
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Below the context path, as ResponseBodyCache tags keys by the paths of the endpoints
+    private static String cacheKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query != null ? path(request) + "?" + query : path(request);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,131 @@
+package com.suryadeep.openshop.inventory;
+
+import com.suryadeep.openshop.cache.ProductStockInvalidator;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.VariantRepository;
+import com.suryadeep.openshop.repository.projection.PendingStock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind of the hot variants' stock. Checkouts commit their order items marked stock-pending,
+ * and every flush subtracts the pending quantities from the variants table and clears the mark in one
+ * transaction, so the items are the ledger and nothing is lost if the node stops in between.
+ * On startup the items left pending by the previous run are applied before the in-memory counters
+ * are loaded from the table. The cached products of the flushed variants are dropped once the flush commits.
+ */
+@Slf4j
+public class HotStockFlusher implements AutoCloseable {
+
+    static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final HotStockInventory inventory;
+    private final OrderItemRepository orderItemRepository;
+    private final VariantRepository variantRepository;
+    private final ProductStockInvalidator productStockInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration flushInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-stock-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HotStockFlusher(HotStockInventory inventory, OrderItemRepository orderItemRepository,
+                           VariantRepository variantRepository, ProductStockInvalidator productStockInvalidator,
+                           PlatformTransactionManager transactionManager, Duration flushInterval) {
+        this.inventory = inventory;
+        this.orderItemRepository = orderItemRepository;
+        this.variantRepository = variantRepository;
+        this.productStockInvalidator = productStockInvalidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Apply what the previous run left pending, load the counters and start flushing in the background
+     */
+    public void start() {
+        int recovered = flush();
+        if (recovered > 0) {
+            log.info("Applied {} order items left stock-pending by the previous run", recovered);
+        }
+        if (inventory.getVariantIds().isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Variant variant : variantRepository.findAllById(inventory.getVariantIds())) {
+            stock.put(variant.getId(), variant.getStock());
+        }
+        inventory.load(stock);
+
+        long flushMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        log.info("Flushing hot variant stock every {}", flushInterval);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        // Not required for correctness, the next start applies whatever is still pending
+        flushSafely();
+    }
+
+    /**
+     * Subtract every pending order item from its variant's stock
+     * @return The number of order items applied
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> flushBatch());
+            flushed += batch;
+        } while (batch == FLUSH_BATCH_SIZE);
+        return flushed;
+    }
+
+    private int flushBatch() {
+        List<PendingStock> pending = orderItemRepository.findPendingStock(Limit.of(FLUSH_BATCH_SIZE));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = pending.stream().map(PendingStock::getId).toList();
+        // Clearing first locks the items, and a lower count means another flush has applied some of them
+        if (orderItemRepository.clearStockPending(ids) != ids.size()) {
+            throw new IllegalStateException("Pending stock was flushed concurrently, retrying on the next flush");
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PendingStock item : pending) {
+            quantities.merge(item.getVariantId(), item.getQuantity(), Integer::sum);
+            productIds.add(item.getProductId());
+        }
+        variantRepository.subtractStock(quantities);
+        // After commit, like the checkouts of the other variants
+        productStockInvalidator.stockChanged(productIds);
+        log.debug("Flushed {} order items of {} hot variants", pending.size(), quantities.size());
+        return pending.size();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush hot variant stock: {}", e.getMessage());
+        }
+    }
+}
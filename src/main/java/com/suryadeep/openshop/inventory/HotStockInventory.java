@@ -0,0 +1,103 @@
+package com.suryadeep.openshop.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stock of the designated hot variants. Checkouts reserve these against a StripedStockCounter
+ * instead of a conditional UPDATE, so they do not queue on the variant's row lock; the order items are
+ * marked stock-pending and HotStockFlusher later subtracts them from the variants table in batches.
+ * The counters are loaded by HotStockFlusher once the pending items have been applied.
+ * The counters are the only admission check for these variants, so hot mode is meant for a single node
+ * (or for variants sold through one node only); the other variants keep using the database.
+ */
+@Slf4j
+public class HotStockInventory {
+
+    private final Set<Long> variantIds;
+    private final int stripes;
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param variantIds The hot variants
+     * @param stripes    Stripes per counter
+     */
+    public HotStockInventory(Set<Long> variantIds, int stripes) {
+        this.variantIds = Set.copyOf(variantIds);
+        this.stripes = stripes;
+    }
+
+    public boolean isHot(Long variantId) {
+        return variantIds.contains(variantId);
+    }
+
+    public Set<Long> getVariantIds() {
+        return variantIds;
+    }
+
+    /**
+     * Replace the counters
+     * @param stock The stock by variant id as stored in the database with no pending items left;
+     *              hot variants without stock cannot be reserved
+     */
+    public void load(Map<Long, Integer> stock) {
+        counters.clear();
+        stock.forEach((variantId, units) -> {
+            if (isHot(variantId)) {
+                counters.put(variantId, new StripedStockCounter(units != null ? units : 0, stripes));
+            }
+        });
+        log.info("Loaded in-memory stock of {} hot variants", counters.size());
+    }
+
+    /**
+     * Reserve hot variants, all or nothing
+     * @param quantities The quantity by variant id, all of them hot
+     * @return The ids of the variants that did not have enough stock, empty if everything was reserved
+     */
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new HashMap<>();
+        List<Long> shortVariants = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            StripedStockCounter counter = counters.get(line.getKey());
+            if (counter != null && counter.tryTake(line.getValue())) {
+                reserved.put(line.getKey(), line.getValue());
+            } else {
+                shortVariants.add(line.getKey());
+            }
+        }
+        if (!shortVariants.isEmpty()) {
+            release(reserved);
+        }
+        return shortVariants;
+    }
+
+    /**
+     * Give back reserved units, e.g. when the checkout that reserved them rolls back
+     * @param quantities The quantity by variant id
+     */
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach((variantId, quantity) -> {
+            StripedStockCounter counter = counters.get(variantId);
+            if (counter != null) {
+                counter.add(quantity);
+            }
+        });
+    }
+
+    /**
+     * @param variantId A hot variant
+     * @return The units it has left, -1 if it is not loaded
+     */
+    public long available(Long variantId) {
+        StripedStockCounter counter = counters.get(variantId);
+        return counter != null ? counter.available() : -1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.suryadeep.openshop.inventory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Hot inventory settings bound from the {@code inventory.hot.*} properties,
+ * e.g. {@code inventory.hot.variant-ids=101,102} for a flash sale.
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.hot")
+public class HotStockProperties {
+
+    /** Variants whose stock is reserved in memory, see HotStockInventory */
+    private Set<Long> variantIds = new HashSet<>();
+    /** How often the reserved units are written to the variants table */
+    private Duration flushInterval = Duration.ofSeconds(1);
+    /** Stripes per counter, 0 for one per available processor */
+    private int stripes;
+}
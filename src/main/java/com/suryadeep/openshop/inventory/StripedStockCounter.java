@@ -0,0 +1,88 @@
+package com.suryadeep.openshop.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one variant, spread over several independently updated stripes, in the spirit of
+ * LongAdder. Unlike LongAdder it never goes below zero: a reservation takes units from the stripes with
+ * compare-and-set, starting at a random one, and gives back what it took if they hold too little in total.
+ * Concurrent buyers therefore mostly update different stripes and do not retry on each other's writes.
+ * Close to selling out, a buyer may fail while another one briefly holds units it is about to give back.
+ */
+public class StripedStockCounter {
+
+    // Stripes sit 16 longs (128 bytes) apart so they do not share a cache line
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    /**
+     * @param stock   The available stock, spread evenly over the stripes
+     * @param stripes The number of stripes, rounded up to a power of two
+     */
+    public StripedStockCounter(long stock, int stripes) {
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = count;
+        this.cells = new AtomicLongArray(count * PADDING);
+        for (int i = 0; i < count; i++) {
+            cells.set(i * PADDING, stock / count + (i < stock % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Take units out of stock, all or nothing, without locking
+     * @param quantity The number of units, positive
+     * @return True if they were taken, false if too few are available
+     */
+    public boolean tryTake(long quantity) {
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int index = ((home + i) & (stripes - 1)) * PADDING;
+            long available;
+            long take;
+            do {
+                available = cells.get(index);
+                take = Math.min(available, quantity - taken);
+            } while (take > 0 && !cells.compareAndSet(index, available, available - take));
+            if (take > 0) {
+                taken += take;
+            }
+        }
+        if (taken < quantity) {
+            if (taken > 0) {
+                add(taken);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Put units back into stock, e.g. those of a reservation that was rolled back
+     * @param quantity The number of units
+     */
+    public void add(long quantity) {
+        cells.getAndAdd(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    /**
+     * @return The units available, exact only while no reservation is in progress
+     */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    public int stripes() {
+        return stripes;
+    }
+}
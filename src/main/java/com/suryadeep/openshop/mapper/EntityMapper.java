@@ -4,6 +4,8 @@ package com.suryadeep.openshop.mapper;
 import com.suryadeep.openshop.dto.request.*;
 import com.suryadeep.openshop.dto.response.*;
 import com.suryadeep.openshop.entity.*;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
 import org.mapstruct.*;
 
 import java.util.List;
@@ -14,15 +16,22 @@ public interface EntityMapper {
     // ===================== Product =====================
     @Mapping(target = "category.id", source = "categoryId")
     @Mapping(target = "images", ignore = true) // handled manually
+    @Mapping(target = "version", ignore = true) // managed by JPA
     Product toProductEntity(ProductRequest request);
 
     @Mapping(target = "categoryName", source = "category.name")
+    @Mapping(target = "categoryVersion", source = "category.version")
     ProductResponse toProductResponse(Product product);
 
     List<ProductResponse> toProductResponseList(List<Product> products);
 
+    @Mapping(target = "imageUrls", ignore = true)
+    @Mapping(target = "variants", ignore = true) // loaded separately
+    ProductResponse toProductResponse(ProductSummary summary);
+
     // ===================== Variant =====================
     @Mapping(target = "stock", source = "stockQuantity")
+    @Mapping(target = "version", ignore = true) // managed by JPA
     Variant toVariantEntity(VariantRequest request);
 
     @Mapping(target = "stockQuantity", source = "stock")
@@ -30,8 +39,12 @@ public interface EntityMapper {
 
     List<VariantResponse> toVariantResponseList(List<Variant> variants);
 
+    @Mapping(target = "stockQuantity", source = "stock")
+    VariantResponse toVariantResponse(VariantSummary summary);
+
     // ===================== Category =====================
     @Mapping(target = "images",ignore = true)
+    @Mapping(target = "version", ignore = true) // managed by JPA
     Category toCategoryEntity(CategoryRequest request);
 
     CategoryResponse toCategoryResponse(Category category);
@@ -0,0 +1,23 @@
+package com.suryadeep.openshop.order;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An order waiting to be placed by OrderPlacementPipeline
+ * @param orderNumber    The number handed to the client, given to the order when it is saved
+ * @param userId         The user placing the order, only they may poll it
+ * @param authentication The user's authentication, set on the worker while it places the order
+ * @param request        The order details
+ * @param result         Completed with the outcome
+ */
+public record OrderPlacement(String orderNumber, Long userId, Authentication authentication,
+                             OrderRequest request, CompletableFuture<OrderPlacementResponse> result) {
+
+    public OrderPlacement(String orderNumber, Long userId, Authentication authentication, OrderRequest request) {
+        this(orderNumber, userId, authentication, request, new CompletableFuture<>());
+    }
+}
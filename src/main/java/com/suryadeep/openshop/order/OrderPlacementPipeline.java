@@ -0,0 +1,179 @@
+package com.suryadeep.openshop.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.exception.InsufficientStockException;
+import com.suryadeep.openshop.exception.ResourceNotFoundException;
+import com.suryadeep.openshop.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Places queued orders in the background, so a checkout request only has to validate and enqueue.
+ * The queue is bounded; worker virtual threads drain it in batches and place each batch in one transaction,
+ * sharing the commit among consecutive orders. If any order of a batch fails, the batch is rolled back and
+ * its orders are placed again one transaction each, so one failure does not fail its neighbours.
+ * Outcomes are kept in memory for the status retention. Queued orders live in memory only: those still
+ * queued when the node stops are lost and never get an outcome.
+ */
+@Slf4j
+public class OrderPlacementPipeline implements AutoCloseable {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderPlacementProperties properties;
+    private final BlockingQueue<OrderPlacement> queue;
+    private final Cache<String, OrderPlacement> placements;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean stopped;
+
+    public OrderPlacementPipeline(OrderService orderService, PlatformTransactionManager transactionManager,
+                                  OrderPlacementProperties properties) {
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.placements = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getStatusRetention())
+                .build();
+    }
+
+    /**
+     * Start the workers
+     */
+    public void start() {
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.add(Thread.ofVirtual().name("order-placement-" + i).start(this::work));
+        }
+        log.info("Placing queued orders with {} workers, up to {} per transaction",
+                properties.getWorkers(), properties.getMaxBatchSize());
+    }
+
+    /**
+     * Stop taking orders and let the workers place what is already queued, for up to the max wait
+     */
+    @Override
+    public void close() throws InterruptedException {
+        stopped = true;
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            worker.interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} queued orders were not placed before shutdown", queue.size());
+        }
+    }
+
+    /**
+     * Queue an order
+     * @param placement The order to place
+     * @return False if the queue is full or the pipeline is stopping
+     */
+    public boolean submit(OrderPlacement placement) {
+        if (stopped) {
+            return false;
+        }
+        placements.put(placement.orderNumber(), placement);
+        if (!queue.offer(placement)) {
+            placements.invalidate(placement.orderNumber());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param orderNumber The number of a queued order
+     * @return The placement while its outcome is retained
+     */
+    public Optional<OrderPlacement> find(String orderNumber) {
+        return Optional.ofNullable(placements.getIfPresent(orderNumber));
+    }
+
+    /**
+     * @return The number of orders waiting for a worker
+     */
+    public int queued() {
+        return queue.size();
+    }
+
+    private void work() {
+        List<OrderPlacement> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (!stopped || !queue.isEmpty()) {
+            try {
+                OrderPlacement first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+                placeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order placement worker failed: {}", e.getMessage(), e);
+            } finally {
+                // Completed placements keep their outcome, anything left over failed unexpectedly
+                batch.forEach(placement -> placement.result().complete(
+                        OrderPlacementResponse.failed(placement.orderNumber(), "Internal error")));
+                batch.clear();
+            }
+        }
+    }
+
+    void placeBatch(List<OrderPlacement> batch) {
+        if (batch.size() > 1) {
+            try {
+                List<OrderResponse> orders = transactionTemplate.execute(status ->
+                        batch.stream().map(this::place).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    complete(batch.get(i), orders.get(i));
+                }
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Placing {} orders together failed, placing them one by one: {}", batch.size(), e.getMessage());
+            }
+        }
+        for (OrderPlacement placement : batch) {
+            try {
+                complete(placement, transactionTemplate.execute(status -> place(placement)));
+            } catch (InsufficientStockException | ResourceNotFoundException | IllegalStateException e) {
+                placement.result().complete(OrderPlacementResponse.failed(placement.orderNumber(), e.getMessage()));
+            } catch (RuntimeException e) {
+                log.error("Failed to place order {}: {}", placement.orderNumber(), e.getMessage(), e);
+                placement.result().complete(OrderPlacementResponse.failed(placement.orderNumber(), "Internal error"));
+            }
+        }
+    }
+
+    // OrderService works on the authenticated user, so the worker takes on the identity of the one who queued it
+    private OrderResponse place(OrderPlacement placement) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(placement.authentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            return orderService.createOrder(placement.request(), placement.orderNumber());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void complete(OrderPlacement placement, OrderResponse order) {
+        placement.result().complete(OrderPlacementResponse.placed(placement.orderNumber(), order.getId()));
+    }
+}
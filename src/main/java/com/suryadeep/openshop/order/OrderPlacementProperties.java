@@ -0,0 +1,25 @@
+package com.suryadeep.openshop.order;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous order placement settings bound from the {@code orders.async.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "orders.async")
+public class OrderPlacementProperties {
+
+    /** Orders waiting for a worker; further submissions are rejected until there is room */
+    private int queueCapacity = 1000;
+    /** Worker threads, each placing one batch at a time */
+    private int workers = 4;
+    /** Orders a worker places in a single transaction */
+    private int maxBatchSize = 20;
+    /** How long the outcome of a placement can be polled from memory; later polls look the order up */
+    private Duration statusRetention = Duration.ofMinutes(15);
+    /** Longest a status request may wait for the outcome */
+    private Duration maxWait = Duration.ofSeconds(30);
+}
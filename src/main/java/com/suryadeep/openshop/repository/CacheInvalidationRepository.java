@@ -0,0 +1,19 @@
+package com.suryadeep.openshop.repository;
+
+import com.suryadeep.openshop.entity.CacheInvalidationEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidationEntry, Long> {
+
+    List<CacheInvalidationEntry> findByCreatedAtAfterOrderByIdAsc(Instant createdAt);
+
+    @Modifying
+    @Query("delete from CacheInvalidationEntry e where e.createdAt < :createdAt")
+    int deleteCreatedBefore(@Param("createdAt") Instant createdAt);
+}
@@ -1,8 +1,31 @@
 package com.suryadeep.openshop.repository;
 
 import com.suryadeep.openshop.entity.OrderItem;
+import com.suryadeep.openshop.repository.projection.PendingStock;
+import com.suryadeep.openshop.repository.projection.ProductOrderCount;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository <OrderItem, Long> {
 
+    @Query("select i.id as id, i.variant.id as variantId, i.variant.product.id as productId, i.quantity as quantity "
+            + "from OrderItem i where i.stockPending = true order by i.id")
+    List<PendingStock> findPendingStock(Limit limit);
+
+    /**
+     * Only clears the items that are still pending, so a flush can tell whether another one claimed them first
+     */
+    @Modifying
+    @Query("update OrderItem i set i.stockPending = false where i.id in :ids and i.stockPending = true")
+    int clearStockPending(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.variant.product.id as productId, count(distinct i.order.id) as orders from OrderItem i "
+            + "group by i.variant.product.id")
+    List<ProductOrderCount> countOrdersByProduct();
 }
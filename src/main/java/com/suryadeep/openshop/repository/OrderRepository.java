@@ -3,12 +3,18 @@ package com.suryadeep.openshop.repository;
 import com.suryadeep.openshop.entity.Order;
 import com.suryadeep.openshop.entity.User;
 import com.suryadeep.openshop.entity.enums.OrderStatus;
+import com.suryadeep.openshop.repository.projection.OrderVersion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository <Order, Long> {
 
@@ -22,4 +28,28 @@ public interface OrderRepository extends JpaRepository <Order, Long> {
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    long countByStatus(OrderStatus status);
+
+    @Query("select o.version as version, o.lastUpdated as lastUpdated from Order o where o.id = :id")
+    Optional<OrderVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select o.id from Order o where o.orderNumber = :orderNumber and o.user.id = :userId")
+    Optional<Long> findIdByOrderNumberAndUserId(@Param("orderNumber") String orderNumber, @Param("userId") Long userId);
+
+    // Keyset pagination, newest first: a slice starts right after the (orderDate, id) of the previous one
+
+    List<Order> findAllByOrderByOrderDateDescIdDesc(Limit limit);
+
+    @Query("select o from Order o where o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id) "
+            + "order by o.orderDate desc, o.id desc")
+    List<Order> findAllBefore(@Param("orderDate") LocalDateTime orderDate, @Param("id") long id, Limit limit);
+
+    List<Order> findByStatusOrderByOrderDateDescIdDesc(OrderStatus status, Limit limit);
+
+    @Query("select o from Order o where o.status = :status "
+            + "and (o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id)) "
+            + "order by o.orderDate desc, o.id desc")
+    List<Order> findByStatusBefore(@Param("status") OrderStatus status, @Param("orderDate") LocalDateTime orderDate,
+                                   @Param("id") long id, Limit limit);
+
 }
@@ -1,14 +1,74 @@
 package com.suryadeep.openshop.repository;
 
 import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.repository.projection.ProductName;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findAllByCategoryId(Long categoryId);
     Page<Product> findAllByCategoryId(Long categoryId, Pageable pageable);
+
+    // Listings load everything the response needs (category and variants) in one statement.
+    // Paginated listings page over ids first, so the database does the paging instead of
+    // Hibernate doing it in memory over a collection fetch join.
+
+    @Query(value = "select p.id from Product p order by p.id",
+            countQuery = "select count(p) from Product p")
+    Page<Long> findIds(Pageable pageable);
+
+    @Query(value = "select p.id from Product p where p.category.id = :categoryId order by p.id",
+            countQuery = "select count(p) from Product p where p.category.id = :categoryId")
+    Page<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // Keyset pagination: the next slice starts after the last id of the previous one,
+    // so deep slices cost the same as the first one
+
+    @Query("select p.id from Product p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select p.id from Product p where p.category.id = :categoryId and p.id > :afterId order by p.id")
+    List<Long> findIdsByCategoryIdAfter(@Param("categoryId") Long categoryId, @Param("afterId") long afterId, Limit limit);
+
+    long countByCategoryId(Long categoryId);
+
+    // The paginated catalog listing reads plain columns into projections, so no managed entities are built
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select p.id as id, p.name as name, p.description as description, p.isEnabled as enabled, "
+            + "c.id as categoryId, c.name as categoryName, p.version as version, c.version as categoryVersion "
+            + "from Product p left join p.category c where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select v.id as id, v.product.id as productId, v.name as name, v.price as price, v.stock as stock, "
+            + "v.version as version from Variant v where v.product.id in :productIds order by v.id")
+    List<VariantSummary> findVariantSummariesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select p.id as id, p.name as name, c.id as categoryId from Product p left join p.category c "
+            + "where p.id > :afterId order by p.id")
+    List<ProductName> findNamesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = {"category", "variants"})
+    @Query("select p from Product p order by p.id")
+    List<Product> findAllWithDetails();
+
+    @EntityGraph(attributePaths = {"category", "variants"})
+    @Query("select p from Product p where p.category.id = :categoryId order by p.id")
+    List<Product> findAllWithDetailsByCategoryId(@Param("categoryId") Long categoryId);
 }
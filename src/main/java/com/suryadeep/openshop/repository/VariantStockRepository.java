@@ -0,0 +1,28 @@
+package com.suryadeep.openshop.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock updates that bypass the persistence context, implemented with JDBC by VariantStockRepositoryImpl
+ */
+public interface VariantStockRepository {
+
+    /**
+     * Take the quantities out of stock with one conditional UPDATE per variant, sent as a single batch.
+     * A variant is only decremented if it has enough stock left, and its version is bumped so a stale copy
+     * of it cannot be saved over the new stock. Rows are updated in ascending id order, so concurrent
+     * reservations lock shared variants in the same order and cannot deadlock.
+     * Must run inside the caller's transaction, which has to be rolled back if any variant is reported short.
+     * @param quantities The quantity to reserve by variant id
+     * @return The ids of the variants that did not have enough stock, empty if everything was reserved
+     */
+    List<Long> reserveStock(Map<Long, Integer> quantities);
+
+    /**
+     * Subtract quantities that were already reserved elsewhere, see HotStockInventory.
+     * Sent as a single batch in ascending id order, bumping each variant's version.
+     * @param quantities The quantity to subtract by variant id
+     */
+    void subtractStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,50 @@
+package com.suryadeep.openshop.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@AllArgsConstructor
+class VariantStockRepositoryImpl implements VariantStockRepository {
+
+    private static final String RESERVE_STOCK_SQL =
+            "UPDATE variant SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private static final String SUBTRACT_STOCK_SQL =
+            "UPDATE variant SET stock = stock - ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> reserveStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        List<Object[]> rows = new ArrayList<>(lines.size());
+        for (Map.Entry<Long, Integer> line : lines) {
+            rows.add(new Object[]{line.getValue(), line.getKey(), line.getValue()});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_STOCK_SQL, rows);
+        List<Long> shortVariants = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                shortVariants.add(lines.get(i).getKey());
+            }
+        }
+        return shortVariants;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtractStock(Map<Long, Integer> quantities) {
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        new TreeMap<>(quantities).forEach((variantId, quantity) -> rows.add(new Object[]{quantity, variantId}));
+        jdbcTemplate.batchUpdate(SUBTRACT_STOCK_SQL, rows);
+    }
+}
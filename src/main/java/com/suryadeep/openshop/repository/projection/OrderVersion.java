@@ -0,0 +1,11 @@
+package com.suryadeep.openshop.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version and last update of an order, read to answer conditional requests.
+ */
+public interface OrderVersion {
+    Long getVersion();
+    LocalDateTime getLastUpdated();
+}
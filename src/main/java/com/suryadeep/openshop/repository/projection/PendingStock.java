@@ -0,0 +1,11 @@
+package com.suryadeep.openshop.repository.projection;
+
+/**
+ * An order item of a hot variant whose quantity has not been subtracted from the variants table yet.
+ */
+public interface PendingStock {
+    Long getId();
+    Long getVariantId();
+    Long getProductId();
+    int getQuantity();
+}
@@ -0,0 +1,10 @@
+package com.suryadeep.openshop.repository.projection;
+
+/**
+ * A product's name, read to build the typeahead suggestions.
+ */
+public interface ProductName {
+    Long getId();
+    String getName();
+    Long getCategoryId();
+}
@@ -0,0 +1,9 @@
+package com.suryadeep.openshop.repository.projection;
+
+/**
+ * The number of orders that contain a product, in any variant.
+ */
+public interface ProductOrderCount {
+    Long getProductId();
+    long getOrders();
+}
@@ -0,0 +1,15 @@
+package com.suryadeep.openshop.repository.projection;
+
+/**
+ * Read-only view of the product columns shown in catalog listings and indexed for search.
+ */
+public interface ProductSummary {
+    Long getId();
+    String getName();
+    String getDescription();
+    boolean isEnabled();
+    Long getCategoryId();
+    String getCategoryName();
+    Long getVersion();
+    Long getCategoryVersion();
+}
@@ -0,0 +1,15 @@
+package com.suryadeep.openshop.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of the variant columns shown in catalog listings.
+ */
+public interface VariantSummary {
+    Long getId();
+    Long getProductId();
+    String getName();
+    BigDecimal getPrice();
+    Integer getStock();
+    Long getVersion();
+}
@@ -0,0 +1,351 @@
+package com.suryadeep.openshop.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of the products: every term of a product's name, description, category name
+ * and variant names points to the products containing it, so a search reads the postings of its terms
+ * instead of scanning the product table.
+ * <p>
+ * Products are ranked with BM25 over a single weighted field: an occurrence in the name counts
+ * {@value #NAME_WEIGHT} times, in the category name {@value #CATEGORY_WEIGHT} times, in a variant name
+ * {@value #VARIANT_WEIGHT} times and in the description once. Every word of the query has to match.
+ * The last word also matches the terms it is a prefix of, so results show up while it is being typed;
+ * those matches score {@value #PREFIX_WEIGHT} of a whole-word match.
+ * <p>
+ * Searches share a read lock, put and remove take the write lock. Memory grows with the distinct terms
+ * and one int and one float per product and term.
+ */
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float VARIANT_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    static final float PREFIX_WEIGHT = 0.8f;
+    /** A one-letter prefix can match thousands of terms, only this many (in term order) are searched */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted, so the terms starting with a prefix are one sub map
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docsByProductId = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+    private double totalLength;
+
+    /**
+     * The products a search matched, best first
+     * @param productIds The requested range of the matching products
+     * @param total The number of matching products
+     */
+    public record Hits(List<Long> productIds, int total) {
+        static final Hits NONE = new Hits(List.of(), 0);
+    }
+
+    /**
+     * Add a product, or replace it if already indexed
+     * @param document The product's searchable content
+     */
+    public void put(SearchDocument document) {
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        addTerms(frequencies, document.name(), NAME_WEIGHT);
+        addTerms(frequencies, document.categoryName(), CATEGORY_WEIGHT);
+        addTerms(frequencies, document.description(), DESCRIPTION_WEIGHT);
+        List<SearchDocument.Variant> variants = document.variants() != null ? document.variants() : List.of();
+        long[] prices = new long[variants.size()];
+        int[] stocks = new int[variants.size()];
+        for (int i = 0; i < variants.size(); i++) {
+            SearchDocument.Variant variant = variants.get(i);
+            addTerms(frequencies, variant.name(), VARIANT_WEIGHT);
+            prices[i] = variant.price() != null ? cents(variant.price(), RoundingMode.HALF_UP) : NO_PRICE;
+            stocks[i] = variant.stock() != null ? variant.stock() : 0;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.productId());
+            String[] docTerms = new String[frequencies.size()];
+            float length = 0;
+            int docNumber = freeDocs.isEmpty() ? docs.size() : freeDocs.pop();
+            int i = 0;
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                Postings postings = terms.computeIfAbsent(entry.getKey(), term -> new Postings());
+                // Keep the map's instance, so every product shares one copy of a term
+                docTerms[i] = terms.ceilingKey(entry.getKey());
+                postings.add(docNumber, entry.getValue());
+                length += entry.getValue();
+                i++;
+            }
+            Doc doc = new Doc(document.productId(), document.categoryId(), docTerms, length, prices, stocks);
+            if (docNumber == docs.size()) {
+                docs.add(doc);
+            } else {
+                docs.set(docNumber, doc);
+            }
+            docsByProductId.put(document.productId(), docNumber);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product, if indexed
+     * @param productId The product to remove
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the products matching every word of the query and the filters
+     * @param query The words and filters
+     * @param offset The number of best matches to skip
+     * @param limit The maximum number of products to return
+     * @return The matching products ranked by relevance, ties by id
+     */
+    public Hits search(ProductSearchQuery query, int offset, int limit) {
+        List<String> words = SearchTokenizer.tokenize(query.text()).stream().distinct().toList();
+        if (words.isEmpty()) {
+            return Hits.NONE;
+        }
+        long minCents = query.minPrice() != null ? cents(query.minPrice(), RoundingMode.CEILING) : Long.MIN_VALUE;
+        long maxCents = query.maxPrice() != null ? cents(query.maxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            List<List<Match>> matchesPerWord = new ArrayList<>();
+            for (int i = 0; i < words.size(); i++) {
+                List<Match> matches = matches(words.get(i), i == words.size() - 1);
+                if (matches.isEmpty()) {
+                    return Hits.NONE;
+                }
+                matchesPerWord.add(matches);
+            }
+            // Starting with the rarest word keeps the candidates few, the others only score those
+            matchesPerWord.sort(Comparator.comparingInt(ProductSearchIndex::postingCount));
+            Map<Integer, Float> scores = null;
+            for (List<Match> matches : matchesPerWord) {
+                scores = score(matches, scores);
+                if (scores.isEmpty()) {
+                    return Hits.NONE;
+                }
+            }
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                if (!query.filtersVariants() || docs.get(entry.getKey()).hasVariant(minCents, maxCents, query.inStock())) {
+                    ranked.add(entry);
+                }
+            }
+            ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                    .thenComparingLong(entry -> docs.get(entry.getKey()).productId()));
+            List<Long> productIds = ranked.stream()
+                    .skip(offset)
+                    .limit(limit)
+                    .map(entry -> docs.get(entry.getKey()).productId())
+                    .toList();
+            return new Hits(productIds, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryId A category
+     * @return The indexed products of the category
+     */
+    public Set<Long> productIdsOfCategory(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> productIds = new HashSet<>();
+            for (Doc doc : docs) {
+                if (doc != null && categoryId.equals(doc.categoryId())) {
+                    productIds.add(doc.productId());
+                }
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct terms
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        Integer docNumber = docsByProductId.remove(productId);
+        if (docNumber == null) {
+            return;
+        }
+        Doc doc = docs.get(docNumber);
+        for (String term : doc.terms()) {
+            Postings postings = terms.get(term);
+            postings.remove(docNumber);
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= doc.length();
+        docs.set(docNumber, null);
+        freeDocs.push(docNumber);
+    }
+
+    private List<Match> matches(String word, boolean prefix) {
+        List<Match> matches = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            matches.add(new Match(exact, 1f));
+        }
+        if (prefix) {
+            NavigableMap<String, Postings> expansions = terms.subMap(word, false, word + Character.MAX_VALUE, false);
+            expansions.values().stream()
+                    .limit(MAX_PREFIX_EXPANSIONS)
+                    .forEach(postings -> matches.add(new Match(postings, PREFIX_WEIGHT)));
+        }
+        return matches;
+    }
+
+    private static int postingCount(List<Match> matches) {
+        return matches.stream().mapToInt(match -> match.postings().size).sum();
+    }
+
+    /**
+     * Scores one word of the query: a product gets the best score among the terms the word matches.
+     *
+     * @param matches    the terms the word matches
+     * @param candidates the products matching the previous words with their scores, null for the first word
+     * @return the products matching this word too, with the summed scores
+     */
+    private Map<Integer, Float> score(List<Match> matches, Map<Integer, Float> candidates) {
+        int docCount = docsByProductId.size();
+        double averageLength = totalLength / docCount;
+        // One idf for all the terms of the word, or a rare term it is a prefix of would outrank the word itself
+        int frequency = Math.min(docCount, postingCount(matches));
+        double idf = Math.log(1 + (docCount - frequency + 0.5) / (frequency + 0.5));
+        Map<Integer, Float> best = new HashMap<>();
+        for (Match match : matches) {
+            Postings postings = match.postings();
+            for (int i = 0; i < postings.size; i++) {
+                int docNumber = postings.docs[i];
+                if (candidates != null && !candidates.containsKey(docNumber)) {
+                    continue;
+                }
+                float termFrequency = postings.frequencies[i];
+                double norm = K1 * (1 - B + B * docs.get(docNumber).length() / averageLength);
+                float score = (float) (match.weight() * idf * termFrequency * (K1 + 1) / (termFrequency + norm));
+                best.merge(docNumber, score, Math::max);
+            }
+        }
+        if (candidates != null) {
+            best.replaceAll((docNumber, score) -> score + candidates.get(docNumber));
+        }
+        return best;
+    }
+
+    private static void addTerms(Map<String, Float> frequencies, String text, float weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+    }
+
+    private static long cents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private record Match(Postings postings, float weight) {
+    }
+
+    private record Doc(long productId, Long categoryId, String[] terms, float length, long[] prices, int[] stocks) {
+
+        boolean hasVariant(long minCents, long maxCents, boolean inStock) {
+            for (int i = 0; i < prices.length; i++) {
+                boolean priced = minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE
+                        || prices[i] != NO_PRICE && prices[i] >= minCents && prices[i] <= maxCents;
+                if (priced && (!inStock || stocks[i] > 0)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The products containing a term, in no particular order: a removed product is swapped out
+     * with the last entry.
+     */
+    private static final class Postings {
+
+        int[] docs = new int[2];
+        float[] frequencies = new float[2];
+        int size;
+
+        void add(int docNumber, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = docNumber;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int docNumber) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == docNumber) {
+                    size--;
+                    docs[i] = docs[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+}
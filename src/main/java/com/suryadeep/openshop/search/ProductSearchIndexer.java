@@ -0,0 +1,166 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the ProductSearchIndex in step with the product table. The index is built from the table on startup,
+ * then the product and category services pass on their changes, which are applied once committed.
+ * Changes made on other nodes arrive as their cache invalidations: an evicted product is read again,
+ * an evicted category listing (a product added to or moved into it, or the category renamed) has its
+ * products read again. These are read in the background, so until then this node's searches see the old state.
+ */
+@Slf4j
+public class ProductSearchIndexer {
+
+    static final int LOAD_BATCH_SIZE = 500;
+
+    private final ProductSearchIndex index;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+
+    public ProductSearchIndexer(ProductSearchIndex index, ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager, Executor executor) {
+        this.index = index;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Also reads from afterCommit callbacks, where the committed transaction must not be joined
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = executor;
+    }
+
+    /**
+     * Index every product, in batches of ids
+     */
+    public void start() {
+        long startNanos = System.nanoTime();
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            long after = afterId;
+            ids = transactionTemplate.execute(status -> productRepository.findIdsAfter(after, Limit.of(LOAD_BATCH_SIZE)));
+            if (!ids.isEmpty()) {
+                load(ids).forEach(index::put);
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_BATCH_SIZE);
+        log.info("Indexed {} products ({} terms) for search in {} ms", index.size(), index.termCount(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Index a saved product once the transaction saving it commits
+     * @param product The product as saved, with its category and variants
+     */
+    public void index(Product product) {
+        // Taken now, the entity may not be readable any more after commit
+        SearchDocument document = SearchDocument.of(product);
+        afterCommit(() -> index.put(document));
+    }
+
+    /**
+     * Remove a product from the index once the transaction deleting it commits
+     * @param productId The deleted product
+     */
+    public void remove(Long productId) {
+        afterCommit(() -> index.remove(productId));
+    }
+
+    /**
+     * Index the products of a category again once the transaction changing it commits
+     * @param categoryId The changed category
+     */
+    public void reindexCategory(Long categoryId) {
+        afterCommit(() -> reindexCategoryNow(categoryId));
+    }
+
+    /**
+     * Apply a cache invalidation published by another node, in the background
+     * @param invalidation The invalidation
+     */
+    public void applyRemote(CacheInvalidation invalidation) {
+        if (!CacheNames.PRODUCTS.equals(invalidation.cacheName())) {
+            return;
+        }
+        if (invalidation.type() == CacheInvalidation.Type.EVICT && invalidation.key() instanceof Long productId) {
+            executor.execute(() -> reindexProduct(productId));
+        } else if (invalidation.type() == CacheInvalidation.Type.EVICT_TAG
+                && invalidation.key() instanceof String tag && CacheNames.isCategoryTag(tag)) {
+            executor.execute(() -> reindexCategoryNow(CacheNames.categoryIdOf(tag)));
+        }
+    }
+
+    void reindexProduct(Long productId) {
+        List<SearchDocument> documents = load(List.of(productId));
+        if (documents.isEmpty()) {
+            index.remove(productId);
+        } else {
+            index.put(documents.get(0));
+        }
+    }
+
+    void reindexCategoryNow(Long categoryId) {
+        Set<Long> stale = new HashSet<>(index.productIdsOfCategory(categoryId));
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            long after = afterId;
+            ids = transactionTemplate.execute(status ->
+                    productRepository.findIdsByCategoryIdAfter(categoryId, after, Limit.of(LOAD_BATCH_SIZE)));
+            if (!ids.isEmpty()) {
+                for (SearchDocument document : load(ids)) {
+                    index.put(document);
+                    stale.remove(document.productId());
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_BATCH_SIZE);
+        // No longer in the category: deleted or moved to another one
+        stale.forEach(this::reindexProduct);
+        log.debug("Reindexed the products of category ID: {}", categoryId);
+    }
+
+    private List<SearchDocument> load(List<Long> ids) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, List<VariantSummary>> variantsByProductId = productRepository
+                    .findVariantSummariesByProductIdIn(ids).stream()
+                    .collect(Collectors.groupingBy(VariantSummary::getProductId));
+            return productRepository.findSummariesByIdIn(ids).stream()
+                    .map(summary -> SearchDocument.of(summary,
+                            variantsByProductId.getOrDefault(summary.getId(), List.of())))
+                    .toList();
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
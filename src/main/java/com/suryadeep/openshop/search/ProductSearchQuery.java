@@ -0,0 +1,39 @@
+package com.suryadeep.openshop.search;
+
+import java.math.BigDecimal;
+
+/**
+ * A product search. The price and stock filters hold for one variant together: with both set, a product
+ * matches if one of its variants in the price range is in stock.
+ *
+ * @param text     the words to look for, the last one may be incomplete
+ * @param minPrice the lowest variant price, null for no lower bound
+ * @param maxPrice the highest variant price, null for no upper bound
+ * @param inStock  only products with a variant in stock
+ */
+public record ProductSearchQuery(String text, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {
+
+    /**
+     * @return Whether the query restricts the variants at all
+     */
+    public boolean filtersVariants() {
+        return minPrice != null || maxPrice != null || inStock;
+    }
+
+    /**
+     * @param price The price of a variant, null if not set
+     * @param stock The units in stock of a variant, null if not set
+     * @return Whether the variant passes the filters
+     */
+    public boolean matches(BigDecimal price, Integer stock) {
+        if (inStock && (stock == null || stock <= 0)) {
+            return false;
+        }
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        return price != null
+                && (minPrice == null || price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+}
@@ -0,0 +1,176 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.projection.ProductName;
+import com.suryadeep.openshop.repository.projection.ProductOrderCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves typeahead suggestions from a SuggestIndex in memory, ranked by the number of orders of each
+ * product (of all its products for a category). The index is immutable: a new one is built in the
+ * background when a product or category is added, deleted or renamed on any node, or when it reaches
+ * the max age, and then replaces the old one, which keeps serving until then. Other changes, to stock,
+ * prices or a product's category, leave the names alone and only move the ranking, so they wait for the max age.
+ * <p>
+ * Name changes are published through the CacheInvalidationPublisher, so every node rebuilds.
+ */
+@Slf4j
+public class ProductSuggester implements AutoCloseable {
+
+    static final int LOAD_BATCH_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SuggestProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final AtomicBoolean namesChanged = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile SuggestIndex index = SuggestIndex.EMPTY;
+    private volatile long builtAtNanos;
+
+    public ProductSuggester(ProductRepository productRepository, CategoryRepository categoryRepository,
+                            OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager,
+                            SuggestProperties properties, CacheInvalidationPublisher publisher) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Build the first index and start looking for changes
+     */
+    public void start() {
+        rebuild();
+        long refreshMillis = properties.getRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuildIfStale, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @param text What has been typed so far
+     * @param limit The maximum number of suggestions, capped at the configured max results
+     * @return The most popular products and categories with a word starting with the text
+     */
+    public List<SuggestIndex.Suggestion> suggest(String text, int limit) {
+        return index.suggest(text, Math.min(limit, properties.getMaxResults()));
+    }
+
+    /**
+     * Get the index rebuilt on the next refresh of every node, once the transaction changing the name commits
+     * @param type Whether a product or a category was added, deleted or renamed
+     * @param id The product or category
+     */
+    public void nameChanged(SuggestIndex.Type type, Long id) {
+        afterCommit(() -> publisher.publish(CacheNames.CATALOG_NAMES, CacheInvalidation.Type.EVICT, type + ":" + id));
+    }
+
+    /**
+     * Note a cache invalidation, made on this node or another one; name changes get the index rebuilt
+     * on the next refresh
+     * @param invalidation The invalidation, ignored unless it is of CacheNames.CATALOG_NAMES
+     */
+    public void onInvalidation(CacheInvalidation invalidation) {
+        if (CacheNames.CATALOG_NAMES.equals(invalidation.cacheName())) {
+            namesChanged.set(true);
+        }
+    }
+
+    /**
+     * Build a new index from the database and swap it in
+     */
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        // Cleared first, so a change made while building gets the next refresh to build again
+        namesChanged.set(false);
+        Map<Long, Long> productOrders = new HashMap<>();
+        for (ProductOrderCount count : transactionTemplate.execute(status -> orderItemRepository.countOrdersByProduct())) {
+            productOrders.put(count.getProductId(), count.getOrders());
+        }
+
+        SuggestIndex.Builder builder = SuggestIndex.builder();
+        Map<Long, Long> categoryOrders = new HashMap<>();
+        long afterId = 0;
+        List<ProductName> products;
+        do {
+            long after = afterId;
+            products = transactionTemplate.execute(status ->
+                    productRepository.findNamesAfter(after, Limit.of(LOAD_BATCH_SIZE)));
+            for (ProductName product : products) {
+                long orders = productOrders.getOrDefault(product.getId(), 0L);
+                builder.add(SuggestIndex.Type.PRODUCT, product.getId(), product.getName(), orders);
+                if (product.getCategoryId() != null) {
+                    categoryOrders.merge(product.getCategoryId(), orders, Long::sum);
+                }
+                afterId = product.getId();
+            }
+        } while (products.size() == LOAD_BATCH_SIZE);
+        for (Category category : transactionTemplate.execute(status -> categoryRepository.findAll())) {
+            builder.add(SuggestIndex.Type.CATEGORY, category.getId(), category.getName(),
+                    categoryOrders.getOrDefault(category.getId(), 0L));
+        }
+
+        SuggestIndex built = builder.build();
+        index = built;
+        builtAtNanos = System.nanoTime();
+        log.debug("Built typeahead index of {} names ({} words) in {} ms", built.size(), built.entries(),
+                (builtAtNanos - startNanos) / 1_000_000);
+    }
+
+    void rebuildIfStale() {
+        try {
+            if (namesChanged.get() || System.nanoTime() - builtAtNanos >= properties.getMaxAge().toNanos()) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            // The old index keeps serving, the next refresh tries again
+            namesChanged.set(true);
+            log.warn("Failed to rebuild the typeahead index: {}", e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The searchable text of a product and what the search filters need of its variants.
+ *
+ * @param productId    the product
+ * @param categoryId   the product's category, null if it has none
+ * @param name         the product's name
+ * @param description  the product's description
+ * @param categoryName the name of the product's category
+ * @param variants     the product's variants
+ */
+public record SearchDocument(Long productId, Long categoryId, String name, String description, String categoryName,
+                             List<Variant> variants) {
+
+    /**
+     * @param name  the variant's name
+     * @param price the variant's price, null if not set
+     * @param stock the units in stock, null if not set
+     */
+    public record Variant(String name, BigDecimal price, Integer stock) {
+    }
+
+    public static SearchDocument of(Product product) {
+        List<Variant> variants = product.getVariants() == null ? List.of() : product.getVariants().stream()
+                .map(variant -> new Variant(variant.getName(), variant.getPrice(), variant.getStock()))
+                .toList();
+        return new SearchDocument(product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getName(), product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                variants);
+    }
+
+    public static SearchDocument of(ProductSummary summary, List<VariantSummary> variants) {
+        return new SearchDocument(summary.getId(), summary.getCategoryId(), summary.getName(), summary.getDescription(),
+                summary.getCategoryName(), variants.stream()
+                .map(variant -> new Variant(variant.getName(), variant.getPrice(), variant.getStock()))
+                .toList());
+    }
+}
@@ -0,0 +1,57 @@
+package com.suryadeep.openshop.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms: runs of letters and digits, lower-cased and without accents,
+ * so "Café Crème" and "cafe creme" give the same terms. Indexed text and queries go through the same tokenizer.
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    /** Longer runs are not words anyone types, and would only bloat the term dictionary */
+    static final int MAX_TERM_LENGTH = 40;
+
+    private SearchTokenizer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Normalize text the way terms are stored: decomposed, without combining marks, lower case
+     * @param text Any text, may be null
+     * @return The normalized text, empty for null
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param text Any text, may be null
+     * @return The terms of the text in order, with repetitions
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(normalized.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,300 @@
+package com.suryadeep.openshop.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable typeahead index over product and category names, held in a few flat arrays instead of one
+ * object per name.
+ * <p>
+ * Every name is stored once as normalized UTF-8 (see SearchTokenizer) in one byte array, and once as shown
+ * in another. A name can be found by the start of any of its first {@value #MAX_WORDS} words, so it has an
+ * entry per word: the offset of that word in the byte array. Entries are sorted by the bytes from their
+ * offset to the end of the name, which puts all the entries starting with a prefix into one range, found
+ * with two binary searches. The best suggestions of a range are found by popularity, skipping blocks of
+ * {@value #BLOCK_SIZE} entries whose best popularity cannot make it into the results.
+ * <p>
+ * Lookups allocate only their results. Build a new index to change anything.
+ */
+public final class SuggestIndex {
+
+    public static final SuggestIndex EMPTY = new Builder().build();
+
+    static final int MAX_WORDS = 8;
+    static final int BLOCK_SIZE = 64;
+
+    public enum Type { PRODUCT, CATEGORY }
+
+    /**
+     * @param type What the name belongs to
+     * @param id The id of the product or category
+     * @param name The name as entered
+     */
+    public record Suggestion(Type type, long id, String name) {
+    }
+
+    // Per name
+    private final byte[] keys;
+    private final int[] keyStarts;
+    private final byte[] displays;
+    private final int[] displayStarts;
+    private final long[] ids;
+    private final BitSet categories;
+    private final int[] popularity;
+    // Per entry, in key order
+    private final int[] entryStarts;
+    private final int[] entryNames;
+    private final int[] blockBest;
+
+    private SuggestIndex(byte[] keys, int[] keyStarts, byte[] displays, int[] displayStarts, long[] ids,
+                         BitSet categories, int[] popularity, int[] entryStarts, int[] entryNames) {
+        this.keys = keys;
+        this.keyStarts = keyStarts;
+        this.displays = displays;
+        this.displayStarts = displayStarts;
+        this.ids = ids;
+        this.categories = categories;
+        this.popularity = popularity;
+        this.entryStarts = entryStarts;
+        this.entryNames = entryNames;
+        this.blockBest = new int[(entryStarts.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int entry = 0; entry < entryStarts.length; entry++) {
+            int block = entry / BLOCK_SIZE;
+            blockBest[block] = Math.max(blockBest[block], popularity[entryNames[entry]]);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Find the most popular names containing a word that starts with the text; with several words, the
+     * words have to follow each other in the name
+     * @param text What has been typed so far
+     * @param limit The maximum number of suggestions
+     * @return The suggestions, most popular first, ties alphabetically by the matching words
+     */
+    public List<Suggestion> suggest(String text, int limit) {
+        byte[] prefix = String.join(" ", SearchTokenizer.tokenize(text)).getBytes(StandardCharsets.UTF_8);
+        if (prefix.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int from = search(prefix, false);
+        int to = search(prefix, true);
+
+        // The best entries found so far, worst last; a name matched by two of its words is kept once
+        int[] best = new int[limit];
+        int found = 0;
+        int entry = from;
+        while (entry < to) {
+            int block = entry / BLOCK_SIZE;
+            int blockEnd = Math.min(to, (block + 1) * BLOCK_SIZE);
+            if (found == limit && blockBest[block] <= popularity[entryNames[best[found - 1]]]) {
+                entry = blockEnd;
+                continue;
+            }
+            for (; entry < blockEnd; entry++) {
+                found = offer(best, found, entry);
+            }
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int name = entryNames[best[i]];
+            suggestions.add(new Suggestion(categories.get(name) ? Type.CATEGORY : Type.PRODUCT, ids[name],
+                    new String(displays, displayStarts[name], displayStarts[name + 1] - displayStarts[name],
+                            StandardCharsets.UTF_8)));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return The number of names
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return The number of entries, one per indexed word
+     */
+    public int entries() {
+        return entryStarts.length;
+    }
+
+    private int offer(int[] best, int found, int entry) {
+        int name = entryNames[entry];
+        int score = popularity[name];
+        for (int i = 0; i < found; i++) {
+            if (entryNames[best[i]] == name) {
+                return found;
+            }
+        }
+        if (found == best.length && score <= popularity[entryNames[best[found - 1]]]) {
+            return found;
+        }
+        // Entries come in key order, so an equal score goes after the ones already there
+        int position = Math.min(found, best.length - 1);
+        while (position > 0 && popularity[entryNames[best[position - 1]]] < score) {
+            best[position] = best[position - 1];
+            position--;
+        }
+        best[position] = entry;
+        return Math.min(found + 1, best.length);
+    }
+
+    /**
+     * @param prefix The normalized prefix
+     * @param after False for the first entry starting with the prefix or sorting after it,
+     *              true for the first entry sorting after all those starting with it
+     * @return The index of that entry
+     */
+    private int search(byte[] prefix, boolean after) {
+        int low = 0;
+        int high = entryStarts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int start = entryStarts[middle];
+            int end = keyStarts[entryNames[middle] + 1];
+            int comparison = Arrays.compareUnsigned(keys, start, Math.min(end, start + prefix.length),
+                    prefix, 0, prefix.length);
+            if (comparison < 0 || after && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects the names of a new index. Not thread safe.
+     */
+    public static final class Builder {
+
+        private final GrowableBytes keys = new GrowableBytes();
+        private final GrowableBytes displays = new GrowableBytes();
+        private final GrowableInts keyStarts = new GrowableInts();
+        private final GrowableInts displayStarts = new GrowableInts();
+        private final GrowableInts entryStarts = new GrowableInts();
+        private final GrowableInts entryNames = new GrowableInts();
+        private final GrowableInts popularity = new GrowableInts();
+        private long[] ids = new long[16];
+        private final BitSet categories = new BitSet();
+        private int size;
+
+        private Builder() {
+            keyStarts.add(0);
+            displayStarts.add(0);
+        }
+
+        /**
+         * Add a name, skipped if it has no letters or digits
+         * @param type What the name belongs to
+         * @param id The id of the product or category
+         * @param name The name as entered
+         * @param popularity The higher, the earlier it is suggested
+         * @return This builder
+         */
+        public Builder add(Type type, long id, String name, long popularity) {
+            List<String> words = SearchTokenizer.tokenize(name);
+            if (words.isEmpty()) {
+                return this;
+            }
+            for (int i = 0; i < words.size(); i++) {
+                if (i > 0) {
+                    keys.add((byte) ' ');
+                }
+                if (i < MAX_WORDS) {
+                    entryStarts.add(keys.size);
+                    entryNames.add(size);
+                }
+                keys.add(words.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            keyStarts.add(keys.size);
+            displays.add(name.strip().getBytes(StandardCharsets.UTF_8));
+            displayStarts.add(displays.size);
+            this.popularity.add((int) Math.min(Integer.MAX_VALUE, Math.max(0, popularity)));
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            if (type == Type.CATEGORY) {
+                categories.set(size);
+            }
+            size++;
+            return this;
+        }
+
+        public SuggestIndex build() {
+            byte[] keyBytes = keys.toArray();
+            int[] keyStartArray = keyStarts.toArray();
+            int[] starts = entryStarts.toArray();
+            int[] names = entryNames.toArray();
+            Integer[] order = new Integer[starts.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.parallelSort(order, (a, b) -> Arrays.compareUnsigned(
+                    keyBytes, starts[a], keyStartArray[names[a] + 1],
+                    keyBytes, starts[b], keyStartArray[names[b] + 1]));
+            int[] sortedStarts = new int[order.length];
+            int[] sortedNames = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedStarts[i] = starts[order[i]];
+                sortedNames[i] = names[order[i]];
+            }
+            return new SuggestIndex(keyBytes, keyStartArray, displays.toArray(), displayStarts.toArray(),
+                    Arrays.copyOf(ids, size), (BitSet) categories.clone(), popularity.toArray(),
+                    sortedStarts, sortedNames);
+        }
+    }
+
+    private static final class GrowableBytes {
+
+        byte[] bytes = new byte[1024];
+        int size;
+
+        void add(byte value) {
+            ensure(1);
+            bytes[size++] = value;
+        }
+
+        void add(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+
+    private static final class GrowableInts {
+
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
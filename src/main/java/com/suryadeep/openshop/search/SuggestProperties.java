@@ -0,0 +1,21 @@
+package com.suryadeep.openshop.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Typeahead settings bound from the {@code search.suggest.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "search.suggest")
+public class SuggestProperties {
+
+    /** How often a changed catalog is looked for; the suggestions are rebuilt at most this often */
+    private Duration refreshInterval = Duration.ofSeconds(10);
+    /** The suggestions are rebuilt at least this often, to rank them by the latest order counts */
+    private Duration maxAge = Duration.ofMinutes(10);
+    /** The most suggestions a request can ask for */
+    private int maxResults = 20;
+}
@@ -0,0 +1,50 @@
+package com.suryadeep.openshop.security;
+
+import com.suryadeep.openshop.entity.User;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Holds the authenticated {@link User} entity for the duration of the current request.
+ * The JWT filter fills it when it loads the user, and the services read it back instead of
+ * running the same lookup again. Values are kept as request attributes, so they never outlive
+ * the request and nothing is stored outside of one.
+ */
+public final class CurrentUserContext {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserContext.class.getName() + ".USER";
+
+    private CurrentUserContext() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Get the user loaded earlier in this request
+     * @param email The email of the authenticated principal, used to make sure the stored user still matches
+     * @return The stored user, or empty if none was loaded or there is no current request
+     */
+    public static Optional<User> get(String email) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || email == null) {
+            return Optional.empty();
+        }
+        Object user = attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user instanceof User currentUser && email.equals(currentUser.getEmail())) {
+            return Optional.of(currentUser);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Store the user for the rest of the current request. Does nothing outside of a request.
+     * @param user The loaded user entity
+     */
+    public static void set(User user) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && user != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
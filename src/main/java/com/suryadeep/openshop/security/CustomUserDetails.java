@@ -13,16 +13,32 @@ import java.util.stream.Collectors;
 
 @Getter
 public class CustomUserDetails implements UserDetails {
+    private final Long id;
     private final String username;
     private final String password;
     private final Set<SimpleGrantedAuthority> authorities;
+    // The entity this principal was built from, reused by the services for the rest of the request
+    private final transient User user;
 
     public CustomUserDetails(User user) {
+        this.user = user;
+        this.id = user.getId();
         this.username = user.getEmail();
         this.password = user.getPassword();
         this.authorities = mapRolesToAuthorities(user.getRoles());
     }
 
+    /**
+     * Principal rebuilt from verified token claims, without a user entity or password.
+     */
+    public CustomUserDetails(Long id, String username, Set<SimpleGrantedAuthority> authorities) {
+        this.user = null;
+        this.id = id;
+        this.username = username;
+        this.password = null;
+        this.authorities = authorities;
+    }
+
     private Set<SimpleGrantedAuthority> mapRolesToAuthorities(Set<Role> roles) {
         return roles.stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_"+role.getRoleName().toUpperCase()))
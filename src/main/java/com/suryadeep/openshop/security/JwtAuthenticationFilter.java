@@ -3,6 +3,7 @@ package com.suryadeep.openshop.security;
 
 import com.suryadeep.openshop.service.JwtService;
 import com.suryadeep.openshop.util.MdcUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -48,14 +49,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String token = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(token);
+            // The token is parsed and its signature verified at most once; everything below works on the claims
+            final VerifiedToken verifiedToken = jwtService.verifyToken(token);
+            final Claims claims = verifiedToken.claims();
+            final String userEmail = claims.getSubject();
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (userEmail != null && authentication == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // In stateless principal mode the principal comes from the verified claims and no user is loaded
+                UserDetails userDetails = verifiedToken.principal();
+                if (userDetails == null) {
+                    userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                    if (userDetails instanceof CustomUserDetails customUserDetails) {
+                        CurrentUserContext.set(customUserDetails.getUser());
+                    }
+                }
 
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -0,0 +1,110 @@
+package com.suryadeep.openshop.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.cache.CacheNames;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Keeps the time each user last revoked their tokens, so issued JWTs can be revoked without a database lookup.
+ * A token is revoked when it was issued (its iat claim) no later than the user's last revocation.
+ * An entry only has to live as long as the tokens it rejects, so it expires one token lifetime after the
+ * revocation; a token issued after that is newer than the revocation anyway.
+ * <p>
+ * Revocations are published through the CacheInvalidationPublisher with the revocation time, so every node
+ * rejects the same tokens.
+ */
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private static final String KEY_SEPARATOR = ":";
+
+    private final long expirationTime;
+    private final CacheInvalidationPublisher publisher;
+    private final Clock clock;
+    private final Cache<String, Long> revokedAt;
+
+    public TokenRevocationRegistry(long expirationTime, CacheInvalidationPublisher publisher) {
+        this(expirationTime, publisher, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    TokenRevocationRegistry(long expirationTime, CacheInvalidationPublisher publisher, Clock clock, Ticker ticker) {
+        this.expirationTime = expirationTime;
+        this.publisher = publisher;
+        this.clock = clock;
+        this.revokedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expirationTime))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Get the issue time of a new token of the user. A JWT only keeps whole seconds, so a token issued in the
+     * second of a revocation is dated the next second, to stay newer than the revocation.
+     * @param username The user's email
+     * @return The time to put in the token's iat claim
+     */
+    public Date issueTime(String username) {
+        long now = clock.millis();
+        Long revoked = revokedAt.getIfPresent(username);
+        if (revoked != null && now / 1000 <= revoked / 1000) {
+            return new Date((revoked / 1000 + 1) * 1000);
+        }
+        return new Date(now);
+    }
+
+    /**
+     * Revoke every token issued to the user so far, on every node
+     * @param username The user's email
+     */
+    public void revokeAll(String username) {
+        long now = clock.millis();
+        record(username, now);
+        publisher.publish(CacheNames.TOKEN_REVOCATIONS, CacheInvalidation.Type.EVICT, now + KEY_SEPARATOR + username);
+        log.info("Revoked tokens for user: {}", username);
+    }
+
+    /**
+     * Apply a revocation published by another node
+     * @param invalidation The invalidation, ignored unless it is of CacheNames.TOKEN_REVOCATIONS
+     */
+    public void applyRemote(CacheInvalidation invalidation) {
+        if (!CacheNames.TOKEN_REVOCATIONS.equals(invalidation.cacheName())
+                || !(invalidation.key() instanceof String key)) {
+            return;
+        }
+        int separator = key.indexOf(KEY_SEPARATOR);
+        long time = Long.parseLong(key.substring(0, separator));
+        String username = key.substring(separator + KEY_SEPARATOR.length());
+        // Every token issued before an expired revocation has expired too
+        if (time > clock.millis() - expirationTime) {
+            record(username, time);
+            log.debug("Applied token revocation for user: {} from node {}", username, invalidation.origin());
+        }
+    }
+
+    /**
+     * Check whether a token has been revoked
+     * @param username The user's email
+     * @param issuedAt The token's iat claim, null if it has none
+     * @return true if the user revoked their tokens after this one was issued
+     */
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long revoked = revokedAt.getIfPresent(username);
+        if (revoked == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() <= revoked;
+    }
+
+    private void record(String username, long time) {
+        revokedAt.asMap().merge(username, time, Math::max);
+    }
+}
@@ -0,0 +1,13 @@
+package com.suryadeep.openshop.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * A bearer token whose signature has been checked, together with what was derived from it.
+ *
+ * @param claims    the verified claims
+ * @param principal the principal built from the claims in stateless principal mode, otherwise null
+ */
+public record VerifiedToken(Claims claims, UserDetails principal) {
+}
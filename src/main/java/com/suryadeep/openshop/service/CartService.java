@@ -1,5 +1,6 @@
 package com.suryadeep.openshop.service;
 
+import com.suryadeep.openshop.dto.request.CartBatchRequest;
 import com.suryadeep.openshop.dto.request.CartItemRequest;
 import com.suryadeep.openshop.dto.response.CartItemResponse;
 import com.suryadeep.openshop.dto.response.CartResponse;
@@ -10,4 +11,5 @@ public interface CartService {
     CartItemResponse addItemToCart(CartItemRequest cartItemRequest);
     void removeItemFromCart(Long cartItemId);
     CartItemResponse updateItemInCart(CartItemRequest cartItemRequest,Long cartItemId);
+    CartResponse applyBatch(CartBatchRequest batchRequest);
 }
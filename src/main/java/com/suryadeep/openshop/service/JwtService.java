@@ -1,5 +1,6 @@
 package com.suryadeep.openshop.service;
 
+import com.suryadeep.openshop.security.VerifiedToken;
 import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -10,6 +11,33 @@ public interface JwtService {
     String generateToken(UserDetails userDetails);
     String generateToken(Map<String, Object> extraClaims, UserDetails userDetails);
     boolean isTokenValid(String token, UserDetails userDetails);
+
+    /**
+     * Validates already verified claims against the user, without parsing the token again.
+     */
+    boolean isTokenValid(Claims claims, UserDetails userDetails);
     String extractUsername(String token);
     <T> T extractClaim(String token, Function<Claims, T> claimsResolver);
+
+    /**
+     * Parses the token and verifies its signature and expiration.
+     * Callers that need several claims should parse once here and work with the returned claims.
+     */
+    Claims extractAllClaims(String token);
+
+    /**
+     * Same as {@link #extractAllClaims(String)}, but also returns the principal derived from the claims.
+     * Verified tokens are cached until they expire, so repeated requests with the same token skip the
+     * signature check and claims parsing.
+     */
+    VerifiedToken verifyToken(String token);
+
+    /**
+     * Builds the principal straight from the token claims when stateless principals are enabled.
+     * Returns null when the mode is off or the token does not carry the required claims,
+     * in which case the caller loads the user as usual.
+     */
+    UserDetails extractUserDetails(Claims claims);
+
+    void revokeTokens(String username);
 }
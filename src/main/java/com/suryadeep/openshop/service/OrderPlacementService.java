@@ -0,0 +1,12 @@
+package com.suryadeep.openshop.service;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public interface OrderPlacementService {
+    OrderPlacementResponse placeOrder(OrderRequest orderRequest);
+    CompletableFuture<OrderPlacementResponse> getPlacement(String orderNumber, Duration wait);
+}
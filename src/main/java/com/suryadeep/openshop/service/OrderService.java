@@ -2,6 +2,8 @@ package com.suryadeep.openshop.service;
 
 import com.suryadeep.openshop.dto.request.OrderRequest;
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.dto.response.SliceResponse;
 import com.suryadeep.openshop.entity.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 
@@ -9,11 +11,15 @@ import java.util.List;
 
 public interface OrderService {
     OrderResponse createOrder(OrderRequest orderRequest);
+    OrderResponse createOrder(OrderRequest orderRequest, String orderNumber); // Preassigned number, see OrderPlacementService
     OrderResponse getOrder(Long orderId);
+    ResourceVersion getOrderVersion(Long orderId);
     List<OrderResponse> getUserOrders();
     List<OrderResponse> getUserOrdersByStatus(OrderStatus status);
     Page<OrderResponse> getOrdersByStatus(OrderStatus status, int page,int size); // Admin
     Page<OrderResponse> getOrders(int page,int size);
+    SliceResponse<OrderResponse> scrollOrders(String after, int size, boolean includeCount); // Admin
+    SliceResponse<OrderResponse> scrollOrdersByStatus(OrderStatus status, String after, int size, boolean includeCount); // Admin
     OrderResponse updateOrderStatus(Long orderId, OrderStatus newStatus); // Admin
     String cancelOrder(Long orderId);
 
@@ -2,6 +2,9 @@ package com.suryadeep.openshop.service;
 
 import com.suryadeep.openshop.dto.request.ProductRequest;
 import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.SliceResponse;
+import com.suryadeep.openshop.dto.response.SuggestionResponse;
+import com.suryadeep.openshop.search.ProductSearchQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 
@@ -19,4 +22,7 @@ public interface ProductService {
 
     Page<ProductResponse> findAllPaginated(int page,int size);
     Page<ProductResponse> findByCategoryPaginated(Long categoryId, int page, int size);
+    SliceResponse<ProductResponse> scrollProducts(Long categoryId, String after, int size, boolean includeCount);
+    Page<ProductResponse> searchProducts(ProductSearchQuery query, int page, int size);
+    List<SuggestionResponse> suggest(String text, int limit);
 }
@@ -1,11 +1,15 @@
 package com.suryadeep.openshop.service.implementation;
 
+import com.suryadeep.openshop.dto.request.CartBatchRequest;
+import com.suryadeep.openshop.dto.request.CartItemOperation;
 import com.suryadeep.openshop.dto.request.CartItemRequest;
 import com.suryadeep.openshop.dto.response.CartItemResponse;
 import com.suryadeep.openshop.dto.response.CartResponse;
 import com.suryadeep.openshop.entity.Cart;
 import com.suryadeep.openshop.entity.CartItem;
 import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.exception.InvalidCartOperationException;
 import com.suryadeep.openshop.exception.ResourceNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CartItemRepository;
@@ -16,8 +20,13 @@ import com.suryadeep.openshop.service.UserService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @AllArgsConstructor
@@ -31,6 +40,7 @@ public class CartServiceImpl implements CartService {
     private final CartItemRepository cartItemRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public CartResponse getCart() {
         User user = userService.getCurrentAuthenticatedUser();
         Cart cart = user.getCart();
@@ -104,4 +114,109 @@ public class CartServiceImpl implements CartService {
 
         return entityMapper.toCartItemResponse(cartItem);
     }
+
+    /**
+     * Applies the operations in order on the managed cart. The variants to add are loaded with one query and
+     * the items are indexed by id and by variant, so nothing scans the cart per operation. All inserts, updates
+     * and deletes are flushed together at commit, grouped into JDBC batches (hibernate.jdbc.batch_size).
+     * An invalid operation rolls back the whole batch.
+     */
+    @Override
+    @Transactional
+    public CartResponse applyBatch(CartBatchRequest batchRequest) {
+        User user = userService.getCurrentAuthenticatedUser();
+        Cart cart = user.getCart();
+        log.info("Applying {} cart operations for user with ID: {}", batchRequest.getOperations().size(), user.getId());
+
+        Map<Long, CartItem> itemsById = new HashMap<>();
+        Map<Long, CartItem> itemsByVariantId = new HashMap<>();
+        // Also covers variants removed and added back within the batch
+        Map<Long, Variant> variants = new HashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            itemsById.put(item.getId(), item);
+            itemsByVariantId.put(item.getVariant().getId(), item);
+            variants.put(item.getVariant().getId(), item.getVariant());
+        }
+        loadVariantsToAdd(batchRequest, variants);
+
+        for (CartItemOperation operation : batchRequest.getOperations()) {
+            switch (operation.getAction()) {
+                case ADD -> {
+                    requireQuantity(operation);
+                    CartItem item = itemsByVariantId.get(operation.getVariantId());
+                    if (item == null) {
+                        item = new CartItem();
+                        item.setCart(cart);
+                        item.setVariant(variants.get(operation.getVariantId()));
+                        cart.getCartItems().add(item);
+                        itemsByVariantId.put(operation.getVariantId(), item);
+                    }
+                    item.setQuantity(operation.getQuantity());
+                }
+                case UPDATE -> {
+                    requireQuantity(operation);
+                    findItem(operation, itemsById, itemsByVariantId).setQuantity(operation.getQuantity());
+                }
+                case REMOVE -> {
+                    CartItem item = findItem(operation, itemsById, itemsByVariantId);
+                    cart.getCartItems().remove(item);
+                    itemsByVariantId.remove(item.getVariant().getId());
+                    if (item.getId() != null) {
+                        itemsById.remove(item.getId());
+                    }
+                }
+            }
+        }
+
+        cartRepository.save(cart);
+        log.info("Applied cart operations, cart now has {} items", cart.getCartItems().size());
+        return entityMapper.toResponse(cart);
+    }
+
+    private void loadVariantsToAdd(CartBatchRequest batchRequest, Map<Long, Variant> variants) {
+        Set<Long> variantIds = new HashSet<>();
+        for (CartItemOperation operation : batchRequest.getOperations()) {
+            if (operation.getAction() == CartItemOperation.Action.ADD) {
+                if (operation.getVariantId() == null) {
+                    throw new InvalidCartOperationException("ADD needs a variantId");
+                }
+                if (!variants.containsKey(operation.getVariantId())) {
+                    variantIds.add(operation.getVariantId());
+                }
+            }
+        }
+        if (variantIds.isEmpty()) {
+            return;
+        }
+        for (Variant variant : variantRepository.findAllById(variantIds)) {
+            variants.put(variant.getId(), variant);
+        }
+        for (Long variantId : variantIds) {
+            if (!variants.containsKey(variantId)) {
+                throw new ResourceNotFoundException(String.format("Variant with ID %s not found", variantId));
+            }
+        }
+    }
+
+    private static CartItem findItem(CartItemOperation operation, Map<Long, CartItem> itemsById,
+                                     Map<Long, CartItem> itemsByVariantId) {
+        CartItem item;
+        if (operation.getCartItemId() != null) {
+            item = itemsById.get(operation.getCartItemId());
+        } else if (operation.getVariantId() != null) {
+            item = itemsByVariantId.get(operation.getVariantId());
+        } else {
+            throw new InvalidCartOperationException(operation.getAction() + " needs a cartItemId or a variantId");
+        }
+        if (item == null) {
+            throw new ResourceNotFoundException("Cart item not found");
+        }
+        return item;
+    }
+
+    private static void requireQuantity(CartItemOperation operation) {
+        if (operation.getQuantity() < 1) {
+            throw new InvalidCartOperationException("Quantity should be greater than 0");
+        }
+    }
 }
@@ -1,24 +1,30 @@
 package com.suryadeep.openshop.service.implementation;
 
+import com.suryadeep.openshop.cache.CacheInvalidator;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.RefreshAheadCache;
 import com.suryadeep.openshop.dto.request.CategoryRequest;
 import com.suryadeep.openshop.dto.response.CategoryResponse;
 import com.suryadeep.openshop.entity.Category;
 import com.suryadeep.openshop.exception.CategoryNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.search.ProductSearchIndexer;
+import com.suryadeep.openshop.search.ProductSuggester;
+import com.suryadeep.openshop.search.SuggestIndex;
 import com.suryadeep.openshop.service.CategoryService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @AllArgsConstructor
@@ -27,10 +33,17 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EntityMapper entityMapper;
+    private final CacheInvalidator cacheInvalidator;
+    private final RefreshAheadCache catalogCache;
+    private final ProductSearchIndexer searchIndexer;
+    private final ProductSuggester suggester;
 
     @Override
-    @Cacheable(value = "categories", key = "'allCategories'")
     public List<CategoryResponse> getAllCategories() {
+        return catalogCache.getOrLoad(CacheNames.ALL_CATEGORIES, this::loadAllCategories);
+    }
+
+    private List<CategoryResponse> loadAllCategories() {
         log.info("Fetching all categories");
         return categoryRepository.findAll().stream()
                 .map(entityMapper::toCategoryResponse)
@@ -38,6 +51,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "categories", key = "#id")
     public CategoryResponse getCategoryById(Long id) throws CategoryNotFoundException {
         log.info("Fetching category with ID: {}", id);
@@ -47,52 +61,67 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @CacheEvict(value = "categories", key = "'allCategories'")
     public CategoryResponse createCategory(CategoryRequest categoryRequest) {
         log.info("Creating new category: {}", categoryRequest.getName());
         Category category = entityMapper.toCategoryEntity(categoryRequest);
         category = categoryRepository.save(category);
+        suggester.nameChanged(SuggestIndex.Type.CATEGORY, category.getId());
+        cacheInvalidator.refresh(CacheNames.CATALOG, CacheNames.ALL_CATEGORIES);
+        cacheInvalidator.evictTag(CacheNames.CATEGORIES, CacheNames.PAGES_TAG);
         return entityMapper.toCategoryResponse(category);
     }
 
     @Override
     @Transactional
-    @Caching(
-        evict = {
-            @CacheEvict(value = "categories", key = "#categoryId"),
-            @CacheEvict(value = "categories", key = "'allCategories'")
-        }
-    )
+    @CacheEvict(value = "categories", key = "#categoryId")
     public CategoryResponse updateCategory(CategoryRequest categoryRequest, Long categoryId) throws CategoryNotFoundException {
         log.info("Updating category with ID: {}", categoryId);
         Category existingCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(CategoryNotFoundException::new);
+        boolean renamed = !Objects.equals(existingCategory.getName(), categoryRequest.getName());
         existingCategory.setName(categoryRequest.getName());
         existingCategory.setDescription(categoryRequest.getDescription());
         Category updatedCategory = categoryRepository.save(existingCategory);
+        if (renamed) {
+            // Products are found by their category's name too
+            searchIndexer.reindexCategory(categoryId);
+            suggester.nameChanged(SuggestIndex.Type.CATEGORY, categoryId);
+        }
+        evictListingCaches(categoryId);
         return entityMapper.toCategoryResponse(updatedCategory);
     }
 
     @Override
     @Transactional
-    @Caching(
-        evict = {
-            @CacheEvict(value = "categories", key = "#id"),
-            @CacheEvict(value = "categories", key = "'allCategories'")
-        }
-    )
+    @CacheEvict(value = "categories", key = "#id")
     public void deleteCategoryById(Long id) throws CategoryNotFoundException {
         log.info("Deleting category with ID: {}", id);
         Category category = categoryRepository.findById(id)
                 .orElseThrow(CategoryNotFoundException::new);
         categoryRepository.delete(category);
+        suggester.nameChanged(SuggestIndex.Type.CATEGORY, id);
+        evictListingCaches(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "categories", key = "'page_' + #page + '_size_' + #size")
     public Page<CategoryResponse> findAllPaginated(int page, int size) {
         log.info("Fetching all categories with pagination - page: {}, size: {}", page, size);
         return categoryRepository.findAll(PageRequest.of(page, size))
                 .map(entityMapper::toCategoryResponse);
     }
+
+    /**
+     * Refreshes the full lists and evicts the category pages and the product listings that show the category's name.
+     *
+     * @param categoryId the ID of the changed category
+     */
+    private void evictListingCaches(Long categoryId) {
+        cacheInvalidator.refresh(CacheNames.CATALOG, CacheNames.ALL_CATEGORIES);
+        cacheInvalidator.refresh(CacheNames.CATALOG, CacheNames.ALL_PRODUCTS);
+        cacheInvalidator.evictTag(CacheNames.CATEGORIES, CacheNames.PAGES_TAG);
+        cacheInvalidator.evictTag(CacheNames.PRODUCTS, CacheNames.PAGES_TAG);
+        cacheInvalidator.evictTag(CacheNames.PRODUCTS, CacheNames.categoryTag(categoryId));
+    }
 }
@@ -1,29 +1,79 @@
 package com.suryadeep.openshop.service.implementation;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.suryadeep.openshop.security.CustomUserDetails;
+import com.suryadeep.openshop.security.TokenRevocationRegistry;
+import com.suryadeep.openshop.security.VerifiedToken;
 import com.suryadeep.openshop.service.JwtService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class JwtServiceImpl implements JwtService {
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
-
-    @Value("${security.jwt.expiration-time}")
-    private long expirationTime;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
+    private final long expirationTime;
+    private final boolean statelessPrincipal;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    // Decoding the secret and building the parser are not free, so both are done once and shared.
+    // SecretKey and JwtParser are immutable and safe to use from any number of threads.
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // Clients reuse a token for its whole lifetime, so verified tokens are kept until their exp claim.
+    // Keys are digests of the token, so the cache never holds usable credentials.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtServiceImpl(
+            @Value("${security.jwt.secret-key}") String secretKey,
+            @Value("${security.jwt.expiration-time}") long expirationTime,
+            @Value("${security.jwt.stateless-principal:false}") boolean statelessPrincipal,
+            @Value("${security.jwt.cache.maximum-size:10000}") long cacheMaximumSize,
+            TokenRevocationRegistry tokenRevocationRegistry,
+            MeterRegistry meterRegistry
+    ) {
+        this.expirationTime = expirationTime;
+        this.statelessPrincipal = statelessPrincipal;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+    }
 
     // Generating Token
     @Override
@@ -42,8 +92,13 @@ public class JwtServiceImpl implements JwtService {
     // Validating Token
     @Override
     public boolean isTokenValid(String token,UserDetails userDetails) {
-        final String username = extractUsername(token);
-        boolean isValid = (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    @Override
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        boolean isValid = (username.equals(userDetails.getUsername())) && !isTokenExpired(claims) && !isTokenRevoked(claims);
         if (isValid) {
             log.debug("Token is valid for user: {}", username);
         } else {
@@ -63,12 +118,23 @@ public class JwtServiceImpl implements JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
+    @Override
+    public Claims extractAllClaims(String token) {
+        return verifyToken(token).claims();
+    }
+
+    @Override
+    public VerifiedToken verifyToken(String token) {
+        // Failed verifications throw and are therefore never cached
+        return verifiedTokens.get(digest(token), key -> {
+            Claims claims = parseClaims(token);
+            return new VerifiedToken(claims, extractUserDetails(claims));
+        });
+    }
+
+    private Claims parseClaims(String token) {
         try {
-            return Jwts
-                    .parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (Exception e) {
@@ -77,8 +143,73 @@ public class JwtServiceImpl implements JwtService {
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expirationDate = extractExpiration(token);
+    @Override
+    public UserDetails extractUserDetails(Claims claims) {
+        if (!statelessPrincipal) {
+            return null;
+        }
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            log.debug("Token for user: {} has no principal claims, falling back to a user lookup", claims.getSubject());
+            return null;
+        }
+        Set<SimpleGrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toSet());
+        return new CustomUserDetails(userId, claims.getSubject(), authorities);
+    }
+
+    @Override
+    public void revokeTokens(String username) {
+        tokenRevocationRegistry.revokeAll(username);
+    }
+
+    private boolean isTokenRevoked(Claims claims) {
+        boolean isRevoked = tokenRevocationRegistry.isRevoked(claims.getSubject(), claims.getIssuedAt());
+        if (isRevoked) {
+            log.debug("Token has been revoked for user: {}", claims.getSubject());
+        }
+        return isRevoked;
+    }
+
+    /**
+     * Expires a cached token exactly at its exp claim; reads and updates do not extend it.
+     */
+    private class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken verifiedToken, long currentTime) {
+            Date expiration = verifiedToken.claims().getExpiration();
+            long remainingMillis = expiration != null
+                    ? expiration.getTime() - System.currentTimeMillis()
+                    : expirationTime;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JDK is required to ship SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        Date expirationDate = claims.getExpiration();
         boolean isExpired = expirationDate.before(new Date());
         if (isExpired) {
             log.debug("Token is expired. Expiration date: {}", expirationDate);
@@ -86,33 +217,33 @@ public class JwtServiceImpl implements JwtService {
         return isExpired;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
     private String buildToken(
             Map<String,Object> extraClaims,
             UserDetails userDetails,
             long expiration
     ) {
-        Date issuedAt = new Date(System.currentTimeMillis());
-        Date expirationDate = new Date(System.currentTimeMillis() + expiration);
+        Date issuedAt = tokenRevocationRegistry.issueTime(userDetails.getUsername());
+        Date expirationDate = new Date(issuedAt.getTime() + expiration);
         log.debug("Building token for user: {}. Issued at: {}, Expires at: {}", 
                  userDetails.getUsername(), issuedAt, expirationDate);
 
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        if (userDetails instanceof CustomUserDetails customUserDetails && customUserDetails.getId() != null) {
+            // Lets the filter rebuild the principal from the token alone in stateless principal mode
+            claims.put(USER_ID_CLAIM, customUserDetails.getId());
+            claims.put(ROLES_CLAIM, customUserDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+        }
+
         return Jwts
                 .builder()
-                .claims(extraClaims)
+                .claims(claims)
                 .subject(userDetails.getUsername())
                 .issuedAt(issuedAt)
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
 }
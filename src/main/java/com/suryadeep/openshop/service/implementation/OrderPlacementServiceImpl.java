@@ -0,0 +1,91 @@
+package com.suryadeep.openshop.service.implementation;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+import com.suryadeep.openshop.entity.Cart;
+import com.suryadeep.openshop.entity.Order;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.exception.OrderQueueFullException;
+import com.suryadeep.openshop.exception.ResourceNotFoundException;
+import com.suryadeep.openshop.order.OrderPlacement;
+import com.suryadeep.openshop.order.OrderPlacementPipeline;
+import com.suryadeep.openshop.order.OrderPlacementProperties;
+import com.suryadeep.openshop.repository.AddressRepository;
+import com.suryadeep.openshop.repository.OrderRepository;
+import com.suryadeep.openshop.service.OrderPlacementService;
+import com.suryadeep.openshop.service.UserService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@AllArgsConstructor
+@Service
+@Transactional(readOnly = true)
+public class OrderPlacementServiceImpl implements OrderPlacementService {
+
+    private final UserService userService;
+    private final AddressRepository addressRepository;
+    private final OrderRepository orderRepository;
+    private final OrderPlacementPipeline pipeline;
+    private final OrderPlacementProperties properties;
+
+    private static final String PLACEMENT_NOT_FOUND_MSG = "Order %s not found";
+
+    /**
+     * Check what can be checked up front and queue the order. The cart is read again when the order is placed,
+     * so stock, and anything added to the cart meanwhile, is only settled then.
+     */
+    @Override
+    public OrderPlacementResponse placeOrder(OrderRequest orderRequest) {
+        User user = userService.getCurrentAuthenticatedUser();
+        Cart cart = user.getCart();
+        if (cart == null || cart.getCartItems().isEmpty()) {
+            log.error("Cart is empty. Cannot create an order.");
+            throw new IllegalStateException("Cart is empty. Cannot create an order.");
+        }
+        if (!addressRepository.existsById(orderRequest.getShippingAddressId())) {
+            throw new ResourceNotFoundException(String.format("Address with ID %s not found", orderRequest.getShippingAddressId()));
+        }
+
+        String orderNumber = Order.generateOrderId();
+        OrderPlacement placement = new OrderPlacement(orderNumber, user.getId(),
+                SecurityContextHolder.getContext().getAuthentication(), orderRequest);
+        if (!pipeline.submit(placement)) {
+            log.warn("Order queue is full, rejecting order of user {}", user.getId());
+            throw new OrderQueueFullException("Too many orders are being placed, please retry shortly");
+        }
+        log.info("Queued order {} for user {}", orderNumber, user.getId());
+        return OrderPlacementResponse.queued(orderNumber);
+    }
+
+    /**
+     * The outcome once it is known, or QUEUED if it is still unknown after waiting.
+     * Outcomes no longer retained in memory are looked up in the database, where only placed orders exist.
+     */
+    @Override
+    public CompletableFuture<OrderPlacementResponse> getPlacement(String orderNumber, Duration wait) {
+        Long userId = userService.getCurrentAuthenticatedUser().getId();
+        Optional<OrderPlacement> placement = pipeline.find(orderNumber)
+                .filter(queued -> queued.userId().equals(userId));
+        if (placement.isEmpty()) {
+            Long orderId = orderRepository.findIdByOrderNumberAndUserId(orderNumber, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(String.format(PLACEMENT_NOT_FOUND_MSG, orderNumber)));
+            return CompletableFuture.completedFuture(OrderPlacementResponse.placed(orderNumber, orderId));
+        }
+        CompletableFuture<OrderPlacementResponse> result = placement.get().result();
+        long waitMillis = Math.min(wait.toMillis(), properties.getMaxWait().toMillis());
+        if (result.isDone() || waitMillis <= 0) {
+            return CompletableFuture.completedFuture(result.getNow(OrderPlacementResponse.queued(orderNumber)));
+        }
+        // A copy, so the timeout does not complete the placement itself
+        return result.copy().completeOnTimeout(OrderPlacementResponse.queued(orderNumber), waitMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,31 +1,46 @@
 package com.suryadeep.openshop.service.implementation;
 
+import com.suryadeep.openshop.cache.CacheInvalidator;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.ProductStockInvalidator;
 import com.suryadeep.openshop.dto.request.OrderRequest;
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.dto.response.SliceResponse;
 import com.suryadeep.openshop.entity.*;
 import com.suryadeep.openshop.entity.enums.OrderStatus;
+import com.suryadeep.openshop.exception.InsufficientStockException;
 import com.suryadeep.openshop.exception.ResourceNotFoundException;
+import com.suryadeep.openshop.inventory.HotStockInventory;
 import com.suryadeep.openshop.mapper.OrderMapper;
 import com.suryadeep.openshop.repository.AddressRepository;
 import com.suryadeep.openshop.repository.CartRepository;
 import com.suryadeep.openshop.repository.OrderRepository;
+import com.suryadeep.openshop.repository.VariantRepository;
+import com.suryadeep.openshop.repository.projection.OrderVersion;
 import com.suryadeep.openshop.service.OrderService;
 import com.suryadeep.openshop.service.UserService;
+import com.suryadeep.openshop.util.CursorUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @AllArgsConstructor
@@ -38,12 +53,20 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final AddressRepository addressRepository;
+    private final VariantRepository variantRepository;
+    private final HotStockInventory hotStockInventory;
+    private final CacheInvalidator cacheInvalidator;
+    private final ProductStockInvalidator productStockInvalidator;
 
     private static final String ORDER_NOT_FOUND_MSG = "Order with ID %s not found";
 
     @Override
-    @CacheEvict(value = "orders", key = "'user_' + #root.target.getCurrentUserId()")
     public OrderResponse createOrder(OrderRequest orderRequest) {
+        return createOrder(orderRequest, null);
+    }
+
+    @Override
+    public OrderResponse createOrder(OrderRequest orderRequest, String orderNumber) {
         log.info("Creating order for user with shipping address ID: {}", orderRequest.getShippingAddressId());
 
         User user = userService.getCurrentAuthenticatedUser();
@@ -54,6 +77,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order order = new Order();
+        order.setOrderNumber(orderNumber);
         order.setUser(user);
         order.setPaymentMethod(orderRequest.getPaymentMethod());
         order.setOrderNotes(orderRequest.getOrderNotes());
@@ -87,17 +111,19 @@ public class OrderServiceImpl implements OrderService {
         Address shippingAddress = addressRepository.findById(orderRequest.getShippingAddressId())
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Address with ID %s not found", orderRequest.getShippingAddressId())));
         order.setShippingAddress(shippingAddress);
+        reserveStock(order.getOrderItems());
 
         Order savedOrder = orderRepository.save(order);
-        cart.setCartItems(new ArrayList<>(cart.getCartItems()));
         cart.getCartItems().clear();
         cartRepository.save(cart);
+        evictListingCaches(user.getId(), savedOrder.getStatus());
 
         log.info("Order created successfully with ID: {}", savedOrder.getId());
         return orderMapper.toResponse(savedOrder);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "#orderId")
     public OrderResponse getOrder(Long orderId) {
         log.info("Fetching order with ID: {}", orderId);
@@ -107,6 +133,17 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getOrderVersion(Long orderId) {
+        OrderVersion version = orderRepository.findVersionById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format(ORDER_NOT_FOUND_MSG, orderId)));
+        // lastUpdated is written in the JVM's zone by @UpdateTimestamp
+        return ResourceVersion.of(orderId + "." + version.getVersion(), version.getLastUpdated() != null
+                ? version.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant() : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "'user_' + #root.target.getCurrentUserId()")
     public List<OrderResponse> getUserOrders() {
         User user = userService.getCurrentAuthenticatedUser();
@@ -133,6 +170,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "'user_' + #root.target.getCurrentUserId() + '_status_' + #status")
     public List<OrderResponse> getUserOrdersByStatus(OrderStatus status) {
         User user = userService.getCurrentAuthenticatedUser();
@@ -144,6 +182,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "'status_' + #status + '_page_' + #page + '_size_' + #size")
     public Page<OrderResponse> getOrdersByStatus(OrderStatus status, int page, int size) {
         log.info("Fetching orders with status: {}, page: {}, and size: {}", status, page, size);
@@ -151,6 +190,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "'all_page_' + #page + '_size_' + #size")
     public Page<OrderResponse> getOrders(int page, int size) {
         log.info("Fetching orders with page: {} and size: {}", page, size);
@@ -158,12 +198,50 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "orders", key = "#orderId"),
-        @CacheEvict(value = "orders", key = "'user_' + #root.target.getUserIdFromOrder(#orderId)"),
-        @CacheEvict(value = "orders", key = "'all_page_0_size_10'")
-        // We evict the status-specific caches in the method body
-    })
+    @Transactional(readOnly = true)
+    public SliceResponse<OrderResponse> scrollOrders(String after, int size, boolean includeCount) {
+        log.info("Scrolling orders after cursor: {} with size: {}", after, size);
+        // One extra row tells whether another slice follows
+        Limit limit = Limit.of(size + 1);
+        List<Order> orders;
+        if (after == null) {
+            orders = orderRepository.findAllByOrderByOrderDateDescIdDesc(limit);
+        } else {
+            CursorUtil.DateTimeIdPosition position = CursorUtil.decodeDateTimeId(after);
+            orders = orderRepository.findAllBefore(position.dateTime(), position.id(), limit);
+        }
+        return toOrderSlice(orders, size, includeCount ? orderRepository.count() : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<OrderResponse> scrollOrdersByStatus(OrderStatus status, String after, int size, boolean includeCount) {
+        log.info("Scrolling orders with status: {} after cursor: {} with size: {}", status, after, size);
+        Limit limit = Limit.of(size + 1);
+        List<Order> orders;
+        if (after == null) {
+            orders = orderRepository.findByStatusOrderByOrderDateDescIdDesc(status, limit);
+        } else {
+            CursorUtil.DateTimeIdPosition position = CursorUtil.decodeDateTimeId(after);
+            orders = orderRepository.findByStatusBefore(status, position.dateTime(), position.id(), limit);
+        }
+        return toOrderSlice(orders, size, includeCount ? orderRepository.countByStatus(status) : null);
+    }
+
+    private SliceResponse<OrderResponse> toOrderSlice(List<Order> orders, int size, Long totalElements) {
+        boolean hasNext = orders.size() > size;
+        List<Order> slice = hasNext ? orders.subList(0, size) : orders;
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = slice.get(slice.size() - 1);
+            nextCursor = CursorUtil.encodeDateTimeId(last.getOrderDate(), last.getId());
+        }
+        List<OrderResponse> content = slice.stream().map(orderMapper::toResponse).toList();
+        return new SliceResponse<>(content, content.size(), hasNext, nextCursor, totalElements);
+    }
+
+    @Override
+    @CacheEvict(value = "orders", key = "#orderId")
     public OrderResponse updateOrderStatus(Long orderId, OrderStatus newStatus) {
         log.info("Updating order status for order ID: {} to {}", orderId, newStatus);
         Order order = orderRepository.findById(orderId)
@@ -179,31 +257,15 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(newStatus);
         orderRepository.save(order);
 
-        // Evict cache for old status if different from new status
-        if (oldStatus != null && !oldStatus.equals(newStatus)) {
-            log.debug("Order status changed from {} to {}. Evicting old status cache.", oldStatus, newStatus);
-            evictStatusCaches(oldStatus);
-
-            // Also evict user's status-specific order cache
-            Long userId = order.getUser().getId();
-            evictUserStatusCaches(userId, oldStatus);
-
-            // Evict cache for new status
-            evictStatusCaches(newStatus);
-            evictUserStatusCaches(userId, newStatus);
-        }
+        log.debug("Order status changed from {} to {}. Evicting order listings.", oldStatus, newStatus);
+        evictListingCaches(order.getUser() != null ? order.getUser().getId() : null, oldStatus, newStatus);
 
         log.info("Order status updated successfully for order ID: {}", orderId);
         return orderMapper.toResponse(order);
     }
 
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "orders", key = "#orderId"),
-        @CacheEvict(value = "orders", key = "'user_' + #root.target.getUserIdFromOrder(#orderId)"),
-        @CacheEvict(value = "orders", key = "'all_page_0_size_10'")
-        // We evict the status-specific caches in the method body
-    })
+    @CacheEvict(value = "orders", key = "#orderId")
     public String cancelOrder(Long orderId) {
         log.info("Cancelling order with ID: {}", orderId);
         Order order = orderRepository.findById(orderId)
@@ -223,19 +285,8 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
 
-        // Evict cache for old status
-        if (oldStatus != null && !oldStatus.equals(OrderStatus.CANCELLED)) {
-            log.debug("Order status changed from {} to CANCELLED. Evicting old status cache.", oldStatus);
-            evictStatusCaches(oldStatus);
-
-            // Also evict user's status-specific order cache
-            Long userId = order.getUser().getId();
-            evictUserStatusCaches(userId, oldStatus);
-
-            // Evict cache for CANCELLED status
-            evictStatusCaches(OrderStatus.CANCELLED);
-            evictUserStatusCaches(userId, OrderStatus.CANCELLED);
-        }
+        log.debug("Order status changed from {} to CANCELLED. Evicting order listings.", oldStatus);
+        evictListingCaches(order.getUser() != null ? order.getUser().getId() : null, oldStatus, OrderStatus.CANCELLED);
 
         log.info("Order canceled successfully with ID: {}", orderId);
         return "Order canceled successfully!";
@@ -248,6 +299,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "orders", key = "'invoice_' + #orderId")
     public byte[] downloadInvoice(Long orderId) {
         log.info("Downloading invoice for order with ID: {}", orderId);
@@ -270,43 +322,63 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Helper method to get the user ID from an order.
-     * Used for cache key generation.
-     * 
-     * @param orderId the ID of the order
-     * @return the ID of the user who placed the order
-     */
-    public Long getUserIdFromOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format(ORDER_NOT_FOUND_MSG, orderId)));
-        return order.getUser().getId();
-    }
-
-    /**
-     * Helper method to evict caches related to a specific order status.
-     * This is used when an order's status changes.
-     * 
-     * @param status the order status whose caches should be evicted
+     * Take the ordered quantities out of stock, or fail the whole checkout if any variant has too little left.
+     * Hot variants are reserved in memory first and given back if the checkout rolls back; their order items
+     * are marked stock-pending for HotStockFlusher. The others are reserved with conditional updates, which
+     * make concurrent checkouts of the last units safe without locking the variants up front; their products
+     * are dropped from the cache after commit, as a stock change rather than a catalog change (see
+     * ProductStockInvalidator). Cached listings keep the stock they were built with until the next catalog change.
      */
-    @CacheEvict(value = "orders", key = "'status_' + #status + '_page_0_size_10'")
-    public void evictStatusCaches(OrderStatus status) {
-        log.debug("Evicting caches for order status: {}", status);
-        // This method is annotated with @CacheEvict to evict the basic status cache for the first page
+    private void reserveStock(List<OrderItem> orderItems) {
+        Map<Long, Integer> hotQuantities = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : orderItems) {
+            Long variantId = item.getVariant().getId();
+            item.setStockPending(hotStockInventory.isHot(variantId));
+            (item.isStockPending() ? hotQuantities : quantities).merge(variantId, item.getQuantity(), Integer::sum);
+            if (!item.isStockPending()) {
+                productIds.add(item.getVariant().getProduct().getId());
+            }
+        }
 
-        // In a real-world scenario, you might want to be more sophisticated about which pages to evict
-        // For example, you could evict caches for multiple page sizes and page numbers
+        if (!hotQuantities.isEmpty()) {
+            List<Long> shortVariants = hotStockInventory.reserve(hotQuantities);
+            if (!shortVariants.isEmpty()) {
+                throw new InsufficientStockException(shortVariants);
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        hotStockInventory.release(hotQuantities);
+                    }
+                }
+            });
+        }
+        List<Long> shortVariants = variantRepository.reserveStock(quantities);
+        if (!shortVariants.isEmpty()) {
+            throw new InsufficientStockException(shortVariants);
+        }
+        productStockInvalidator.stockChanged(productIds);
     }
 
     /**
-     * Helper method to evict user-specific caches related to a specific order status.
-     * This is used when an order's status changes.
-     * 
-     * @param userId the ID of the user whose status-specific caches should be evicted
-     * @param status the order status whose caches should be evicted
+     * Evicts every cached order listing a change to an order can show up in:
+     * all pages of the admin listing, the lists of the order's user and the status listings.
+     *
+     * @param userId the ID of the user who placed the order
+     * @param statuses the statuses the order had before and after the change
      */
-    @CacheEvict(value = "orders", key = "'user_' + #userId + '_status_' + #status")
-    public void evictUserStatusCaches(Long userId, OrderStatus status) {
-        log.debug("Evicting user-specific caches for user ID: {} and order status: {}", userId, status);
-        // This method is annotated with @CacheEvict to evict the user's status-specific order cache
+    private void evictListingCaches(Long userId, OrderStatus... statuses) {
+        cacheInvalidator.evictTag(CacheNames.ORDERS, CacheNames.PAGES_TAG);
+        if (userId != null) {
+            cacheInvalidator.evictTag(CacheNames.ORDERS, CacheNames.userTag(userId));
+        }
+        for (OrderStatus status : statuses) {
+            if (status != null) {
+                cacheInvalidator.evictTag(CacheNames.ORDERS, CacheNames.statusTag(status));
+            }
+        }
     }
 }
@@ -1,7 +1,13 @@
 package com.suryadeep.openshop.service.implementation;
 
+import com.suryadeep.openshop.cache.CacheInvalidator;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.RefreshAheadCache;
 import com.suryadeep.openshop.dto.request.ProductRequest;
 import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.SliceResponse;
+import com.suryadeep.openshop.dto.response.SuggestionResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
 import com.suryadeep.openshop.entity.Category;
 import com.suryadeep.openshop.entity.Product;
 import com.suryadeep.openshop.entity.Variant;
@@ -10,19 +16,32 @@ import com.suryadeep.openshop.exception.ProductNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CategoryRepository;
 import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+import com.suryadeep.openshop.search.ProductSearchIndex;
+import com.suryadeep.openshop.search.ProductSearchIndexer;
+import com.suryadeep.openshop.search.ProductSearchQuery;
+import com.suryadeep.openshop.search.ProductSuggester;
+import com.suryadeep.openshop.search.SuggestIndex;
 import com.suryadeep.openshop.service.ProductService;
-import jakarta.transaction.Transactional;
+import com.suryadeep.openshop.util.CursorUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -32,12 +51,13 @@ public class ProductServiceImpl implements ProductService {
     private final EntityMapper entityMapper;
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final RefreshAheadCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSearchIndexer searchIndexer;
+    private final ProductSuggester suggester;
 
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "products", key = "'allProducts'"),
-        @CacheEvict(value = "products", key = "'category_' + #productRequest.categoryId", condition = "#productRequest.categoryId != null")
-    })
     public ProductResponse addProduct(ProductRequest productRequest)  {
         log.info("Adding new product: {}", productRequest.getName());
 
@@ -59,6 +79,9 @@ public class ProductServiceImpl implements ProductService {
             }
 
             Product savedProduct = productRepository.save(product);
+            searchIndexer.index(savedProduct);
+            suggester.nameChanged(SuggestIndex.Type.PRODUCT, savedProduct.getId());
+            evictListingCaches(category.getId());
             log.info("Successfully added product with ID: {}", savedProduct.getId());
             return entityMapper.toProductResponse(savedProduct);
         } catch (CategoryNotFoundException e) {
@@ -71,13 +94,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "products", key = "#id"),
-        @CacheEvict(value = "products", key = "'allProducts'"),
-        @CacheEvict(value = "products", key = "'category_' + #productRequest.categoryId", condition = "#productRequest.categoryId != null"),
-        @CacheEvict(value = "products", key = "'page_' + 0 + '_size_' + 10"),
-        @CacheEvict(value = "products", key = "'category_' + #productRequest.categoryId + '_page_' + 0 + '_size_' + 10", condition = "#productRequest.categoryId != null")
-    })
+    @CacheEvict(value = "products", key = "#id")
     public ProductResponse updateProduct(ProductRequest productRequest, Long id) {
         log.info("Updating product with ID: {}", id);
 
@@ -86,8 +103,9 @@ public class ProductServiceImpl implements ProductService {
                     .orElseThrow(ProductNotFoundException::new);
             log.debug("Found existing product: {}", existingProduct.getName());
 
-            // Store old category ID for cache eviction if category changes
+            // Listings of the old category have to go as well if the category changes
             Long oldCategoryId = existingProduct.getCategory() != null ? existingProduct.getCategory().getId() : null;
+            boolean renamed = !Objects.equals(existingProduct.getName(), productRequest.getName());
 
             existingProduct.setName(productRequest.getName());
             existingProduct.setDescription(productRequest.getDescription());
@@ -109,13 +127,11 @@ public class ProductServiceImpl implements ProductService {
             }
 
             Product updatedProduct = productRepository.save(existingProduct);
-
-            // If category changed, evict old category cache as well
-            if (oldCategoryId != null && !oldCategoryId.equals(productRequest.getCategoryId())) {
-                log.debug("Category changed from {} to {}. Evicting old category cache.", 
-                          oldCategoryId, productRequest.getCategoryId());
-                evictOldCategoryCaches(oldCategoryId);
+            searchIndexer.index(updatedProduct);
+            if (renamed) {
+                suggester.nameChanged(SuggestIndex.Type.PRODUCT, id);
             }
+            evictListingCaches(oldCategoryId, category.getId());
 
             log.info("Successfully updated product with ID: {}", updatedProduct.getId());
             return entityMapper.toProductResponse(updatedProduct);
@@ -130,6 +146,7 @@ public class ProductServiceImpl implements ProductService {
 
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "#productId")
     public ProductResponse getProduct(Long productId) {
         log.debug("Retrieving product with ID: {}", productId);
@@ -146,13 +163,7 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "products", key = "#productId"),
-        @CacheEvict(value = "products", key = "'allProducts'"),
-        @CacheEvict(value = "products", key = "'page_' + 0 + '_size_' + 10")
-        // We can't directly evict the category cache here because we need the category ID
-        // which we'll handle in the method body
-    })
+    @CacheEvict(value = "products", key = "#productId")
     public void deleteProduct(Long productId) {
         log.info("Deleting product with ID: {}", productId);
         try {
@@ -160,16 +171,13 @@ public class ProductServiceImpl implements ProductService {
                     .orElseThrow(ProductNotFoundException::new);
             log.debug("Found product to delete: {}", product.getName());
 
-            // Get category ID before deleting for potential cache eviction
+            // Get category ID before deleting for cache eviction
             Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
 
             productRepository.delete(product);
-
-            // Evict category cache if needed
-            if (categoryId != null) {
-                log.debug("Product was in category ID: {}. Evicting category cache.", categoryId);
-                evictOldCategoryCaches(categoryId);
-            }
+            searchIndexer.remove(productId);
+            suggester.nameChanged(SuggestIndex.Type.PRODUCT, productId);
+            evictListingCaches(categoryId);
 
             log.info("Successfully deleted product with ID: {}", productId);
         } catch (ProductNotFoundException e) {
@@ -182,33 +190,31 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * Helper method to evict caches related to a specific category.
-     * This is used when a product changes category or is deleted.
-     * 
-     * @param categoryId the ID of the category whose caches should be evicted
+     * Evicts every cached product listing a change to a product can show up in:
+     * the full list (refreshed rather than evicted), all pages of the unfiltered listing and
+     * all listings of the given categories.
+     *
+     * @param categoryIds the categories the product belonged to before and after the change
      */
-    @CacheEvict(value = "products", key = "'category_' + #categoryId")
-    public void evictOldCategoryCaches(Long categoryId) {
-        log.debug("Evicting caches for category ID: {}", categoryId);
-        // This method is annotated with @CacheEvict to evict the basic category cache
-
-        // Manually evict paginated category caches for the first few pages
-        // In a real-world scenario, you might want to be more sophisticated about which pages to evict
-        for (int page = 0; page < 5; page++) {
-            for (int size : new int[]{10, 20, 50}) {
-                String cacheKey = "'category_' + " + categoryId + " + '_page_' + " + page + " + '_size_' + " + size;
-                log.debug("Evicting cache with key: {}", cacheKey);
-                // Note: In a real implementation, you would use a CacheManager to evict these caches
-                // This is a placeholder for the actual implementation
+    private void evictListingCaches(Long... categoryIds) {
+        cacheInvalidator.refresh(CacheNames.CATALOG, CacheNames.ALL_PRODUCTS);
+        cacheInvalidator.evictTag(CacheNames.PRODUCTS, CacheNames.PAGES_TAG);
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                log.debug("Evicting product listings of category ID: {}", categoryId);
+                cacheInvalidator.evictTag(CacheNames.PRODUCTS, CacheNames.categoryTag(categoryId));
             }
         }
     }
 
     @Override
-    @Cacheable(value = "products", key = "'allProducts'")
     public List<ProductResponse> getAllProducts() {
+        return catalogCache.getOrLoad(CacheNames.ALL_PRODUCTS, this::loadAllProducts);
+    }
+
+    private List<ProductResponse> loadAllProducts() {
         log.debug("Retrieving all products");
-        List<Product> products = productRepository.findAll();
+        List<Product> products = productRepository.findAllWithDetails();
         List<ProductResponse> productResponses = new ArrayList<>();
         for(Product p : products){
             productResponses.add(entityMapper.toProductResponse(p));
@@ -218,11 +224,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'page_' + #page + '_size_' + #size")
     public Page<ProductResponse> findAllPaginated(int page,int size) {
         log.debug("Retrieving paginated products - page: {}, size: {}", page, size);
-        Page<ProductResponse> productResponses = productRepository.findAll(PageRequest.of(page,size))
-                .map(entityMapper::toProductResponse);
+        Page<ProductResponse> productResponses = toProductResponsePage(productRepository.findIds(PageRequest.of(page,size)));
         log.debug("Retrieved {} products (page {} of {})", 
                 productResponses.getNumberOfElements(), 
                 productResponses.getNumber() + 1, 
@@ -231,10 +237,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'category_' + #categoryId")
     public List<ProductResponse> getProductsByCategory(Long categoryId) {
         log.debug("Retrieving products for category ID: {}", categoryId);
-        List<Product> products = productRepository.findAllByCategoryId(categoryId);
+        List<Product> products = productRepository.findAllWithDetailsByCategoryId(categoryId);
         List<ProductResponse> productResponses = new ArrayList<>();
         for(Product p : products){
             productResponses.add(entityMapper.toProductResponse(p));
@@ -244,11 +251,12 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'category_' + #categoryId + '_page_' + #page + '_size_' + #size")
     public Page<ProductResponse> findByCategoryPaginated(Long categoryId, int page, int size) {
         log.debug("Retrieving paginated products for category ID: {} - page: {}, size: {}", categoryId, page, size);
-        Page<ProductResponse> productResponses = productRepository.findAllByCategoryId(categoryId, PageRequest.of(page, size))
-                .map(entityMapper::toProductResponse);
+        Page<ProductResponse> productResponses = toProductResponsePage(
+                productRepository.findIdsByCategoryId(categoryId, PageRequest.of(page, size)));
         log.debug("Retrieved {} products for category ID: {} (page {} of {})", 
                 productResponses.getNumberOfElements(), 
                 categoryId,
@@ -256,4 +264,98 @@ public class ProductServiceImpl implements ProductService {
                 productResponses.getTotalPages());
         return productResponses;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<ProductResponse> scrollProducts(Long categoryId, String after, int size, boolean includeCount) {
+        log.debug("Scrolling products for category ID: {} after cursor: {} with size: {}", categoryId, after, size);
+        long afterId = after != null ? CursorUtil.decodeId(after) : 0L;
+        // One extra id tells whether another slice follows
+        List<Long> ids = categoryId != null
+                ? productRepository.findIdsByCategoryIdAfter(categoryId, afterId, Limit.of(size + 1))
+                : productRepository.findIdsAfter(afterId, Limit.of(size + 1));
+        boolean hasNext = ids.size() > size;
+        List<Long> sliceIds = hasNext ? ids.subList(0, size) : ids;
+        String nextCursor = hasNext ? CursorUtil.encodeId(sliceIds.get(sliceIds.size() - 1)) : null;
+
+        Long totalElements = null;
+        if (includeCount) {
+            totalElements = categoryId != null ? productRepository.countByCategoryId(categoryId) : productRepository.count();
+        }
+        List<ProductResponse> content = toProductResponses(sliceIds);
+        log.debug("Retrieved {} products, has next: {}", content.size(), hasNext);
+        return new SliceResponse<>(content, content.size(), hasNext, nextCursor, totalElements);
+    }
+
+    /**
+     * Ranks the matching products in the search index and reads only the page asked for from the database.
+     * The index knows the stock as of the last change to the product, so with the in-stock filter the page
+     * is checked against the current stock: a product sold out since then is left out of the page,
+     * though still counted in the total.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponse> searchProducts(ProductSearchQuery query, int page, int size) {
+        log.debug("Searching products for '{}' - page: {}, size: {}", query.text(), page, size);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        ProductSearchIndex.Hits hits = searchIndex.search(query, (int) pageRequest.getOffset(), size);
+        List<ProductResponse> content = toProductResponses(hits.productIds());
+        if (query.filtersVariants()) {
+            content = content.stream()
+                    .filter(product -> product.getVariants().stream()
+                            .anyMatch(variant -> query.matches(variant.getPrice(), variant.getStockQuantity())))
+                    .toList();
+        }
+        log.debug("Found {} products for '{}'", hits.total(), query.text());
+        return new PageImpl<>(content, pageRequest, hits.total());
+    }
+
+    /**
+     * Answered from memory only, the suggestions lag catalog changes by up to the suggest refresh interval.
+     */
+    @Override
+    public List<SuggestionResponse> suggest(String text, int limit) {
+        return suggester.suggest(text, limit).stream()
+                .map(suggestion -> new SuggestionResponse(suggestion.type(), suggestion.id(), suggestion.name()))
+                .toList();
+    }
+
+    /**
+     * Builds the responses of an id page, see {@link #toProductResponses(List)}.
+     *
+     * @param idPage a page of product ids
+     * @return the page of product responses
+     */
+    private Page<ProductResponse> toProductResponsePage(Page<Long> idPage) {
+        return new PageImpl<>(toProductResponses(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    /**
+     * Reads the given products and their variants as projections and assembles the responses
+     * in the order of the ids. No entities are loaded, so nothing ends up in the persistence context.
+     *
+     * @param ids the product ids
+     * @return the product responses
+     */
+    private List<ProductResponse> toProductResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> summariesById = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        Map<Long, List<VariantResponse>> variantsByProductId = productRepository
+                .findVariantSummariesByProductIdIn(ids).stream()
+                .collect(Collectors.groupingBy(VariantSummary::getProductId,
+                        Collectors.mapping(entityMapper::toVariantResponse, Collectors.toList())));
+        // A product deleted between the queries is simply left out of the page
+        return ids.stream()
+                .map(summariesById::get)
+                .filter(Objects::nonNull)
+                .map(summary -> {
+                    ProductResponse productResponse = entityMapper.toProductResponse(summary);
+                    productResponse.setVariants(variantsByProductId.getOrDefault(summary.getId(), new ArrayList<>()));
+                    return productResponse;
+                })
+                .toList();
+    }
 }
@@ -9,6 +9,7 @@ import com.suryadeep.openshop.entity.User;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.AddressRepository;
 import com.suryadeep.openshop.repository.UserRepository;
+import com.suryadeep.openshop.security.CurrentUserContext;
 import com.suryadeep.openshop.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -32,6 +34,7 @@ public class UserServiceImpl implements UserService {
     private final EntityMapper entityMapper;
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "users", key = "#root.target.getCurrentAuthenticatedUserEmail()")
     public UserResponse getCurrentUser() {
         User user = getCurrentAuthenticatedUser();
@@ -55,6 +58,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "users", key = "'addresses_' + #root.target.getCurrentAuthenticatedUserEmail()")
     public List<AddressResponse> getAddressess() {
         User user = getCurrentAuthenticatedUser();
@@ -116,16 +120,22 @@ public class UserServiceImpl implements UserService {
         log.info("Address deleted successfully with ID: {} for user with ID: {}", id, user.getId());
     }
 
+    /**
+     * Returns the currently authenticated user. The entity loaded by the authentication filter is reused
+     * when it is available, so a request looks the user up at most once.
+     *
+     * @return the currently authenticated user
+     */
     public User getCurrentAuthenticatedUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-        if (userDetails == null) {
-            log.error("Principal cannot be null");
-            throw new IllegalStateException("Principal cannot be null");
+        String email = getCurrentAuthenticatedUserEmail();
+        Optional<User> currentUser = CurrentUserContext.get(email);
+        if (currentUser.isPresent()) {
+            return currentUser.get();
         }
-        User user = userRepository.findByEmail(userDetails.getUsername())
+        User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
         log.info("Fetching current authenticated user with ID: {}", user.getId());
+        CurrentUserContext.set(user);
         return user;
     }
 
@@ -0,0 +1,96 @@
+package com.suryadeep.openshop.util;
+
+import com.suryadeep.openshop.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Utility class for the opaque cursors used by keyset pagination.
+ * A cursor holds the sort key of the last row of a slice; the next slice starts right after it.
+ * Cursors are URL-safe Base64 so clients treat them as tokens and never build them by hand.
+ */
+public class CursorUtil {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Position after a row sorted by date and id
+     * @param dateTime The date of the row
+     * @param id The id of the row
+     */
+    public record DateTimeIdPosition(LocalDateTime dateTime, long id) {
+    }
+
+    /**
+     * Build a cursor for a listing sorted by id
+     * @param id The id of the last row returned
+     * @return The opaque cursor
+     */
+    public static String encodeId(long id) {
+        return encode(VERSION + SEPARATOR + id);
+    }
+
+    /**
+     * Read a cursor built by {@link #encodeId(long)}
+     * @param cursor The opaque cursor
+     * @return The id of the last row returned
+     */
+    public static long decodeId(String cursor) {
+        String[] parts = decode(cursor, 2);
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Build a cursor for a listing sorted by date and id
+     * @param dateTime The date of the last row returned
+     * @param id The id of the last row returned
+     * @return The opaque cursor
+     */
+    public static String encodeDateTimeId(LocalDateTime dateTime, long id) {
+        return encode(VERSION + SEPARATOR + dateTime + SEPARATOR + id);
+    }
+
+    /**
+     * Read a cursor built by {@link #encodeDateTimeId(LocalDateTime, long)}
+     * @param cursor The opaque cursor
+     * @return The position of the last row returned
+     */
+    public static DateTimeIdPosition decodeDateTimeId(String cursor) {
+        String[] parts = decode(cursor, 3);
+        try {
+            return new DateTimeIdPosition(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, int expectedParts) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        String[] parts = value.split("\\" + SEPARATOR);
+        if (parts.length != expectedParts || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,44 @@
+package com.suryadeep.openshop.util;
+
+import com.suryadeep.openshop.exception.InvalidPageRequestException;
+
+/**
+ * Utility class for checking the page and size parameters of listing endpoints before they reach a query.
+ * Sizes are capped so a single request cannot ask for the whole table.
+ */
+public class PageRequestUtil {
+
+    public static final int MAX_SIZE = 100;
+
+    private PageRequestUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Check the number of items asked for in a page or slice
+     * @param size The number of items
+     * @throws InvalidPageRequestException if size is not between 1 and {@link #MAX_SIZE}
+     */
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidPageRequestException("Size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * Check the page number and size of a paginated request
+     * @param page The zero-based page number
+     * @param size The number of items per page
+     * @throws InvalidPageRequestException if page is negative, size is out of range or the page starts
+     * beyond the largest offset
+     */
+    public static void checkPage(int page, int size) {
+        if (page < 0) {
+            throw new InvalidPageRequestException("Page must not be negative");
+        }
+        checkSize(size);
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new InvalidPageRequestException("Page is too large");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- Ids are allocated 50 at a time with Hibernate's pooled-lo optimizer (allocationSize = 50 on every entity,
+-- hibernate.id.optimizer.pooled.preferred=pooled-lo). pooled-lo reads the next sequence value as the first id
+-- of its block, so a sequence that was handing out ids one by one stays valid as it is: nothing already
+-- inserted can be handed out again.
+--
+-- MySQL has no sequences; Hibernate emulates each one with a table holding next_val and adds the allocation
+-- size itself, so a MySQL database needs no change.
+--
+-- Databases with native sequences (MariaDB, PostgreSQL, H2) must step by the allocation size, and Hibernate
+-- refuses to start while they do not. Apply once, with every node stopped: a node still running with
+-- allocationSize = 1 would hand out ids from the blocks of the upgraded ones.
+
+ALTER SEQUENCE address_seq INCREMENT BY 50;
+ALTER SEQUENCE cache_invalidation_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_item_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_seq INCREMENT BY 50;
+ALTER SEQUENCE category_seq INCREMENT BY 50;
+ALTER SEQUENCE image_seq INCREMENT BY 50;
+ALTER SEQUENCE order_item_seq INCREMENT BY 50;
+ALTER SEQUENCE order_seq INCREMENT BY 50;
+ALTER SEQUENCE product_seq INCREMENT BY 50;
+ALTER SEQUENCE role_seq INCREMENT BY 50;
+ALTER SEQUENCE variant_seq INCREMENT BY 50;
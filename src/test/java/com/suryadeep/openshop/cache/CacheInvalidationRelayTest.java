@@ -0,0 +1,105 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationRelayTest {
+
+    private final List<CacheInvalidation> published = new ArrayList<>();
+    private TaggedCache productsOnNodeA;
+    private TaggedCache productsOnNodeB;
+    private RefreshAheadCache catalogOnNodeA;
+    private RefreshAheadCache catalogOnNodeB;
+    private final AtomicInteger catalogLoads = new AtomicInteger();
+    private CacheInvalidationRelay relayA;
+    private CacheInvalidationRelay relayB;
+
+    @BeforeEach
+    void setUp() {
+        // Two nodes sharing one bus, each with its own caches
+        LoopbackCacheInvalidationBus bus = new LoopbackCacheInvalidationBus();
+        bus.subscribe(published::add);
+
+        relayA = new CacheInvalidationRelay(bus);
+        productsOnNodeA = taggedProducts(relayA);
+        catalogOnNodeA = new RefreshAheadCache(CacheNames.CATALOG, Caffeine.newBuilder().executor(Runnable::run), relayA);
+        relayA.applyTo(cacheManager(productsOnNodeA, catalogOnNodeA));
+
+        relayB = new CacheInvalidationRelay(bus);
+        productsOnNodeB = taggedProducts(relayB);
+        catalogOnNodeB = new RefreshAheadCache(CacheNames.CATALOG, Caffeine.newBuilder().executor(Runnable::run), relayB);
+        relayB.applyTo(cacheManager(productsOnNodeB, catalogOnNodeB));
+    }
+
+    @Test
+    void evict_OnOneNodeEvictsOnTheOther() {
+        productsOnNodeA.put(1L, "product on A");
+        productsOnNodeB.put(1L, "product on B");
+
+        productsOnNodeA.evict(1L);
+
+        assertNull(productsOnNodeA.get(1L));
+        assertNull(productsOnNodeB.get(1L));
+        // Node B applied the eviction without publishing it again
+        assertEquals(1, published.size());
+        assertEquals(new CacheInvalidation(published.get(0).origin(), CacheNames.PRODUCTS,
+                CacheInvalidation.Type.EVICT, 1L), published.get(0));
+    }
+
+    @Test
+    void evictTag_OnOneNodeEvictsTaggedEntriesOnTheOther() {
+        productsOnNodeB.put("category_1_page_0_size_10", "page");
+        productsOnNodeB.put("category_2_page_0_size_10", "other page");
+
+        productsOnNodeA.evictTag("category_1");
+
+        assertNull(productsOnNodeB.get("category_1_page_0_size_10"));
+        assertNotNull(productsOnNodeB.get("category_2_page_0_size_10"));
+        assertTrue(productsOnNodeB.keysTagged("category_1").isEmpty());
+    }
+
+    @Test
+    void refresh_OnOneNodeReloadsOnTheOther() {
+        catalogOnNodeB.getOrLoad(CacheNames.ALL_PRODUCTS, () -> "v" + catalogLoads.incrementAndGet());
+
+        catalogOnNodeA.refresh(CacheNames.ALL_PRODUCTS);
+
+        assertEquals("v2", catalogOnNodeB.getOrLoad(CacheNames.ALL_PRODUCTS, () -> "unused"));
+        assertEquals(2, catalogLoads.get());
+    }
+
+    @Test
+    void listeners_SeeLocalAndRemoteInvalidations() {
+        List<CacheInvalidation> seenOnA = new ArrayList<>();
+        List<CacheInvalidation> seenOnB = new ArrayList<>();
+        relayA.addListener(seenOnA::add);
+        relayB.addListener(seenOnB::add);
+
+        productsOnNodeA.evictTag("category_1");
+
+        assertEquals(1, seenOnA.size());
+        assertEquals(seenOnA, seenOnB);
+        assertEquals(CacheInvalidation.Type.EVICT_TAG, seenOnB.get(0).type());
+        assertEquals("category_1", seenOnB.get(0).key());
+    }
+
+    private static TaggedCache taggedProducts(CacheInvalidationPublisher publisher) {
+        return new TaggedCache(CacheNames.PRODUCTS, Caffeine.newBuilder().executor(Runnable::run),
+                CacheTagResolver.byKeyPattern("category_(\\d+)(_page_\\d+_size_\\d+)?", "category_$1"), publisher);
+    }
+
+    private static SimpleCacheManager cacheManager(TaggedCache products, RefreshAheadCache catalog) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(products, catalog));
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+}
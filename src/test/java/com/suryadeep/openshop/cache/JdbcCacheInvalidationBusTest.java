@@ -0,0 +1,91 @@
+package com.suryadeep.openshop.cache;
+
+import com.suryadeep.openshop.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+// The bus commits in its own transactions, so the test must not hold one open
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcCacheInvalidationBusTest {
+
+    @Autowired
+    private CacheInvalidationRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcCacheInvalidationBus nodeA;
+    private JdbcCacheInvalidationBus nodeB;
+    private final List<CacheInvalidation> receivedByB = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        // Not started, the test polls by hand
+        nodeA = bus(Duration.ofHours(1));
+        nodeB = bus(Duration.ofHours(1));
+        nodeB.subscribe(receivedByB::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        repository.deleteAll();
+    }
+
+    @Test
+    void poll_DeliversInvalidationsPublishedByAnotherNodeOnce() {
+        nodeA.publish(new CacheInvalidation("node-a", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 42L));
+        nodeA.publish(new CacheInvalidation("node-a", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT_TAG, "category_1"));
+        nodeA.publish(new CacheInvalidation("node-a", CacheNames.USERS, CacheInvalidation.Type.CLEAR, null));
+
+        assertEquals(3, nodeB.poll());
+        // Rows inside the lookback window are read again, but not delivered again
+        assertEquals(0, nodeB.poll());
+
+        assertEquals(List.of(
+                new CacheInvalidation("node-a", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 42L),
+                new CacheInvalidation("node-a", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT_TAG, "category_1"),
+                new CacheInvalidation("node-a", CacheNames.USERS, CacheInvalidation.Type.CLEAR, null)
+        ), receivedByB);
+    }
+
+    @Test
+    void publish_ClearsCacheForKeysThatCannotBeStored() {
+        nodeA.publish(new CacheInvalidation("node-a", CacheNames.ORDERS, CacheInvalidation.Type.EVICT, List.of(1, 2)));
+
+        nodeB.poll();
+
+        assertEquals(List.of(new CacheInvalidation("node-a", CacheNames.ORDERS, CacheInvalidation.Type.CLEAR, null)),
+                receivedByB);
+    }
+
+    @Test
+    void purge_DeletesRowsOlderThanRetention() {
+        JdbcCacheInvalidationBus noRetention = bus(Duration.ZERO);
+        nodeA.publish(new CacheInvalidation("node-a", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 1L));
+
+        assertEquals(1, noRetention.purge());
+        assertEquals(0, repository.count());
+        noRetention.close();
+    }
+
+    private JdbcCacheInvalidationBus bus(Duration retention) {
+        return new JdbcCacheInvalidationBus(repository, transactionManager,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), retention);
+    }
+}
@@ -0,0 +1,113 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductStockInvalidatorTest {
+
+    private final List<CacheInvalidation> published = new ArrayList<>();
+    private final CacheInvalidationBus bus = new LoopbackCacheInvalidationBus();
+    private TaggedCache products;
+    private ResponseBodyCache responses;
+    private ProductStockInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        bus.subscribe(published::add);
+        CacheInvalidationRelay relay = new CacheInvalidationRelay(bus);
+        products = new TaggedCache(CacheNames.PRODUCTS, Caffeine.newBuilder(), CacheTagResolver.byKeyPattern(
+                "page_\\d+_size_\\d+", CacheNames.PAGES_TAG), relay, CacheValueCodec.IDENTITY);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(products));
+        cacheManager.afterPropertiesSet();
+        relay.applyTo(cacheManager);
+        responses = new ResponseBodyCache(Caffeine.newBuilder().executor(Runnable::run),
+                Map.of("/api/products", CacheNames.PRODUCTS));
+        relay.addListener(responses::onInvalidation);
+        invalidator = new ProductStockInvalidator(cacheManager, responses, relay);
+        relay.addListener(invalidator::onInvalidation);
+    }
+
+    @Test
+    void stockChanged_DropsOnlyTheProductsAndTheirResponses() {
+        products.put(1L, "product 1");
+        products.put(2L, "product 2");
+        products.put("page_0_size_10", "listing");
+        putResponse("/api/products/1");
+        putResponse("/api/products/2");
+        putResponse("/api/products?page=0");
+
+        invalidator.stockChanged(Set.of(1L));
+
+        assertNull(products.get(1L));
+        assertNotNull(products.get(2L));
+        assertNotNull(products.get("page_0_size_10"));
+        assertNull(responses.get("/api/products/1"));
+        assertNotNull(responses.get("/api/products/2"));
+        assertNotNull(responses.get("/api/products?page=0"));
+        // Published as a stock change only, not as an eviction of the products cache
+        assertEquals(List.of(new CacheInvalidation(published.get(0).origin(), CacheNames.PRODUCT_STOCK,
+                CacheInvalidation.Type.EVICT, "1")), published);
+    }
+
+    @Test
+    void stockChanged_WaitsForCommit() {
+        products.put(1L, "product 1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            invalidator.stockChanged(Set.of(1L));
+            assertNotNull(products.get(1L));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(products.get(1L));
+    }
+
+    @Test
+    void onInvalidation_AppliesStockChangesOfOtherNodes() {
+        products.put(1L, "product 1");
+        products.put(2L, "product 2");
+        products.put(3L, "product 3");
+
+        bus.publish(new CacheInvalidation("other-node", CacheNames.PRODUCT_STOCK, CacheInvalidation.Type.EVICT, "1,3"));
+
+        assertNull(products.get(1L));
+        assertNotNull(products.get(2L));
+        assertNull(products.get(3L));
+    }
+
+    @Test
+    void keysOf_JoinsIdsUpToTheKeyLength() {
+        List<Long> ids = LongStream.rangeClosed(1_000_000_000L, 1_000_000_099L).boxed().toList();
+
+        List<String> keys = ProductStockInvalidator.keysOf(ids);
+
+        assertTrue(keys.size() > 1);
+        assertTrue(keys.stream().allMatch(key -> key.length() <= ProductStockInvalidator.MAX_KEY_LENGTH));
+        assertEquals(ids, keys.stream()
+                .flatMap(key -> List.of(key.split(ProductStockInvalidator.ID_SEPARATOR)).stream())
+                .map(Long::valueOf)
+                .collect(Collectors.toList()));
+    }
+
+    private void putResponse(String key) {
+        responses.put(key, responses.generation(key), "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
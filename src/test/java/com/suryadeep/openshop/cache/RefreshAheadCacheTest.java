@@ -0,0 +1,140 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshAheadCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Queue<Runnable> backgroundTasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean deferBackgroundTasks;
+    private RefreshAheadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Time only moves when the test says so, and background work is held back once deferred
+        cache = new RefreshAheadCache("catalog", Caffeine.newBuilder()
+                .executor(task -> {
+                    if (deferBackgroundTasks) {
+                        backgroundTasks.add(task);
+                    } else {
+                        task.run();
+                    }
+                })
+                .ticker(nanos::get)
+                .refreshAfterWrite(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void getOrLoad_LoadsOnceAndServesFromCache() {
+        assertEquals("v1", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals("v1", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getOrLoad_ServesStaleValueWhileReloadingAfterRefreshInterval() {
+        cache.getOrLoad("allProducts", this::nextVersion);
+        deferBackgroundTasks = true;
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // The read that finds the entry due starts one reload, every read until it completes gets the old value
+        assertEquals("v1", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals("v1", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals(1, backgroundTasks.size());
+
+        runBackgroundTasks();
+        assertEquals("v2", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void refresh_ReloadsCachedKeyOnly() {
+        cache.getOrLoad("allProducts", this::nextVersion);
+        deferBackgroundTasks = true;
+
+        cache.refresh("allProducts");
+        cache.refresh("allCategories");
+        assertEquals("v1", cache.getOrLoad("allProducts", this::nextVersion));
+
+        runBackgroundTasks();
+        assertEquals("v2", cache.getOrLoad("allProducts", this::nextVersion));
+        assertEquals(2, loads.get());
+        assertNull(cache.get("allCategories"));
+    }
+
+    @Test
+    void getOrLoad_SharesOneLoadBetweenConcurrentMisses() throws Exception {
+        RefreshAheadCache concurrentCache = new RefreshAheadCache("catalog", Caffeine.newBuilder());
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> concurrentCache.getOrLoad("allCategories", () -> {
+                    await(release);
+                    return nextVersion();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getOrLoad_RethrowsLoaderFailureAndRetriesOnNextRead() {
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<String> loader = () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalArgumentException("boom");
+            }
+            return nextVersion();
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getOrLoad("allProducts", loader));
+        assertEquals("v1", cache.getOrLoad("allProducts", loader));
+    }
+
+    private String nextVersion() {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private void runBackgroundTasks() {
+        Runnable task;
+        while ((task = backgroundTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
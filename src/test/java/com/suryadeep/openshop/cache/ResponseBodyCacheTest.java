@@ -0,0 +1,136 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.cache.ResponseBodyCache.CachedResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodyCacheTest {
+
+    private static final String JSON = "application/json";
+
+    private final ResponseBodyCache cache = new ResponseBodyCache(Caffeine.newBuilder().executor(Runnable::run),
+            Map.of("/api/products", CacheNames.PRODUCTS, "/api/categories", CacheNames.CATEGORIES));
+
+    @Test
+    void put_KeepsBodyWithStrongEtag() {
+        CachedResponse response = cache.put("/api/products", cache.generation("/api/products"), JSON, bytes("[]"));
+
+        assertSame(response, cache.get("/api/products"));
+        assertTrue(response.etag().matches("\"[0-9a-f]{32}\""));
+        // Too small to be worth compressing
+        assertNull(response.gzipped());
+        assertEquals(response.etag(), cache.put("/api/products?page=0", cache.generation("/api/products?page=0"), JSON, bytes("[]")).etag());
+        assertNotEquals(response.etag(), cache.put("/api/categories", cache.generation("/api/categories"), JSON, bytes("[1]")).etag());
+    }
+
+    @Test
+    void put_GzipsLargeBodies() {
+        CachedResponse response = cache.put("/api/products", cache.generation("/api/products"), JSON,
+                bytes("x".repeat(ResponseBodyCache.MIN_COMPRESSED_SIZE)));
+
+        assertNotNull(response.gzipped());
+        assertTrue(response.gzipped().length < response.body().length);
+        assertNotEquals(response.etag(), response.gzipEtag());
+    }
+
+    @Test
+    void put_AfterClearDoesNotKeepStaleBody() {
+        long generation = cache.generation("/api/products");
+        cache.clear();
+
+        CachedResponse response = cache.put("/api/products", generation, JSON, bytes("[]"));
+
+        assertNotNull(response);
+        assertNull(cache.get("/api/products"));
+    }
+
+    @Test
+    void put_AfterDropOfItsResourceDoesNotKeepStaleBody() {
+        long generation = cache.generation("/api/products/1");
+        long otherGeneration = cache.generation("/api/products/2");
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 1L));
+
+        cache.put("/api/products/1", generation, JSON, bytes("{}"));
+        cache.put("/api/products/2", otherGeneration, JSON, bytes("{}"));
+
+        assertNull(cache.get("/api/products/1"));
+        assertNotNull(cache.get("/api/products/2"));
+    }
+
+    @Test
+    void put_DoesNotKeepPathsWithoutSourceCache() {
+        cache.put("/api/orders/1", cache.generation("/api/orders/1"), JSON, bytes("{}"));
+
+        assertNull(cache.get("/api/orders/1"));
+    }
+
+    @Test
+    void onInvalidation_EvictionOfAnIdDropsOnlyThatResource() {
+        put("/api/products/1", "/api/products/01?fields=all", "/api/products/2", "/api/products?page=0",
+                "/api/categories/1");
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.ORDERS, CacheInvalidation.Type.CLEAR, null));
+        assertNotNull(cache.get("/api/products/1"));
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 1L));
+        assertNull(cache.get("/api/products/1"));
+        assertNull(cache.get("/api/products/01?fields=all"));
+        assertNotNull(cache.get("/api/products/2"));
+        assertNotNull(cache.get("/api/products?page=0"));
+        assertNotNull(cache.get("/api/categories/1"));
+    }
+
+    @Test
+    void onInvalidation_OtherEvictionsDropTheListingsOfTheirCache() {
+        put("/api/products/1", "/api/products?page=0", "/api/products/scroll?size=10", "/api/categories?page=0");
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT_TAG,
+                CacheNames.PAGES_TAG));
+
+        assertNull(cache.get("/api/products?page=0"));
+        assertNull(cache.get("/api/products/scroll?size=10"));
+        assertNotNull(cache.get("/api/products/1"));
+        assertNotNull(cache.get("/api/categories?page=0"));
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.CATEGORIES, CacheInvalidation.Type.EVICT,
+                "page_0_size_10"));
+        assertNull(cache.get("/api/categories?page=0"));
+    }
+
+    @Test
+    void onInvalidation_ClearDropsEverything() {
+        put("/api/products/1", "/api/categories?page=0");
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.CATEGORIES, CacheInvalidation.Type.CLEAR, null));
+
+        assertNull(cache.get("/api/products/1"));
+        assertNull(cache.get("/api/categories?page=0"));
+    }
+
+    @Test
+    void matches_ComparesEtagsWeakly() {
+        CachedResponse response = cache.put("/api/products", cache.generation("/api/products"), JSON, bytes("[]"));
+
+        assertTrue(response.matches(response.etag()));
+        assertTrue(response.matches("\"other\", W/" + response.etag()));
+        assertTrue(response.matches(response.gzipEtag()));
+        assertTrue(response.matches("*"));
+        assertFalse(response.matches("\"other\""));
+        assertFalse(response.matches(null));
+    }
+
+    private void put(String... keys) {
+        for (String key : keys) {
+            cache.put(key, cache.generation(key), JSON, bytes("{}"));
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
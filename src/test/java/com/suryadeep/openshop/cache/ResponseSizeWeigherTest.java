@@ -0,0 +1,82 @@
+package com.suryadeep.openshop.cache;
+
+import com.suryadeep.openshop.dto.response.CategoryResponse;
+import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseSizeWeigherTest {
+
+    private final ResponseSizeWeigher weigher = new ResponseSizeWeigher();
+
+    @Test
+    void weigh_ProductListOutweighsSingleCategory() {
+        CategoryResponse category = new CategoryResponse();
+        category.setId(1L);
+        category.setName("Shoes");
+        category.setDescription("Running and walking shoes");
+        List<ProductResponse> products = IntStream.range(0, 1000).mapToObj(this::product).toList();
+
+        int categoryWeight = weigher.weigh(1L, category);
+        int listWeight = weigher.weigh("allProducts", products);
+
+        assertTrue(categoryWeight > 0);
+        assertTrue(listWeight > 1000 * categoryWeight / 2,
+                "expected " + listWeight + " to be far more than " + categoryWeight);
+    }
+
+    @Test
+    void estimate_GrowsWithVariantsAndText() {
+        ProductResponse small = product(1);
+        ProductResponse large = product(1);
+        List<VariantResponse> variants = new ArrayList<>(large.getVariants());
+        variants.add(variant(2));
+        variants.add(variant(3));
+        large.setVariants(variants);
+        large.setDescription(large.getDescription().repeat(10));
+
+        assertTrue(weigher.estimate(large) > weigher.estimate(small));
+    }
+
+    @Test
+    void estimate_CountsPageContentAndRawBytes() {
+        List<ProductResponse> content = List.of(product(1), product(2));
+
+        assertTrue(weigher.estimate(new PageImpl<>(content)) >= weigher.estimate(content) - 64);
+        assertTrue(weigher.estimate(new byte[4096]) >= 4096);
+    }
+
+    @Test
+    void weigh_NullValueStillWeighsAtLeastOne() {
+        assertEquals(1, weigher.weigh(null, null));
+    }
+
+    private ProductResponse product(int id) {
+        ProductResponse product = new ProductResponse();
+        product.setId((long) id);
+        product.setName("Product " + id);
+        product.setDescription("A fairly typical product description for product " + id);
+        product.setEnabled(true);
+        product.setCategoryName("Shoes");
+        product.setImageUrls(List.of());
+        product.setVariants(List.of(variant(1)));
+        return product;
+    }
+
+    private VariantResponse variant(int id) {
+        VariantResponse variant = new VariantResponse();
+        variant.setId((long) id);
+        variant.setName("Size " + id);
+        variant.setPrice(BigDecimal.valueOf(1999, 2));
+        variant.setStockQuantity(10);
+        return variant;
+    }
+}
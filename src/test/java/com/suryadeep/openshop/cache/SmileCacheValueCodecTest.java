@@ -0,0 +1,119 @@
+package com.suryadeep.openshop.cache;
+
+import com.suryadeep.openshop.dto.response.AddressResponse;
+import com.suryadeep.openshop.dto.response.OrderItemResponse;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmileCacheValueCodecTest {
+
+    private final SmileCacheValueCodec codec = new SmileCacheValueCodec();
+
+    @Test
+    void roundTrip_ProductResponse() {
+        ProductResponse product = product(1L);
+
+        Object stored = codec.encode(product);
+        ProductResponse decoded = (ProductResponse) codec.decode(stored);
+
+        assertInstanceOf(SmileCacheValueCodec.Encoded.class, stored);
+        assertNotSame(product, decoded);
+        assertEquals("Product 1", decoded.getName());
+        assertTrue(decoded.isEnabled());
+        assertEquals(List.of("a.png"), decoded.getImageUrls());
+        assertEquals(2, decoded.getVariants().size());
+        assertEquals(new BigDecimal("499.99"), decoded.getVariants().get(1).getPrice());
+        assertEquals(7, decoded.getVariants().get(1).getStockQuantity());
+    }
+
+    @Test
+    void roundTrip_OrderResponseWithDatesAndNestedItems() {
+        OrderResponse order = new OrderResponse();
+        order.setId(5L);
+        order.setOrderDate(LocalDateTime.of(2025, 3, 1, 10, 15, 30));
+        order.setTotalPrice(new BigDecimal("1049.98"));
+        OrderItemResponse item = new OrderItemResponse();
+        item.setQuantity(2);
+        item.setVariant(product(1L).getVariants().get(0));
+        order.setItems(List.of(item));
+        AddressResponse address = new AddressResponse();
+        address.setCity("Hyderabad");
+        order.setShippingAddress(address);
+
+        OrderResponse decoded = (OrderResponse) codec.decode(codec.encode(order));
+
+        assertEquals(order.getOrderDate(), decoded.getOrderDate());
+        assertEquals(order.getTotalPrice(), decoded.getTotalPrice());
+        assertEquals(order.getShippingAddress(), decoded.getShippingAddress());
+        assertEquals(2, decoded.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("19.99"), decoded.getItems().get(0).getVariant().getPrice());
+    }
+
+    @Test
+    void roundTrip_ListAndPage() {
+        List<ProductResponse> list = List.of(product(1L), product(2L));
+        Page<ProductResponse> page = new PageImpl<>(list, PageRequest.of(3, 2), 40);
+
+        @SuppressWarnings("unchecked")
+        List<ProductResponse> decodedList = (List<ProductResponse>) codec.decode(codec.encode(list));
+        @SuppressWarnings("unchecked")
+        Page<ProductResponse> decodedPage = (Page<ProductResponse>) codec.decode(codec.encode(page));
+
+        assertEquals(List.of(1L, 2L), decodedList.stream().map(ProductResponse::getId).toList());
+        assertEquals(3, decodedPage.getNumber());
+        assertEquals(2, decodedPage.getSize());
+        assertEquals(40, decodedPage.getTotalElements());
+        assertEquals(2L, decodedPage.getContent().get(1).getId());
+    }
+
+    @Test
+    void encode_LeavesOtherValuesAsTheyAre() {
+        byte[] invoice = new byte[]{1, 2, 3};
+
+        assertSame(invoice, codec.encode(invoice));
+        assertSame(invoice, codec.decode(invoice));
+        assertEquals(List.of(), codec.encode(List.of()));
+        assertNull(codec.encode(null));
+        assertEquals("text", codec.encode("text"));
+    }
+
+    @Test
+    void encode_IsSmallerThanTheObjectGraphEstimate() {
+        ResponseSizeWeigher weigher = new ResponseSizeWeigher();
+        ProductResponse product = product(1L);
+
+        assertTrue(weigher.estimate(codec.encode(product)) < weigher.estimate(product));
+    }
+
+    private static ProductResponse product(Long id) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("A fairly typical product description for product " + id);
+        product.setEnabled(true);
+        product.setCategoryName("Electronics");
+        product.setImageUrls(List.of("a.png"));
+        product.setVariants(List.of(variant(1L, "19.99", 3), variant(2L, "499.99", 7)));
+        return product;
+    }
+
+    private static VariantResponse variant(Long id, String price, int stock) {
+        VariantResponse variant = new VariantResponse();
+        variant.setId(id);
+        variant.setName("Variant " + id);
+        variant.setPrice(new BigDecimal(price));
+        variant.setStockQuantity(stock);
+        return variant;
+    }
+}
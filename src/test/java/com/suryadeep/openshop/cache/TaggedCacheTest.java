@@ -0,0 +1,118 @@
+package com.suryadeep.openshop.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.dto.response.CategoryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaggedCacheTest {
+
+    private TaggedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Run Caffeine's maintenance, and so size evictions, on the calling thread
+        cache = new TaggedCache("products", Caffeine.newBuilder().executor(Runnable::run),
+                CacheTagResolver.byKeyPattern(
+                        "page_\\d+_size_\\d+", "pages",
+                        "category_(\\d+)(_page_\\d+_size_\\d+)?", "category_$1"));
+    }
+
+    @Test
+    void evictTag_EvictsEveryPageOfTheCategoryOnly() {
+        cache.put("category_1", "list");
+        cache.put("category_1_page_0_size_10", "page 0");
+        cache.put("category_1_page_7_size_50", "page 7");
+        cache.put("category_2_page_0_size_10", "other category");
+        cache.put("page_3_size_20", "unfiltered page");
+        cache.put(42L, "product");
+
+        assertEquals(3, cache.evictTag("category_1"));
+
+        assertNull(cache.get("category_1"));
+        assertNull(cache.get("category_1_page_0_size_10"));
+        assertNull(cache.get("category_1_page_7_size_50"));
+        assertNotNull(cache.get("category_2_page_0_size_10"));
+        assertNotNull(cache.get("page_3_size_20"));
+        assertNotNull(cache.get(42L));
+        assertTrue(cache.keysTagged("category_1").isEmpty());
+    }
+
+    @Test
+    void evict_RemovesKeyFromTagIndex() {
+        cache.put("page_0_size_10", "page 0");
+        cache.put("page_1_size_10", "page 1");
+
+        cache.evict("page_0_size_10");
+
+        assertEquals(Set.of("page_1_size_10"), cache.keysTagged("pages"));
+    }
+
+    @Test
+    void get_WithLoader_TracksLoadedKey() {
+        cache.get("page_0_size_10", () -> "loaded");
+
+        assertEquals(Set.of("page_0_size_10"), cache.keysTagged("pages"));
+        assertEquals(1, cache.evictTag("pages"));
+        assertNull(cache.get("page_0_size_10"));
+    }
+
+    @Test
+    void evictedEntries_LeaveTheIndex() {
+        TaggedCache bounded = new TaggedCache("products", Caffeine.newBuilder().executor(Runnable::run).maximumSize(1),
+                CacheTagResolver.byKeyPattern("page_\\d+_size_\\d+", "pages"));
+        bounded.put("page_0_size_10", "page 0");
+        bounded.put("page_1_size_10", "page 1");
+
+        bounded.getNativeCache().cleanUp();
+
+        assertEquals(bounded.getNativeCache().asMap().keySet(), bounded.keysTagged("pages"));
+        assertEquals(1, bounded.keysTagged("pages").size());
+    }
+
+    @Test
+    void evict_ThenPut_KeepsTheKeyIndexedOnTheDefaultExecutor() throws InterruptedException {
+        TaggedCache async = new TaggedCache("products", Caffeine.newBuilder(),
+                CacheTagResolver.byKeyPattern("category_(\\d+)(_page_\\d+_size_\\d+)?", "category_$1"));
+        for (int i = 0; i < 100; i++) {
+            String key = "category_1_page_" + i + "_size_10";
+            async.put(key, "stale");
+            async.evict(key);
+            async.put(key, "fresh");
+        }
+        // Whatever Caffeine still has queued for its executor has run
+        ForkJoinPool.commonPool().awaitQuiescence(5, TimeUnit.SECONDS);
+        async.getNativeCache().cleanUp();
+
+        assertEquals(100, async.evictTag("category_1"));
+        assertEquals(0, async.getNativeCache().estimatedSize());
+    }
+
+    @Test
+    void put_StoresEncodedValuesAndDecodesOnRead() {
+        TaggedCache serialized = new TaggedCache("orders", Caffeine.newBuilder(), CacheTagResolver.NONE,
+                CacheInvalidationPublisher.NONE, new SmileCacheValueCodec());
+        CategoryResponse category = new CategoryResponse();
+        category.setId(1L);
+        category.setName("Books");
+
+        serialized.put(1L, category);
+
+        assertInstanceOf(SmileCacheValueCodec.Encoded.class, serialized.getNativeCache().getIfPresent(1L));
+        assertEquals("Books", serialized.get(1L, CategoryResponse.class).getName());
+        assertEquals("Books", ((CategoryResponse) serialized.get(1L).get()).getName());
+        assertEquals("Books", serialized.get(1L, () -> category).getName());
+        assertEquals("Loaded", serialized.get(2L, () -> {
+            CategoryResponse loaded = new CategoryResponse();
+            loaded.setName("Loaded");
+            return loaded;
+        }).getName());
+        assertInstanceOf(SmileCacheValueCodec.Encoded.class, serialized.getNativeCache().getIfPresent(2L));
+    }
+}
@@ -0,0 +1,99 @@
+package com.suryadeep.openshop.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.suryadeep.openshop.cache.CacheInvalidationRelay;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.CacheSpec;
+import com.suryadeep.openshop.cache.CaffeineCacheProperties;
+import com.suryadeep.openshop.cache.TaggedCache;
+import com.suryadeep.openshop.cache.CaffeineStatsMeterBinderProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private CaffeineCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CaffeineCacheProperties();
+        properties.setMaximumSize(1000L);
+        properties.setExpireAfterAccess(Duration.ofMinutes(10));
+
+        CacheSpec products = new CacheSpec();
+        products.setMaximumWeight(DataSize.ofMegabytes(64));
+        CacheSpec orders = new CacheSpec();
+        orders.setExpireAfterWrite(Duration.ofMinutes(5));
+        orders.setSoftValues(true);
+        properties.setCaches(Map.of(CacheNames.PRODUCTS, products, CacheNames.ORDERS, orders));
+    }
+
+    @Test
+    void cacheManager_AppliesPerCacheSpecs() {
+        CacheManager cacheManager = cacheManager();
+
+        Policy<Object, Object> products = nativeCache(cacheManager, CacheNames.PRODUCTS).policy();
+        assertTrue(products.eviction().orElseThrow().isWeighted());
+        assertEquals(DataSize.ofMegabytes(64).toBytes(), products.eviction().orElseThrow().getMaximum());
+        assertTrue(products.expireAfterAccess().isPresent());
+
+        Policy<Object, Object> orders = nativeCache(cacheManager, CacheNames.ORDERS).policy();
+        assertFalse(orders.eviction().orElseThrow().isWeighted());
+        assertEquals(1000L, orders.eviction().orElseThrow().getMaximum());
+        assertTrue(orders.expireAfterWrite().isPresent());
+        assertFalse(orders.expireAfterAccess().isPresent());
+
+        Policy<Object, Object> users = nativeCache(cacheManager, CacheNames.USERS).policy();
+        assertEquals(1000L, users.eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(10), users.expireAfterAccess().orElseThrow().getExpiresAfter());
+    }
+
+    @Test
+    void cacheManager_RejectsRefreshWithoutLoader() {
+        CacheSpec categories = new CacheSpec();
+        categories.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.setCaches(Map.of(CacheNames.CATEGORIES, categories));
+
+        assertThrows(IllegalStateException.class, this::cacheManager);
+    }
+
+    @Test
+    void meterBinderProvider_ExportsCacheStatistics() {
+        TaggedCache cache = (TaggedCache) cacheManager().getCache(CacheNames.PRODUCTS);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CaffeineStatsMeterBinderProvider().getMeterBinder(cache, Tags.empty()).bindTo(registry);
+
+        cache.put(1L, "product");
+        cache.get(1L);
+        cache.get(2L);
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", CacheNames.PRODUCTS, "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", CacheNames.PRODUCTS, "result", "miss")
+                .functionCounter().count());
+    }
+
+    private CacheManager cacheManager() {
+        CacheConfig cacheConfig = new CacheConfig(properties);
+        CacheInvalidationRelay relay = cacheConfig.cacheInvalidationRelay(cacheConfig.loopbackCacheInvalidationBus());
+        SimpleCacheManager cacheManager = (SimpleCacheManager) cacheConfig.cacheManager(relay, cacheConfig.catalogCache(relay, ForkJoinPool.commonPool()));
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((TaggedCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
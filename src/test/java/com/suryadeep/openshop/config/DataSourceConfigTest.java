@@ -0,0 +1,108 @@
+package com.suryadeep.openshop.config;
+
+import com.suryadeep.openshop.datasource.ReadYourWrites;
+import com.suryadeep.openshop.entity.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The read pool points at a database of its own here, so each query tells which pool served it
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "datasource.read.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "datasource.read-your-writes.secret=secret"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DataSourceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DataSourceConfigTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void readOnlyTransaction_UsesReadPool() {
+        assertEquals("REPLICA", readOnly().execute(status -> databaseName()));
+    }
+
+    @Test
+    void readWriteTransaction_UsesWritePool() {
+        assertEquals("PRIMARY", transactionTemplate.execute(status -> databaseName()));
+    }
+
+    @Test
+    void transactionsOfOneEntityManager_AreRoutedSeparately() {
+        // One EntityManager for all transactions, as in a request passing the open-in-view filter
+        EntityManagerHolder holder = new EntityManagerHolder(entityManagerFactory.createEntityManager());
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, holder);
+        try {
+            assertEquals("REPLICA", readOnly().execute(status -> databaseName()));
+            assertEquals("PRIMARY", transactionTemplate.execute(status -> databaseName()));
+            assertEquals("REPLICA", readOnly().execute(status -> databaseName()));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            holder.getEntityManager().close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionAfterWrite_UsesWritePool() {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, () -> { })) {
+            // Flushed on commit, after the transaction's last statement of its own
+            transactionTemplate.executeWithoutResult(status -> {
+                Category category = new Category();
+                category.setName("Written");
+                entityManager.persist(category);
+            });
+
+            assertEquals("PRIMARY", readOnly().execute(status -> databaseName()));
+        }
+    }
+
+    @Test
+    void readOnlyTransactionAfterReadWriteTransactionThatOnlyRead_UsesReadPool() {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, () -> { })) {
+            transactionTemplate.execute(status -> databaseName());
+
+            assertEquals("REPLICA", readOnly().execute(status -> databaseName()));
+        }
+    }
+
+    @Test
+    void noTransaction_UsesWritePool() {
+        assertEquals("PRIMARY", jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private String databaseName() {
+        return (String) entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult();
+    }
+}
@@ -1,5 +1,7 @@
 package com.suryadeep.openshop.controller;
 
+import com.suryadeep.openshop.dto.request.CartBatchRequest;
+import com.suryadeep.openshop.dto.request.CartItemOperation;
 import com.suryadeep.openshop.dto.request.CartItemRequest;
 import com.suryadeep.openshop.dto.response.CartItemResponse;
 import com.suryadeep.openshop.dto.response.CartResponse;
@@ -12,6 +14,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -29,6 +33,19 @@ class CartControllerTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @Test
+    void testApplyCartBatch() {
+        CartBatchRequest batchRequest = new CartBatchRequest(List.of(
+                new CartItemOperation(CartItemOperation.Action.ADD, null, 1L, 2)));
+        CartResponse cartResponse = new CartResponse();
+        when(cartService.applyBatch(batchRequest)).thenReturn(cartResponse);
+
+        ResponseEntity<Object> response = cartController.applyCartBatch(batchRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cartResponse, response.getBody());
+    }
+
     @Test
     void testGetCart() {
         CartResponse cartResponse = new CartResponse();
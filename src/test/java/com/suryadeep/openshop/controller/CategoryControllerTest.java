@@ -11,11 +11,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 class CategoryControllerTest {
@@ -57,12 +61,32 @@ class CategoryControllerTest {
         CategoryResponse category = new CategoryResponse();
         category.setId(1L);
         category.setName("Category 1");
+        category.setVersion(0L);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
 
         when(categoryService.getCategoryById(1L)).thenReturn(category);
 
-        ResponseEntity<CategoryResponse> response = categoryController.getCategoryById(1L);
+        ResponseEntity<CategoryResponse> response = categoryController.getCategoryById(1L,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/categories/1"), servletResponse));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(category, response.getBody());
+        assertEquals("W/\"1.0\"", servletResponse.getHeader("ETag"));
+    }
+
+    @Test
+    void testGetCategoryByIdNotModified() {
+        CategoryResponse category = new CategoryResponse();
+        category.setId(1L);
+        category.setVersion(0L);
+        when(categoryService.getCategoryById(1L)).thenReturn(category);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/categories/1");
+        request.addHeader("If-None-Match", "W/\"1.0\"");
+
+        ResponseEntity<CategoryResponse> response = categoryController.getCategoryById(1L,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
     }
 }
@@ -1,19 +1,31 @@
 package com.suryadeep.openshop.controller;
 
 import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.filter.ReadYourWritesCookie;
+import com.suryadeep.openshop.service.OrderPlacementService;
 import com.suryadeep.openshop.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -22,9 +34,17 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderPlacementService orderPlacementService;
+
+    @Mock
+    private ReadYourWritesCookie readYourWritesCookie;
+
     @InjectMocks
     private OrderController orderController;
 
+    private static final Instant LAST_UPDATED = Instant.parse("2024-05-01T10:15:30Z");
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -43,17 +63,74 @@ class OrderControllerTest {
         assertEquals(orderResponse, responseEntity.getBody());
     }
 
+    @Test
+    void testPlaceOrder() {
+        OrderPlacementResponse placement = OrderPlacementResponse.queued("ORD-1");
+        when(orderPlacementService.placeOrder(any(OrderRequest.class))).thenReturn(placement);
+
+        ResponseEntity<Object> responseEntity = orderController.placeOrder(new OrderRequest());
+
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+        assertEquals("/api/orders/placements/ORD-1", responseEntity.getHeaders().getLocation().toString());
+        assertEquals(placement, responseEntity.getBody());
+    }
+
+    @Test
+    void testGetPlacementQueued() {
+        when(orderPlacementService.getPlacement("ORD-1", Duration.ofSeconds(20)))
+                .thenReturn(CompletableFuture.completedFuture(OrderPlacementResponse.queued("ORD-1")));
+
+        ResponseEntity<Object> responseEntity = orderController.getPlacement("ORD-1", 20).join();
+
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+    }
+
+    @Test
+    void testGetPlacementPlaced() {
+        OrderPlacementResponse placement = OrderPlacementResponse.placed("ORD-1", 42L);
+        when(orderPlacementService.getPlacement("ORD-1", Duration.ZERO))
+                .thenReturn(CompletableFuture.completedFuture(placement));
+        HttpHeaders cookie = new HttpHeaders();
+        cookie.add(HttpHeaders.SET_COOKIE, "primary_until=1.signature");
+        when(readYourWritesCookie.headers()).thenReturn(cookie);
+
+        ResponseEntity<Object> responseEntity = orderController.getPlacement("ORD-1", 0).join();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(placement, responseEntity.getBody());
+        assertEquals("primary_until=1.signature", responseEntity.getHeaders().getFirst(HttpHeaders.SET_COOKIE));
+    }
+
     @Test
     void testGetOrder() {
         Long orderId = 1L;
         OrderResponse orderResponse = new OrderResponse();
 
+        when(orderService.getOrderVersion(orderId)).thenReturn(ResourceVersion.of("1.2", LAST_UPDATED));
         when(orderService.getOrder(orderId)).thenReturn(orderResponse);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
 
-        ResponseEntity<Object> responseEntity = orderController.getOrder(orderId);
+        ResponseEntity<Object> responseEntity = orderController.getOrder(orderId,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/orders/1"), servletResponse));
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(orderResponse, responseEntity.getBody());
+        assertEquals(LAST_UPDATED.toEpochMilli(), servletResponse.getDateHeader("Last-Modified"));
+    }
+
+    @Test
+    void testGetOrderNotModifiedSince() {
+        Long orderId = 1L;
+        when(orderService.getOrderVersion(orderId)).thenReturn(ResourceVersion.of("1.2", LAST_UPDATED));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.addHeader("If-Modified-Since", LAST_UPDATED.toEpochMilli());
+
+        ResponseEntity<Object> responseEntity = orderController.getOrder(orderId,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+        verify(orderService, never()).getOrder(orderId);
     }
 
     @Test
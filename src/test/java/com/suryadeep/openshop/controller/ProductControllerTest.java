@@ -1,6 +1,13 @@
 package com.suryadeep.openshop.controller;
 
 import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.ResourceVersion;
+import com.suryadeep.openshop.dto.response.SliceResponse;
+import com.suryadeep.openshop.dto.response.SuggestionResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
+import com.suryadeep.openshop.exception.InvalidPageRequestException;
+import com.suryadeep.openshop.search.ProductSearchQuery;
+import com.suryadeep.openshop.search.SuggestIndex;
 import com.suryadeep.openshop.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +18,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ProductControllerTest {
@@ -49,13 +68,63 @@ class ProductControllerTest {
     @Test
     void testGetProductById() {
         Long productId = 1L;
-        ProductResponse productResponse = new ProductResponse();
+        ProductResponse productResponse = product(productId, 3L);
         when(productService.getProduct(productId)).thenReturn(productResponse);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
 
-        ResponseEntity<ProductResponse> response = productController.getProduct(productId);
+        ResponseEntity<ProductResponse> response = productController.getProduct(productId,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/products/1"), servletResponse));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productResponse, response.getBody());
+        assertEquals(ResourceVersion.of(productResponse).etag(), servletResponse.getHeader("ETag"));
+    }
+
+    @Test
+    void testGetProductNotModified() {
+        Long productId = 1L;
+        ProductResponse productResponse = product(productId, 3L);
+        when(productService.getProduct(productId)).thenReturn(productResponse);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.addHeader("If-None-Match", ResourceVersion.of(productResponse).etag());
+
+        ResponseEntity<ProductResponse> response = productController.getProduct(productId,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testGetProduct_StaleCachedResponseIsSentWithItsOwnEtag() {
+        Long productId = 1L;
+        ProductResponse stale = product(productId, 3L);
+        // The client already saw the response after the variant's stock changed, on another node
+        String newerEtag = ResourceVersion.of(product(productId, 4L)).etag();
+        when(productService.getProduct(productId)).thenReturn(stale);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.addHeader("If-None-Match", newerEtag);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<ProductResponse> response = productController.getProduct(productId,
+                new ServletWebRequest(request, servletResponse));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stale, response.getBody());
+        assertEquals(ResourceVersion.of(stale).etag(), servletResponse.getHeader("ETag"));
+        assertNotEquals(newerEtag, servletResponse.getHeader("ETag"));
+    }
+
+    private static ProductResponse product(Long id, Long variantVersion) {
+        VariantResponse variant = new VariantResponse();
+        variant.setId(10L);
+        variant.setVersion(variantVersion);
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setVersion(2L);
+        product.setCategoryVersion(0L);
+        product.setVariants(List.of(variant));
+        return product;
     }
 
     @Test
@@ -70,4 +139,57 @@ class ProductControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productPage, response.getBody());
     }
+
+    @Test
+    void testScrollProducts() {
+        SliceResponse<ProductResponse> slice = new SliceResponse<>(List.of(new ProductResponse()), 1, false, null, 1L);
+        when(productService.scrollProducts(null, "cursor", 10, true)).thenReturn(slice);
+
+        ResponseEntity<SliceResponse<ProductResponse>> response = productController.scrollProducts("cursor", 10, null, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(slice, response.getBody());
+    }
+
+    @Test
+    void testScrollProducts_RejectsSizeOutOfRange() {
+        assertThrows(InvalidPageRequestException.class, () -> productController.scrollProducts(null, 0, null, false));
+        assertThrows(InvalidPageRequestException.class, () -> productController.scrollProducts(null, 101, null, false));
+
+        verify(productService, never()).scrollProducts(any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void testSearchProducts() {
+        Page<ProductResponse> productPage = new PageImpl<>(List.of(new ProductResponse()));
+        ProductSearchQuery query = new ProductSearchQuery("blue shi", null, new BigDecimal("50"), true);
+        when(productService.searchProducts(query, 0, 20)).thenReturn(productPage);
+
+        ResponseEntity<Object> response = productController.searchProducts("blue shi", null, new BigDecimal("50"), true, 0, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(productPage, response.getBody());
+    }
+
+    @Test
+    void testSearchProducts_RejectsInvalidPaging() {
+        assertThrows(InvalidPageRequestException.class, () -> productController.searchProducts("shirt", null, null, false, -1, 10));
+        assertThrows(InvalidPageRequestException.class, () -> productController.searchProducts("shirt", null, null, false, 0, 0));
+        assertThrows(InvalidPageRequestException.class, () -> productController.searchProducts("shirt", null, null, false, 0, 101));
+        assertThrows(InvalidPageRequestException.class,
+                () -> productController.searchProducts("shirt", null, null, false, Integer.MAX_VALUE, 100));
+
+        verify(productService, never()).searchProducts(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSuggest() {
+        List<SuggestionResponse> suggestions = List.of(new SuggestionResponse(SuggestIndex.Type.PRODUCT, 7L, "Blue Shirt"));
+        when(productService.suggest("blue sh", 10)).thenReturn(suggestions);
+
+        ResponseEntity<List<SuggestionResponse>> response = productController.suggest("blue sh", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+    }
 }
@@ -1,6 +1,7 @@
 package com.suryadeep.openshop.controller.admin;
 
 import com.suryadeep.openshop.entity.enums.OrderStatus;
+import com.suryadeep.openshop.exception.InvalidPageRequestException;
 import com.suryadeep.openshop.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,8 +12,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.dto.response.SliceResponse;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class AdminOrderControllerTest {
@@ -73,4 +79,28 @@ class AdminOrderControllerTest {
         assertEquals(mockPage, response.getBody());
         verify(orderService, times(1)).getOrdersByStatus(status, page, size);
     }
+
+    @Test
+    void testScrollOrdersByStatus() {
+        SliceResponse<OrderResponse> slice = new SliceResponse<>(List.of(new OrderResponse()), 1, true, "cursor", null);
+        when(orderService.scrollOrdersByStatus(OrderStatus.PENDING, null, 10, false)).thenReturn(slice);
+
+        ResponseEntity<SliceResponse<OrderResponse>> response =
+                adminOrderController.scrollOrdersByStatus(OrderStatus.PENDING, null, 10, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(slice, response.getBody());
+        verify(orderService, times(1)).scrollOrdersByStatus(OrderStatus.PENDING, null, 10, false);
+    }
+
+    @Test
+    void testScrollOrders_RejectsSizeOutOfRange() {
+        assertThrows(InvalidPageRequestException.class, () -> adminOrderController.scrollOrders(null, 0, false));
+        assertThrows(InvalidPageRequestException.class,
+                () -> adminOrderController.scrollOrdersByStatus(OrderStatus.PENDING, null, 0, false));
+        assertThrows(InvalidPageRequestException.class, () -> adminOrderController.scrollOrders(null, 101, false));
+
+        verify(orderService, never()).scrollOrders(any(), anyInt(), anyBoolean());
+        verify(orderService, never()).scrollOrdersByStatus(any(), any(), anyInt(), anyBoolean());
+    }
 }
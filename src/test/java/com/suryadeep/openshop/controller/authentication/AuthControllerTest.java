@@ -16,7 +16,10 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -128,4 +131,29 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().string("Authentication failed - Bad credentials"));
     }
+
+    @Test
+    void testLogout_RevokesTokens() throws Exception {
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())));
+        try {
+            mockMvc.perform(post("/api/auth/logout"))
+                    .andExpect(status().isNoContent());
+
+            verify(jwtService, times(1)).revokeTokens(userDetails.getUsername());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void testLogout_Unauthenticated() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        mockMvc.perform(post("/api/auth/logout"))
+                .andExpect(status().isUnauthorized());
+
+        verify(jwtService, never()).revokeTokens(any());
+    }
 }
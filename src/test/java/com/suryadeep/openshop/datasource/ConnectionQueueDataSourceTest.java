@@ -0,0 +1,90 @@
+package com.suryadeep.openshop.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionQueueDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    void getConnection_WaitsForAConnectionToBeClosed() throws Exception {
+        ConnectionQueueDataSource dataSource = new ConnectionQueueDataSource(pool, 1, Duration.ofSeconds(10));
+        Connection first = dataSource.getConnection();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            while (dataSource.queued() == 0) {
+                Thread.onSpinWait();
+            }
+            assertFalse(second.isDone());
+
+            first.close();
+
+            assertNotNull(second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, dataSource.queued());
+        }
+        verify(((ConnectionProxy) first).getTargetConnection()).close();
+    }
+
+    @Test
+    void getConnection_TimesOutWhileAllConnectionsAreInUse() throws SQLException {
+        ConnectionQueueDataSource dataSource = new ConnectionQueueDataSource(pool, 1, Duration.ofMillis(10));
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void close_ReturnsThePermitOnce() throws SQLException {
+        ConnectionQueueDataSource dataSource = new ConnectionQueueDataSource(pool, 1, Duration.ofMillis(10));
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void getConnection_PoolFailure_ReturnsThePermit() throws SQLException {
+        ConnectionQueueDataSource dataSource = new ConnectionQueueDataSource(pool, 1, Duration.ofMillis(10));
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("Connection refused"))
+                .thenAnswer(invocation -> mock(Connection.class));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertNotNull(dataSource.getConnection());
+    }
+}
@@ -0,0 +1,136 @@
+package com.suryadeep.openshop.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two H2 databases stand in for the pools, each answering with its own name
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReadWriteRoutingDataSource(database("write"), database("read"));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS item (id INT)");
+    }
+
+    @Test
+    void readOnlyTransaction_UsesReadPool() {
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals("READ", transactionTemplate.execute(status -> databaseName()));
+    }
+
+    @Test
+    void readWriteTransaction_UsesWritePool() {
+        assertEquals("WRITE", transactionTemplate.execute(status -> databaseName()));
+    }
+
+    @Test
+    void readOnlyTransactionAfterWrite_UsesWritePool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        AtomicInteger cookies = new AtomicInteger();
+
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, cookies::incrementAndGet)) {
+            assertEquals("READ", readOnly.execute(status -> databaseName()));
+            transactionTemplate.execute(status -> jdbcTemplate.update("INSERT INTO item VALUES (?)", 1));
+            assertEquals("WRITE", readOnly.execute(status -> databaseName()));
+        }
+
+        assertEquals(1, cookies.get());
+        assertEquals(1, routing.routed(ReadWriteRoutingDataSource.Reason.READ_ONLY));
+        assertEquals(1, routing.routed(ReadWriteRoutingDataSource.Reason.READ_WRITE));
+        assertEquals(1, routing.routed(ReadWriteRoutingDataSource.Reason.RECENT_WRITE));
+    }
+
+    @Test
+    void readOnlyTransactionAfterPlainStatementWrite_UsesWritePool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, () -> { })) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute("/* cleanup */ DELETE FROM item"));
+            assertEquals("WRITE", readOnly.execute(status -> databaseName()));
+        }
+    }
+
+    @Test
+    void readOnlyTransactionAfterReadWriteTransactionThatOnlyRead_UsesReadPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        AtomicInteger cookies = new AtomicInteger();
+
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, cookies::incrementAndGet)) {
+            assertEquals("WRITE", transactionTemplate.execute(status -> databaseName()));
+            assertEquals("READ", readOnly.execute(status -> databaseName()));
+        }
+
+        assertEquals(0, cookies.get());
+    }
+
+    @Test
+    void readOnlyTransactionAfterRolledBackWrite_UsesReadPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(false, () -> { })) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO item VALUES (?)", 2);
+                status.setRollbackOnly();
+            });
+            assertEquals("READ", readOnly.execute(status -> databaseName()));
+        }
+    }
+
+    @Test
+    void isWrite_LooksAtTheFirstKeyword() {
+        assertTrue(ReadWriteRoutingDataSource.isWrite("insert into item values (1)"));
+        assertTrue(ReadWriteRoutingDataSource.isWrite("  /* comment */ UPDATE item SET id = 2"));
+        assertFalse(ReadWriteRoutingDataSource.isWrite("select id from item for update"));
+        assertFalse(ReadWriteRoutingDataSource.isWrite("/* update */ select 1"));
+        assertFalse(ReadWriteRoutingDataSource.isWrite(""));
+    }
+
+    @Test
+    void readOnlyTransactionOfRecentWriter_UsesWritePool() {
+        transactionTemplate.setReadOnly(true);
+
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open(true, () -> { })) {
+            assertEquals("WRITE", transactionTemplate.execute(status -> databaseName()));
+        }
+        assertEquals("READ", transactionTemplate.execute(status -> databaseName()));
+    }
+
+    @Test
+    void noTransaction_UsesWritePool() {
+        assertEquals("WRITE", databaseName());
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
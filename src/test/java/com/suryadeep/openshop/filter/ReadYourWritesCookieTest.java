@@ -0,0 +1,74 @@
+package com.suryadeep.openshop.filter;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesCookieTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:15:30Z");
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final ReadYourWritesCookie cookie = cookieAt(NOW);
+
+    @Test
+    void issue_IsValidUntilWindowEnds() {
+        ResponseCookie issued = cookie.issue();
+
+        assertEquals(ReadYourWritesCookie.NAME, issued.getName());
+        assertEquals(WINDOW, issued.getMaxAge());
+        assertTrue(issued.isHttpOnly());
+        assertTrue(cookie.isValid(sent(issued)));
+        assertTrue(cookieAt(NOW.plusSeconds(4)).isValid(sent(issued)));
+        assertFalse(cookieAt(NOW.plusSeconds(5)).isValid(sent(issued)));
+    }
+
+    @Test
+    void isValid_RejectsExtendedWindow() {
+        String signature = cookie.issue().getValue().split("\\.")[1];
+        long later = NOW.plusSeconds(3600).toEpochMilli();
+
+        assertFalse(cookie.isValid(new Cookie(ReadYourWritesCookie.NAME, later + "." + signature)));
+    }
+
+    @Test
+    void isValid_RejectsCookieSignedWithAnotherSecret() {
+        ReadYourWritesCookie otherNode = new ReadYourWritesCookie(true, "another-secret", WINDOW,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertFalse(cookie.isValid(sent(otherNode.issue())));
+    }
+
+    @Test
+    void isValid_RejectsMalformedValues() {
+        assertFalse(cookie.isValid(null));
+        assertFalse(cookie.isValid(new Cookie(ReadYourWritesCookie.NAME, "")));
+        assertFalse(cookie.isValid(new Cookie(ReadYourWritesCookie.NAME, "1714558535000")));
+        assertFalse(cookie.isValid(new Cookie(ReadYourWritesCookie.NAME, "soon.signature")));
+    }
+
+    @Test
+    void disabled_SetsNoCookie() {
+        ReadYourWritesCookie disabled = new ReadYourWritesCookie(false, null, WINDOW, Clock.systemUTC());
+
+        assertTrue(disabled.headers().isEmpty());
+        assertFalse(disabled.isValid(sent(cookie.issue())));
+        assertNotNull(cookie.headers().getFirst(HttpHeaders.SET_COOKIE));
+    }
+
+    private static ReadYourWritesCookie cookieAt(Instant now) {
+        return new ReadYourWritesCookie(true, "secret", WINDOW, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Cookie sent(ResponseCookie issued) {
+        return new Cookie(issued.getName(), issued.getValue());
+    }
+}
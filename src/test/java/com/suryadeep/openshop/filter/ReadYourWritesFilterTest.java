@@ -0,0 +1,66 @@
+package com.suryadeep.openshop.filter;
+
+import com.suryadeep.openshop.datasource.ReadYourWrites;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesCookie cookie =
+            new ReadYourWritesCookie(true, "secret", Duration.ofSeconds(5), Clock.systemUTC());
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(cookie);
+
+    @Test
+    void write_SetsCookieOnceAndPinsLaterReads() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinnedBefore = new AtomicBoolean(true);
+        AtomicBoolean pinnedAfter = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                pinnedBefore.set(ReadYourWrites.readsFromPrimary());
+                ReadYourWrites.written();
+                ReadYourWrites.written();
+                pinnedAfter.set(ReadYourWrites.readsFromPrimary());
+            }
+        });
+
+        assertFalse(pinnedBefore.get());
+        assertTrue(pinnedAfter.get());
+        assertEquals(1, response.getHeaders(HttpHeaders.SET_COOKIE).size());
+        assertFalse(ReadYourWrites.readsFromPrimary());
+    }
+
+    @Test
+    void validCookie_PinsReads() throws Exception {
+        ResponseCookie issued = cookie.issue();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.setCookies(new Cookie(issued.getName(), issued.getValue()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                pinned.set(ReadYourWrites.readsFromPrimary());
+            }
+        });
+
+        assertTrue(pinned.get());
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+}
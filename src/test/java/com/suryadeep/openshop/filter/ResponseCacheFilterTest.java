@@ -0,0 +1,205 @@
+package com.suryadeep.openshop.filter;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.ResponseBodyCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private static final String LARGE_JSON = "[" + "{\"name\":\"product\"},".repeat(100) + "{}]";
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private ResponseBodyCache cache;
+    private ResponseCacheFilter filter;
+    private int status;
+    private String body;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseBodyCache(Caffeine.newBuilder().executor(Runnable::run),
+                Map.of("/api/products", CacheNames.PRODUCTS));
+        filter = new ResponseCacheFilter(cache, Set.of("/api/products/suggest", "/api/products/search"));
+        status = HttpServletResponse.SC_OK;
+        body = "[{\"name\":\"product\"}]";
+    }
+
+    @Test
+    void get_SecondRequestIsServedFromCache() throws Exception {
+        MockHttpServletResponse first = perform(request());
+        MockHttpServletResponse second = perform(request());
+
+        assertEquals(1, handled.get());
+        assertEquals(body, first.getContentAsString());
+        assertEquals(body, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertNotNull(second.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void get_DifferentQueryIsCachedSeparately() throws Exception {
+        perform(request());
+        MockHttpServletRequest nextPage = request();
+        nextPage.setQueryString("page=1&size=10");
+
+        perform(nextPage);
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void get_MatchingIfNoneMatchReturnsNotModified() throws Exception {
+        String etag = perform(request()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest conditional = request();
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = perform(conditional);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void get_ServesGzippedBodyWhenAccepted() throws Exception {
+        body = LARGE_JSON;
+        perform(request());
+        MockHttpServletRequest gzipRequest = request();
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+
+        MockHttpServletResponse response = perform(gzipRequest);
+
+        assertEquals(1, handled.get());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertTrue(response.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+        assertEquals(LARGE_JSON, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void get_RefusedGzipIsNotServed() throws Exception {
+        body = LARGE_JSON;
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+        MockHttpServletResponse response = perform(request);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_JSON, response.getContentAsString());
+    }
+
+    @Test
+    void get_WithAuthorizationIsNotCached() throws Exception {
+        MockHttpServletRequest authenticated = request();
+        authenticated.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+
+        perform(authenticated);
+        perform(request());
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void get_ErrorResponseIsNotCached() throws Exception {
+        status = HttpServletResponse.SC_NOT_FOUND;
+        body = "{\"error\":\"not found\"}";
+
+        MockHttpServletResponse response = perform(request());
+        perform(request());
+
+        assertEquals(2, handled.get());
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        assertEquals(body, response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void get_AfterInvalidationIsHandledAgain() throws Exception {
+        perform(request());
+
+        cache.clear();
+        body = "[{\"name\":\"renamed\"}]";
+
+        assertEquals(body, perform(request()).getContentAsString());
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void get_IsDroppedWithTheProductItShows() throws Exception {
+        MockHttpServletRequest product = new MockHttpServletRequest("GET", "/shop/api/products/7");
+        product.setContextPath("/shop");
+        perform(product);
+        perform(request());
+
+        cache.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 7L));
+        perform(product);
+        perform(request());
+
+        assertEquals(3, handled.get());
+    }
+
+    @Test
+    void get_UncachedPathIsNotCached() throws Exception {
+        MockHttpServletRequest suggest = new MockHttpServletRequest("GET", "/shop/api/products/suggest");
+        suggest.setContextPath("/shop");
+        suggest.setQueryString("q=blu");
+
+        perform(suggest);
+        perform(suggest);
+
+        assertEquals(2, handled.get());
+        assertEquals(0, cache.getNativeCache().estimatedSize());
+    }
+
+    @Test
+    void post_IsNotCached() throws Exception {
+        MockHttpServletRequest post = request();
+        post.setMethod("POST");
+
+        perform(post);
+        perform(post);
+
+        assertEquals(2, handled.get());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain handler = (req, res) -> {
+            handled.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(status);
+            httpResponse.setContentType("application/json");
+            httpResponse.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, handler);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/products");
+    }
+
+    private static String gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
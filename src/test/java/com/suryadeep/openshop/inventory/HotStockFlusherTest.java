@@ -0,0 +1,185 @@
+package com.suryadeep.openshop.inventory;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.suryadeep.openshop.cache.CacheInvalidationRelay;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.CacheTagResolver;
+import com.suryadeep.openshop.cache.LoopbackCacheInvalidationBus;
+import com.suryadeep.openshop.cache.ProductStockInvalidator;
+import com.suryadeep.openshop.cache.ResponseBodyCache;
+import com.suryadeep.openshop.cache.TaggedCache;
+import com.suryadeep.openshop.entity.Address;
+import com.suryadeep.openshop.entity.Order;
+import com.suryadeep.openshop.entity.OrderItem;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.repository.AddressRepository;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.OrderRepository;
+import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.UserRepository;
+import com.suryadeep.openshop.repository.VariantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction, the flusher commits its own
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotStockFlusherTest {
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long productId;
+    private Long hotId;
+    private Long coldId;
+    private HotStockInventory inventory;
+    private TaggedCache productCache;
+    private HotStockFlusher flusher;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Product product = new Product();
+        product.setName("Flash sale");
+        product.setEnabled(true);
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Variant variant = new Variant();
+            variant.setName("Variant " + i);
+            variant.setPrice(BigDecimal.TEN);
+            variant.setStock(100);
+            variant.setProduct(product);
+            variants.add(variant);
+        }
+        product.setVariants(variants);
+        productRepository.save(product);
+        productId = product.getId();
+        hotId = variants.get(0).getId();
+        coldId = variants.get(1).getId();
+
+        inventory = new HotStockInventory(Set.of(hotId), 4);
+        productCache = new TaggedCache(CacheNames.PRODUCTS, Caffeine.newBuilder(), CacheTagResolver.NONE);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(productCache));
+        cacheManager.afterPropertiesSet();
+        CacheInvalidationRelay relay = new CacheInvalidationRelay(new LoopbackCacheInvalidationBus());
+        ProductStockInvalidator productStockInvalidator = new ProductStockInvalidator(cacheManager,
+                new ResponseBodyCache(Caffeine.newBuilder(), Map.of("/api/products", CacheNames.PRODUCTS)), relay);
+        relay.addListener(productStockInvalidator::onInvalidation);
+        flusher = new HotStockFlusher(inventory, orderItemRepository, variantRepository,
+                productStockInvalidator, transactionManager, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        flusher.close();
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        addressRepository.deleteAll();
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void start_AppliesItemsLeftPendingBeforeLoadingCounters() {
+        // Committed by checkouts of the previous run, which stopped before flushing them
+        placeOrder(List.of(item(hotId, 3, true), item(hotId, 2, true), item(coldId, 4, false)));
+
+        flusher.start();
+
+        assertEquals(95, variantRepository.findById(hotId).orElseThrow().getStock());
+        assertEquals(100, variantRepository.findById(coldId).orElseThrow().getStock());
+        assertEquals(95, inventory.available(hotId));
+        assertTrue(orderItemRepository.findPendingStock(Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    void flush_SubtractsPendingItemsOnce() {
+        flusher.start();
+        inventory.reserve(Map.of(hotId, 7));
+        placeOrder(List.of(item(hotId, 7, true)));
+        productCache.put(productId, "product with the stock before the flush");
+
+        assertEquals(1, flusher.flush());
+        assertNull(productCache.get(productId));
+        assertEquals(0, flusher.flush());
+
+        Variant variant = variantRepository.findById(hotId).orElseThrow();
+        assertEquals(93, variant.getStock());
+        assertEquals(1L, variant.getVersion());
+        assertEquals(93, inventory.available(hotId));
+    }
+
+    private void placeOrder(List<OrderItem> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setEmail("flash-" + System.nanoTime() + "@example.com");
+            userRepository.save(user);
+            Address address = new Address();
+            address.setAddressLine("1 Main Street");
+            address.setPincode("560001");
+            addressRepository.save(address);
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setShippingAddress(address);
+            order.setTotalItemPrice(BigDecimal.ZERO);
+            order.setTaxAmount(BigDecimal.ZERO);
+            order.setShippingPrice(BigDecimal.ZERO);
+            order.setTotalPrice(BigDecimal.ZERO);
+            items.forEach(item -> item.setOrder(order));
+            order.setOrderItems(items);
+            orderRepository.save(order);
+        });
+    }
+
+    private OrderItem item(Long variantId, int quantity, boolean stockPending) {
+        OrderItem item = new OrderItem();
+        item.setVariant(variantRepository.getReferenceById(variantId));
+        item.setQuantity(quantity);
+        item.setPrice(BigDecimal.TEN);
+        item.setStockPending(stockPending);
+        return item;
+    }
+}
@@ -0,0 +1,55 @@
+package com.suryadeep.openshop.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotStockInventoryTest {
+
+    private final HotStockInventory inventory = new HotStockInventory(Set.of(1L, 2L, 3L), 4);
+
+    @BeforeEach
+    void setUp() {
+        inventory.load(Map.of(1L, 5, 2L, 1, 4L, 100));
+    }
+
+    @Test
+    void load_KeepsOnlyHotVariants() {
+        assertTrue(inventory.isHot(3L));
+        assertFalse(inventory.isHot(4L));
+        assertEquals(5, inventory.available(1L));
+        assertEquals(-1, inventory.available(3L));
+        assertEquals(-1, inventory.available(4L));
+    }
+
+    @Test
+    void reserve_IsAllOrNothing() {
+        assertEquals(List.of(2L), inventory.reserve(Map.of(1L, 3, 2L, 2)));
+        assertEquals(5, inventory.available(1L));
+        assertEquals(1, inventory.available(2L));
+
+        assertEquals(List.of(), inventory.reserve(Map.of(1L, 3, 2L, 1)));
+        assertEquals(2, inventory.available(1L));
+        assertEquals(0, inventory.available(2L));
+    }
+
+    @Test
+    void reserve_UnloadedVariantIsShort() {
+        assertEquals(List.of(3L), inventory.reserve(Map.of(1L, 1, 3L, 1)));
+        assertEquals(5, inventory.available(1L));
+    }
+
+    @Test
+    void release_GivesUnitsBack() {
+        inventory.reserve(Map.of(1L, 5));
+
+        inventory.release(Map.of(1L, 2));
+
+        assertEquals(2, inventory.available(1L));
+    }
+}
@@ -0,0 +1,59 @@
+package com.suryadeep.openshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+
+    @Test
+    void constructor_SpreadsStockOverPowerOfTwoStripes() {
+        StripedStockCounter counter = new StripedStockCounter(10, 3);
+
+        assertEquals(4, counter.stripes());
+        assertEquals(10, counter.available());
+    }
+
+    @Test
+    void tryTake_TakesAcrossStripesAllOrNothing() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertTrue(counter.tryTake(7));
+        assertEquals(3, counter.available());
+        assertFalse(counter.tryTake(4));
+        assertEquals(3, counter.available());
+        assertTrue(counter.tryTake(3));
+        assertFalse(counter.tryTake(1));
+
+        counter.add(2);
+        assertTrue(counter.tryTake(2));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void tryTake_ConcurrentBuyersSellExactlyTheStock() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(1000, 8);
+        AtomicInteger sold = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2000; i++) {
+                int quantity = 1 + i % 3;
+                executor.submit(() -> {
+                    if (counter.tryTake(quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+
+        assertEquals(1000 - counter.available(), sold.get());
+        assertTrue(counter.available() >= 0 && counter.available() < 3);
+    }
+}
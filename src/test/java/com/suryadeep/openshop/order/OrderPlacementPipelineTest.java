@@ -0,0 +1,138 @@
+package com.suryadeep.openshop.order;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+import com.suryadeep.openshop.dto.response.OrderResponse;
+import com.suryadeep.openshop.exception.InsufficientStockException;
+import com.suryadeep.openshop.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderPlacementPipelineTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderPlacementProperties properties;
+    private OrderPlacementPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        properties = new OrderPlacementProperties();
+        properties.setQueueCapacity(2);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        pipeline = new OrderPlacementPipeline(orderService, transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.close();
+    }
+
+    @Test
+    void placeBatch_PlacesOrdersInOneTransaction() {
+        OrderPlacement first = placement("ORD-1", "alice");
+        OrderPlacement second = placement("ORD-2", "bob");
+        when(orderService.createOrder(any(), eq("ORD-1"))).thenAnswer(invocation -> order(1L, "alice"));
+        when(orderService.createOrder(any(), eq("ORD-2"))).thenAnswer(invocation -> order(2L, "bob"));
+
+        pipeline.placeBatch(List.of(first, second));
+
+        assertEquals(OrderPlacementResponse.placed("ORD-1", 1L), first.result().join());
+        assertEquals(OrderPlacementResponse.placed("ORD-2", 2L), second.result().join());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void placeBatch_FailedOrder_PlacesOthersOneByOne() {
+        OrderPlacement first = placement("ORD-1", "alice");
+        OrderPlacement second = placement("ORD-2", "bob");
+        when(orderService.createOrder(any(), eq("ORD-1")))
+                .thenThrow(new InsufficientStockException(List.of(7L)));
+        when(orderService.createOrder(any(), eq("ORD-2"))).thenAnswer(invocation -> order(2L, "bob"));
+
+        pipeline.placeBatch(List.of(first, second));
+
+        assertEquals(OrderPlacementResponse.failed("ORD-1", "Not enough stock left for variants [7]"), first.result().join());
+        assertEquals(OrderPlacementResponse.placed("ORD-2", 2L), second.result().join());
+        // The grouped transaction, then one per order
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void placeBatch_UnexpectedError_FailsWithoutDetails() {
+        OrderPlacement placement = placement("ORD-1", "alice");
+        when(orderService.createOrder(any(), eq("ORD-1"))).thenThrow(new RuntimeException("Connection reset"));
+
+        pipeline.placeBatch(List.of(placement));
+
+        assertEquals(OrderPlacementResponse.failed("ORD-1", "Internal error"), placement.result().join());
+    }
+
+    @Test
+    void submit_QueueFull_ReturnsFalse() {
+        assertTrue(pipeline.submit(placement("ORD-1", "alice")));
+        assertTrue(pipeline.submit(placement("ORD-2", "alice")));
+
+        assertFalse(pipeline.submit(placement("ORD-3", "alice")));
+        assertEquals(2, pipeline.queued());
+        assertTrue(pipeline.find("ORD-2").isPresent());
+        assertTrue(pipeline.find("ORD-3").isEmpty());
+    }
+
+    @Test
+    void start_WorkersPlaceQueuedOrders() {
+        when(orderService.createOrder(any(), any())).thenAnswer(invocation -> order(1L, "alice"));
+        OrderPlacement placement = placement("ORD-1", "alice");
+        pipeline.submit(placement);
+
+        pipeline.start();
+
+        assertEquals(OrderPlacementResponse.Status.PLACED, placement.result().join().getStatus());
+        assertSame(placement, pipeline.find("ORD-1").orElseThrow());
+    }
+
+    @Test
+    void close_RejectsNewOrders() throws InterruptedException {
+        pipeline.close();
+
+        assertFalse(pipeline.submit(placement("ORD-1", "alice")));
+    }
+
+    private static OrderPlacement placement(String orderNumber, String username) {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, List.of());
+        return new OrderPlacement(orderNumber, 1L, authentication, new OrderRequest());
+    }
+
+    // Checks the order is placed on behalf of the user who queued it
+    private static OrderResponse order(Long id, String username) {
+        assertEquals(username, SecurityContextHolder.getContext().getAuthentication().getName());
+        OrderResponse order = new OrderResponse();
+        order.setId(id);
+        return order;
+    }
+}
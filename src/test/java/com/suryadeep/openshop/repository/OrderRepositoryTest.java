@@ -0,0 +1,147 @@
+package com.suryadeep.openshop.repository;
+
+import com.suryadeep.openshop.entity.Address;
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.entity.Order;
+import com.suryadeep.openshop.entity.OrderItem;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.repository.projection.ProductOrderCount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryTest {
+
+    private static final int ITEMS = 30;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long addressId;
+    private final List<Long> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Category");
+        entityManager.persist(category);
+
+        Product product = new Product();
+        product.setName("Product");
+        product.setEnabled(true);
+        product.setCategory(category);
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Variant variant = new Variant();
+            variant.setName("Variant " + i);
+            variant.setPrice(BigDecimal.TEN);
+            variant.setStock(5);
+            variant.setProduct(product);
+            variants.add(variant);
+        }
+        product.setVariants(variants);
+        entityManager.persist(product);
+
+        User user = new User();
+        user.setEmail("orders@example.com");
+        entityManager.persist(user);
+        Address address = new Address();
+        address.setAddressLine("1 Main Street");
+        address.setPincode("560001");
+        entityManager.persist(address);
+        entityManager.flush();
+        entityManager.clear();
+
+        userId = user.getId();
+        addressId = address.getId();
+        variants.forEach(variant -> variantIds.add(variant.getId()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void save_InsertsOrderWithItemsInAHandfulOfStatements() {
+        EntityManager em = entityManager.getEntityManager();
+        Order order = new Order();
+        order.setUser(em.getReference(User.class, userId));
+        order.setShippingAddress(em.getReference(Address.class, addressId));
+        order.setTotalItemPrice(BigDecimal.valueOf(ITEMS * 10L));
+        order.setTaxAmount(BigDecimal.ZERO);
+        order.setShippingPrice(BigDecimal.ZERO);
+        order.setTotalPrice(BigDecimal.valueOf(ITEMS * 10L));
+        List<OrderItem> items = new ArrayList<>();
+        for (Long variantId : variantIds) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setVariant(em.getReference(Variant.class, variantId));
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.TEN);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // One sequence call per table covers the whole order, then one insert and one batch of item inserts
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(ITEMS + 1, statistics.getEntityInsertCount());
+        long firstItemId = items.get(0).getId();
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals(firstItemId + i, items.get(i).getId());
+        }
+    }
+
+    @Test
+    void countOrdersByProduct_CountsOrdersNotItems() {
+        // Inserted with SQL, so the ids the other test expects from the sequences stay untouched
+        EntityManager em = entityManager.getEntityManager();
+        for (long orderId = 1_000_001; orderId <= 1_000_002; orderId++) {
+            em.createNativeQuery("insert into orders (id, order_number, status, shipping_price, tax_amount, "
+                            + "total_item_price, total_price, user_id, address_id) "
+                            + "values (?, ?, 'PENDING', 0, 0, 0, 0, ?, ?)")
+                    .setParameter(1, orderId).setParameter(2, "ORD-" + orderId)
+                    .setParameter(3, userId).setParameter(4, addressId)
+                    .executeUpdate();
+            for (int i = 0; i < 3; i++) {
+                em.createNativeQuery("insert into order_items (id, order_id, variant_id, quantity, price, stock_pending) "
+                                + "values (?, ?, ?, 2, 10, false)")
+                        .setParameter(1, orderId * 10 + i).setParameter(2, orderId)
+                        .setParameter(3, variantIds.get(i))
+                        .executeUpdate();
+            }
+        }
+
+        List<ProductOrderCount> counts = orderItemRepository.countOrdersByProduct();
+
+        assertEquals(1, counts.size());
+        assertEquals(2, counts.get(0).getOrders());
+    }
+}
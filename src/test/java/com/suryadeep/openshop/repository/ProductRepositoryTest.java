@@ -0,0 +1,164 @@
+package com.suryadeep.openshop.repository;
+
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryTest {
+
+    private static final int PRODUCTS = 12;
+    private static final int VARIANTS_PER_PRODUCT = 3;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            categories.add(entityManager.persist(category));
+        }
+        categoryId = categories.get(0).getId();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setEnabled(true);
+            product.setCategory(categories.get(i % categories.size()));
+            List<Variant> variants = new ArrayList<>();
+            for (int v = 0; v < VARIANTS_PER_PRODUCT; v++) {
+                Variant variant = new Variant();
+                variant.setName("Variant " + v);
+                variant.setPrice(BigDecimal.TEN);
+                variant.setStock(5);
+                variant.setProduct(product);
+                variants.add(variant);
+            }
+            product.setVariants(variants);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findIdsThenSummaries_LoadsPageInConstantStatementsWithoutEntities() {
+        Page<Long> idPage = productRepository.findIds(PageRequest.of(1, 5));
+        List<ProductSummary> products = productRepository.findSummariesByIdIn(idPage.getContent());
+        List<VariantSummary> variants = productRepository.findVariantSummariesByProductIdIn(idPage.getContent());
+
+        assertEquals(PRODUCTS, idPage.getTotalElements());
+        assertEquals(5, products.size());
+        assertTrue(products.stream().allMatch(product -> product.getCategoryName() != null
+                && product.getCategoryId() != null && product.isEnabled()));
+        assertEquals(5 * VARIANTS_PER_PRODUCT, variants.size());
+        assertTrue(variants.stream().allMatch(variant -> idPage.getContent().contains(variant.getProductId())));
+        // id page, count, product rows and variant rows
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findIdsByCategoryId_PagesInTheDatabase() {
+        Page<Long> idPage = productRepository.findIdsByCategoryId(categoryId, PageRequest.of(0, 2));
+
+        assertEquals(2, idPage.getContent().size());
+        assertEquals(PRODUCTS / 3, idPage.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findIdsAfter_SeeksPastTheCursorWithoutCounting() {
+        List<Long> firstSlice = productRepository.findIdsAfter(0L, Limit.of(5));
+        List<Long> secondSlice = productRepository.findIdsAfter(firstSlice.get(4), Limit.of(5));
+        List<Long> categorySlice = productRepository.findIdsByCategoryIdAfter(categoryId, firstSlice.get(0), Limit.of(10));
+
+        assertEquals(5, firstSlice.size());
+        assertEquals(5, secondSlice.size());
+        assertTrue(secondSlice.get(0) > firstSlice.get(4));
+        assertEquals(PRODUCTS / 3 - 1, categorySlice.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllWithDetails_LoadsEverythingInOneStatement() {
+        List<Product> products = productRepository.findAllWithDetails();
+        int variants = touchAssociations(products);
+
+        assertEquals(PRODUCTS, products.size());
+        assertEquals(PRODUCTS * VARIANTS_PER_PRODUCT, variants);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllWithDetailsByCategoryId_LoadsEverythingInOneStatement() {
+        List<Product> products = productRepository.findAllWithDetailsByCategoryId(categoryId);
+        int variants = touchAssociations(products);
+
+        assertEquals(PRODUCTS / 3, products.size());
+        assertEquals(PRODUCTS / 3 * VARIANTS_PER_PRODUCT, variants);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findSummaries_CarryTheVersionsAndSeeVariantUpdates() {
+        List<Long> ids = productRepository.findIdsAfter(0L, Limit.of(1));
+        ProductSummary product = productRepository.findSummariesByIdIn(ids).get(0);
+        List<VariantSummary> before = productRepository.findVariantSummariesByProductIdIn(ids);
+
+        assertEquals(0L, product.getVersion());
+        assertEquals(0L, product.getCategoryVersion());
+        assertTrue(before.stream().allMatch(variant -> variant.getVersion() == 0));
+
+        Variant variant = entityManager.find(Variant.class, before.get(0).getId());
+        variant.setStock(4);
+        entityManager.flush();
+
+        List<VariantSummary> after = productRepository.findVariantSummariesByProductIdIn(ids);
+        assertEquals(1L, after.get(0).getVersion());
+        assertEquals(0L, productRepository.findSummariesByIdIn(ids).get(0).getVersion());
+    }
+
+    private static int touchAssociations(List<Product> products) {
+        int variants = 0;
+        for (Product product : products) {
+            assertNotNull(product.getCategory().getName());
+            variants += product.getVariants().size();
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,144 @@
+package com.suryadeep.openshop.repository;
+
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.Variant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction, so every reservation commits or rolls back on its own like a checkout does
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VariantStockRepositoryTest {
+
+    private static final int STOCK = 50;
+    private static final int BUYERS = 400;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long firstId;
+    private Long secondId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setName("Flash sale");
+        product.setEnabled(true);
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Variant variant = new Variant();
+            variant.setName("Variant " + i);
+            variant.setPrice(BigDecimal.TEN);
+            variant.setStock(STOCK);
+            variant.setProduct(product);
+            variants.add(variant);
+        }
+        product.setVariants(variants);
+        productRepository.save(product);
+        firstId = variants.get(0).getId();
+        secondId = variants.get(1).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void reserveStock_TakesStockOnlyIfEveryVariantHasEnough() {
+        List<Long> tooMany = transactionTemplate.execute(status -> {
+            List<Long> shortVariants = variantRepository.reserveStock(Map.of(firstId, 1, secondId, STOCK + 1));
+            status.setRollbackOnly();
+            return shortVariants;
+        });
+        List<Long> enough = transactionTemplate.execute(status ->
+                variantRepository.reserveStock(Map.of(firstId, 1, secondId, STOCK)));
+
+        assertEquals(List.of(secondId), tooMany);
+        assertEquals(List.of(), enough);
+        assertStock(firstId, STOCK - 1, 1);
+        assertStock(secondId, 0, 1);
+    }
+
+    @Test
+    void reserveStock_ConcurrentBuyersNeverOversell() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BUYERS; i++) {
+                // Half of the buyers list the variants the other way round, the reservation has to order them
+                Map<Long, Integer> quantities = new LinkedHashMap<>();
+                if (i % 2 == 0) {
+                    quantities.put(firstId, 1);
+                    quantities.put(secondId, 1);
+                } else {
+                    quantities.put(secondId, 1);
+                    quantities.put(firstId, 1);
+                }
+                executor.submit(() -> {
+                    try {
+                        start.await();
+                        transactionTemplate.executeWithoutResult(status -> {
+                            if (variantRepository.reserveStock(quantities).isEmpty()) {
+                                sold.incrementAndGet();
+                            } else {
+                                status.setRollbackOnly();
+                                rejected.incrementAndGet();
+                            }
+                        });
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Reservations failed: " + failures);
+        assertEquals(STOCK, sold.get());
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertStock(firstId, 0, STOCK);
+        assertStock(secondId, 0, STOCK);
+    }
+
+    private void assertStock(Long variantId, int stock, long version) {
+        Variant variant = variantRepository.findById(variantId).orElseThrow();
+        assertEquals(stock, variant.getStock());
+        assertEquals(version, variant.getVersion());
+    }
+}
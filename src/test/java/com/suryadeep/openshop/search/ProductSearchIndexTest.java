@@ -0,0 +1,127 @@
+package com.suryadeep.openshop.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(product(1L, 10L, "Blue Cotton Shirt", "A shirt for summer", "Clothing",
+                variant("Small", "19.99", 5), variant("Large", "24.99", 0)));
+        index.put(product(2L, 10L, "Denim Jacket", "Goes well with a blue shirt", "Clothing",
+                variant("Medium", "59.00", 3)));
+        index.put(product(3L, 20L, "Espresso Machine", "Brews café quality coffee", "Kitchen",
+                variant("Silver", "199.00", 0)));
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex.Hits hits = index.search(query("blue shirt"), 0, 10);
+
+        assertEquals(List.of(1L, 2L), hits.productIds());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void search_RequiresEveryWord() {
+        assertEquals(List.of(2L), index.search(query("denim shirt"), 0, 10).productIds());
+        assertEquals(0, index.search(query("denim kettle"), 0, 10).total());
+    }
+
+    @Test
+    void search_MatchesCategoryAndVariantNamesIgnoringCaseAndAccents() {
+        assertEquals(List.of(3L), index.search(query("KITCHEN"), 0, 10).productIds());
+        assertEquals(List.of(3L), index.search(query("silver"), 0, 10).productIds());
+        assertEquals(List.of(3L), index.search(query("Cafe"), 0, 10).productIds());
+    }
+
+    @Test
+    void search_LastWordMatchesAsPrefix() {
+        assertEquals(List.of(3L), index.search(query("espr"), 0, 10).productIds());
+        assertEquals(List.of(1L), index.search(query("cotton sh"), 0, 10).productIds());
+        // Only the word being typed is a prefix
+        assertEquals(0, index.search(query("cott shirt"), 0, 10).total());
+    }
+
+    @Test
+    void search_PrefersWholeWordOverPrefixMatch() {
+        index.put(product(4L, 30L, "Shirtdress", null, "Dresses"));
+        index.put(product(5L, 30L, "Shirt", null, "Dresses"));
+
+        List<Long> productIds = index.search(query("shirt"), 0, 10).productIds();
+        assertEquals(4, productIds.size());
+        assertTrue(productIds.indexOf(5L) < productIds.indexOf(4L));
+    }
+
+    @Test
+    void search_FiltersOnOneVariantsPriceAndStock() {
+        assertEquals(List.of(1L, 2L), index.search(new ProductSearchQuery("shirt", new BigDecimal("20"), null, false), 0, 10).productIds());
+        assertEquals(List.of(1L), index.search(new ProductSearchQuery("shirt", null, new BigDecimal("30"), false), 0, 10).productIds());
+        // The in-stock variant of product 1 costs 19.99, the one at 24.99 is sold out
+        assertEquals(List.of(2L), index.search(new ProductSearchQuery("shirt", new BigDecimal("20"), null, true), 0, 10).productIds());
+        assertEquals(0, index.search(new ProductSearchQuery("espresso", null, null, true), 0, 10).total());
+    }
+
+    @Test
+    void search_PagesThroughRankedHits() {
+        ProductSearchIndex.Hits hits = index.search(query("clothing"), 1, 1);
+
+        assertEquals(1, hits.productIds().size());
+        assertEquals(2, hits.total());
+        assertNotEquals(index.search(query("clothing"), 0, 1).productIds(), hits.productIds());
+    }
+
+    @Test
+    void search_BlankQueryMatchesNothing() {
+        assertEquals(0, index.search(query("  ,. "), 0, 10).total());
+        assertEquals(0, index.search(query(null), 0, 10).total());
+    }
+
+    @Test
+    void put_ReplacesTheProduct() {
+        index.put(product(1L, 20L, "Tea Kettle", null, "Kitchen", variant("Steel", "30.00", 2)));
+
+        assertEquals(0, index.search(query("cotton"), 0, 10).total());
+        assertEquals(List.of(1L), index.search(query("kettle"), 0, 10).productIds());
+        assertEquals(3, index.size());
+        assertEquals(Set.of(1L, 3L), index.productIdsOfCategory(20L));
+    }
+
+    @Test
+    void remove_DropsTheProductAndItsTerms() {
+        int terms = index.termCount();
+
+        index.remove(3L);
+        index.remove(42L);
+
+        assertEquals(0, index.search(query("espresso"), 0, 10).total());
+        assertEquals(2, index.size());
+        assertTrue(index.termCount() < terms);
+        // The freed slot is reused
+        index.put(product(5L, 20L, "Espresso Cups", null, "Kitchen"));
+        assertEquals(List.of(5L), index.search(query("espresso"), 0, 10).productIds());
+    }
+
+    private static ProductSearchQuery query(String text) {
+        return new ProductSearchQuery(text, null, null, false);
+    }
+
+    private static SearchDocument product(Long id, Long categoryId, String name, String description,
+                                          String categoryName, SearchDocument.Variant... variants) {
+        return new SearchDocument(id, categoryId, name, description, categoryName, List.of(variants));
+    }
+
+    private static SearchDocument.Variant variant(String name, String price, int stock) {
+        return new SearchDocument.Variant(name, new BigDecimal(price), stock);
+    }
+}
@@ -0,0 +1,151 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.entity.Product;
+import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the test transaction, the indexer reads in transactions of its own
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchIndexerTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProductSearchIndex index;
+    private ProductSearchIndexer indexer;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        indexer = new ProductSearchIndexer(index, productRepository, transactionManager, Runnable::run);
+        category = new Category();
+        category.setName("Clothing");
+        category = categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void start_IndexesEveryProductInBatches() {
+        for (int i = 0; i < ProductSearchIndexer.LOAD_BATCH_SIZE + 1; i++) {
+            save("Shirt " + i);
+        }
+
+        indexer.start();
+
+        assertEquals(ProductSearchIndexer.LOAD_BATCH_SIZE + 1, index.size());
+        assertEquals(1, search("shirt 499").size());
+        assertEquals(1, search("clothing small 500").size());
+    }
+
+    @Test
+    void index_InTransaction_AppliesOnlyOnCommit() {
+        Product kept = new TransactionTemplate(transactionManager).execute(status -> {
+            Product product = save("Linen Shirt");
+            indexer.index(product);
+            assertTrue(search("linen").isEmpty());
+            return product;
+        });
+        assertEquals(List.of(kept.getId()), search("linen"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            indexer.index(save("Wool Shirt"));
+            status.setRollbackOnly();
+        });
+        assertTrue(search("wool").isEmpty());
+    }
+
+    @Test
+    void reindexCategory_PicksUpRenameAndDroppedProducts() {
+        Product shirt = save("Shirt");
+        Product jacket = save("Jacket");
+        indexer.start();
+
+        category.setName("Apparel");
+        categoryRepository.save(category);
+        productRepository.delete(jacket);
+        indexer.reindexCategory(category.getId());
+
+        assertEquals(List.of(shirt.getId()), search("apparel"));
+        assertTrue(search("clothing").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void applyRemote_ReadsEvictedProductAgain() {
+        Product shirt = save("Shirt");
+        indexer.start();
+        shirt.setName("Blouse");
+        productRepository.save(shirt);
+
+        indexer.applyRemote(new CacheInvalidation("other", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, shirt.getId()));
+        assertEquals(List.of(shirt.getId()), search("blouse"));
+
+        productRepository.deleteById(shirt.getId());
+        indexer.applyRemote(new CacheInvalidation("other", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, shirt.getId()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void applyRemote_ReadsCategoryOfEvictedListingAgain() {
+        indexer.start();
+        Product added = save("Scarf");
+
+        indexer.applyRemote(new CacheInvalidation("other", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT_TAG,
+                CacheNames.categoryTag(category.getId())));
+        indexer.applyRemote(new CacheInvalidation("other", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT_TAG,
+                CacheNames.PAGES_TAG));
+
+        assertEquals(List.of(added.getId()), search("scarf"));
+    }
+
+    private List<Long> search(String text) {
+        return index.search(new ProductSearchQuery(text, null, null, false), 0, 10).productIds();
+    }
+
+    private Product save(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        Variant variant = new Variant();
+        variant.setName("Small");
+        variant.setPrice(BigDecimal.TEN);
+        variant.setStock(5);
+        variant.setProduct(product);
+        product.setVariants(new ArrayList<>(List.of(variant)));
+        return productRepository.save(product);
+    }
+}
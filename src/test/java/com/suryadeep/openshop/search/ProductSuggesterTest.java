@@ -0,0 +1,159 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.entity.Category;
+import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.repository.OrderItemRepository;
+import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.projection.ProductName;
+import com.suryadeep.openshop.repository.projection.ProductOrderCount;
+import com.suryadeep.openshop.search.SuggestIndex.Suggestion;
+import com.suryadeep.openshop.search.SuggestIndex.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SuggestProperties properties;
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new SuggestProperties();
+        // Loops the name changes back, like the relay does for this node's own invalidations
+        suggester = new ProductSuggester(productRepository, categoryRepository, orderItemRepository,
+                transactionManager, properties, (cacheName, type, key) ->
+                suggester.onInvalidation(new CacheInvalidation("node", cacheName, type, key)));
+        Category shoes = new Category();
+        shoes.setId(9L);
+        shoes.setName("Shoes");
+        when(categoryRepository.findAll()).thenReturn(List.of(shoes));
+        List<ProductName> products = List.of(product(1L, "Running Shoes", 9L), product(2L, "Rain Jacket", 9L));
+        when(productRepository.findNamesAfter(0L, Limit.of(ProductSuggester.LOAD_BATCH_SIZE))).thenReturn(products);
+        List<ProductOrderCount> counts = List.of(count(2L, 7), count(1L, 3));
+        when(orderItemRepository.countOrdersByProduct()).thenReturn(counts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggester.close();
+    }
+
+    @Test
+    void rebuild_RanksProductsByOrdersAndCategoriesByTheirProductsOrders() {
+        suggester.rebuild();
+
+        assertEquals(List.of(
+                new Suggestion(Type.PRODUCT, 2L, "Rain Jacket"),
+                new Suggestion(Type.PRODUCT, 1L, "Running Shoes")), suggester.suggest("r", 10));
+        assertEquals(List.of(
+                new Suggestion(Type.CATEGORY, 9L, "Shoes"),
+                new Suggestion(Type.PRODUCT, 1L, "Running Shoes")), suggester.suggest("shoe", 10));
+    }
+
+    @Test
+    void suggest_CapsTheLimit() {
+        properties.setMaxResults(1);
+        suggester.rebuild();
+
+        assertEquals(1, suggester.suggest("r", 10).size());
+    }
+
+    @Test
+    void rebuildIfStale_RebuildsOnlyAfterNameChanges() {
+        suggester.rebuild();
+        suggester.rebuildIfStale();
+        suggester.onInvalidation(new CacheInvalidation("node", CacheNames.USERS, CacheInvalidation.Type.CLEAR, null));
+        // A stock or price change evicts the product without touching its name
+        suggester.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 1L));
+        suggester.onInvalidation(new CacheInvalidation("node", CacheNames.PRODUCT_STOCK, CacheInvalidation.Type.EVICT, "1"));
+        suggester.rebuildIfStale();
+        verify(productRepository, times(1)).findNamesAfter(anyLong(), any());
+
+        List<ProductName> changed = List.of(product(3L, "Rubber Boots", 9L));
+        when(productRepository.findNamesAfter(0L, Limit.of(ProductSuggester.LOAD_BATCH_SIZE))).thenReturn(changed);
+        suggester.nameChanged(Type.PRODUCT, 3L);
+        suggester.rebuildIfStale();
+
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 3L, "Rubber Boots")), suggester.suggest("rub", 10));
+        assertTrue(suggester.suggest("rain", 10).isEmpty());
+    }
+
+    @Test
+    void rebuildIfStale_KeepsServingTheOldIndexWhenRebuildFails() {
+        suggester.rebuild();
+        when(orderItemRepository.countOrdersByProduct()).thenThrow(new IllegalStateException("Database down"));
+        suggester.onInvalidation(new CacheInvalidation("other-node", CacheNames.CATALOG_NAMES,
+                CacheInvalidation.Type.EVICT, "CATEGORY:9"));
+
+        suggester.rebuildIfStale();
+        suggester.rebuildIfStale();
+
+        assertEquals(2, suggester.suggest("r", 10).size());
+        verify(orderItemRepository, times(3)).countOrdersByProduct();
+    }
+
+    @Test
+    void nameChanged_PublishesOnceCommitted() {
+        List<CacheInvalidation> published = new ArrayList<>();
+        ProductSuggester publishing = new ProductSuggester(productRepository, categoryRepository, orderItemRepository,
+                transactionManager, properties, (cacheName, type, key) ->
+                published.add(new CacheInvalidation("node", cacheName, type, key)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publishing.nameChanged(Type.CATEGORY, 9L);
+            assertTrue(published.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            publishing.close();
+        }
+
+        assertEquals(List.of(new CacheInvalidation("node", CacheNames.CATALOG_NAMES, CacheInvalidation.Type.EVICT,
+                "CATEGORY:9")), published);
+    }
+
+    private static ProductName product(Long id, String name, Long categoryId) {
+        ProductName product = mock(ProductName.class);
+        when(product.getId()).thenReturn(id);
+        when(product.getName()).thenReturn(name);
+        when(product.getCategoryId()).thenReturn(categoryId);
+        return product;
+    }
+
+    private static ProductOrderCount count(Long productId, long orders) {
+        ProductOrderCount count = mock(ProductOrderCount.class);
+        when(count.getProductId()).thenReturn(productId);
+        when(count.getOrders()).thenReturn(orders);
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+package com.suryadeep.openshop.search;
+
+import com.suryadeep.openshop.search.SuggestIndex.Suggestion;
+import com.suryadeep.openshop.search.SuggestIndex.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestIndexTest {
+
+    private final SuggestIndex index = SuggestIndex.builder()
+            .add(Type.PRODUCT, 1, "Blue Cotton Shirt", 40)
+            .add(Type.PRODUCT, 2, "Bluetooth Speaker", 90)
+            .add(Type.PRODUCT, 3, "Shirt Hanger", 5)
+            .add(Type.PRODUCT, 4, "Crème Brûlée Torch", 12)
+            .add(Type.CATEGORY, 7, "Shirts", 60)
+            .add(Type.PRODUCT, 5, "  ", 100)
+            .build();
+
+    @Test
+    void suggest_RanksMatchesByPopularity() {
+        assertEquals(List.of(
+                new Suggestion(Type.PRODUCT, 2, "Bluetooth Speaker"),
+                new Suggestion(Type.PRODUCT, 1, "Blue Cotton Shirt")), index.suggest("blu", 10));
+    }
+
+    @Test
+    void suggest_MatchesTheStartOfAnyWord() {
+        assertEquals(List.of(
+                new Suggestion(Type.CATEGORY, 7, "Shirts"),
+                new Suggestion(Type.PRODUCT, 1, "Blue Cotton Shirt"),
+                new Suggestion(Type.PRODUCT, 3, "Shirt Hanger")), index.suggest("SHIR", 10));
+        assertTrue(index.suggest("irt", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_MatchesConsecutiveWordsIgnoringAccentsAndPunctuation() {
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 1, "Blue Cotton Shirt")), index.suggest("cotton  sh", 10));
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 4, "Crème Brûlée Torch")), index.suggest("creme-brul", 10));
+        assertTrue(index.suggest("shirt cotton", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_KeepsTheLimit() {
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 2, "Bluetooth Speaker")), index.suggest("s", 1));
+        assertTrue(index.suggest("s", 0).isEmpty());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+        assertTrue(SuggestIndex.EMPTY.suggest("s", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_NameMatchedByTwoWordsOnce() {
+        SuggestIndex repeated = SuggestIndex.builder()
+                .add(Type.PRODUCT, 1, "Shirt Shirt", 1)
+                .add(Type.PRODUCT, 2, "Shirtdress", 1)
+                .build();
+
+        assertEquals(List.of(1L, 2L), repeated.suggest("shirt", 10).stream().map(Suggestion::id).toList());
+    }
+
+    @Test
+    void suggest_SkipsBlocksThatCannotMakeTheResults() {
+        SuggestIndex.Builder builder = SuggestIndex.builder();
+        for (int i = 0; i < 100 * SuggestIndex.BLOCK_SIZE; i++) {
+            builder.add(Type.PRODUCT, i, "Item " + i, i % 1000);
+        }
+        SuggestIndex large = builder.build();
+
+        List<Suggestion> suggestions = large.suggest("item", 3);
+
+        assertEquals(3, suggestions.size());
+        // Equal popularity goes to the name first in key order, "item 1999" before "item 999"
+        assertEquals(List.of(1999L, 2999L, 3999L), suggestions.stream().map(Suggestion::id).toList());
+        assertEquals(100 * SuggestIndex.BLOCK_SIZE, large.size());
+        assertEquals(2 * large.size(), large.entries());
+    }
+}
@@ -1,6 +1,7 @@
 package com.suryadeep.openshop.security;
 
 import com.suryadeep.openshop.service.JwtService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,18 +9,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Collections;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
@@ -43,6 +49,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
+    @Mock
+    private Claims claims;
+
     @Captor
     private ArgumentCaptor<Exception> exceptionCaptor;
 
@@ -89,9 +98,10 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = new User(userEmail, "password", Collections.emptyList());
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
+        when(jwtService.verifyToken(token)).thenReturn(new VerifiedToken(claims, null));
+        when(claims.getSubject()).thenReturn(userEmail);
         when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(token, userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -103,18 +113,62 @@ class JwtAuthenticationFilterTest {
         expectedAuthentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
         verify(userDetailsService, times(1)).loadUserByUsername(userEmail);
-        verify(jwtService, times(1)).isTokenValid(token, userDetails);
+        verify(jwtService, times(1)).verifyToken(token);
+        verify(jwtService, times(1)).isTokenValid(claims, userDetails);
         verify(filterChain, times(1)).doFilter(request, response);
         assert SecurityContextHolder.getContext().getAuthentication() != null;
         assert SecurityContextHolder.getContext().getAuthentication().equals(expectedAuthentication);
     }
 
+    @Test
+    void shouldStoreLoadedUserInRequestContext() throws Exception {
+        String token = "validToken";
+        com.suryadeep.openshop.entity.User user = new com.suryadeep.openshop.entity.User();
+        user.setEmail("test@example.com");
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtService.verifyToken(token)).thenReturn(new VerifiedToken(claims, null));
+        when(claims.getSubject()).thenReturn(user.getEmail());
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+            assert CurrentUserContext.get(user.getEmail()).orElseThrow() == user;
+            verify(filterChain, times(1)).doFilter(request, response);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void shouldAuthenticateFromClaimsWithoutLoadingUserInStatelessMode() throws Exception {
+        String token = "validToken";
+        String userEmail = "test@example.com";
+        CustomUserDetails userDetails = new CustomUserDetails(1L, userEmail,
+                Set.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtService.verifyToken(token)).thenReturn(new VerifiedToken(claims, userDetails));
+        when(claims.getSubject()).thenReturn(userEmail);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain, times(1)).doFilter(request, response);
+        assert SecurityContextHolder.getContext().getAuthentication().getPrincipal() == userDetails;
+    }
+
     @Test
     void shouldHandleExceptionWhenTokenIsInvalid() throws Exception {
         String token = "invalidToken";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("Invalid Token"));
+        when(jwtService.verifyToken(token)).thenThrow(new RuntimeException("Invalid Token"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -129,7 +183,8 @@ class JwtAuthenticationFilterTest {
         String token = "validToken";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(null);
+        when(jwtService.verifyToken(token)).thenReturn(new VerifiedToken(claims, null));
+        when(claims.getSubject()).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -146,7 +201,8 @@ class JwtAuthenticationFilterTest {
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
+        when(jwtService.verifyToken(token)).thenReturn(new VerifiedToken(claims, null));
+        when(claims.getSubject()).thenReturn(userEmail);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -159,7 +215,7 @@ class JwtAuthenticationFilterTest {
         String expiredToken = "expiredToken";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + expiredToken);
-        when(jwtService.extractUsername(expiredToken)).thenThrow(new ExpiredJwtException(null, null, "Token expired"));
+        when(jwtService.verifyToken(expiredToken)).thenThrow(new ExpiredJwtException(null, null, "Token expired"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -0,0 +1,119 @@
+package com.suryadeep.openshop.security;
+
+import com.suryadeep.openshop.cache.CacheInvalidation;
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.cache.CacheNames;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationRegistryTest {
+
+    private static final long EXPIRATION_TIME = 900000;
+
+    private long now = 1_700_000_000_250L;
+    private final List<CacheInvalidation> published = new ArrayList<>();
+    private final CacheInvalidationPublisher publisher = (cacheName, type, key) ->
+            published.add(new CacheInvalidation("this", cacheName, type, key));
+    private final TokenRevocationRegistry registry = registry(publisher);
+
+    @Test
+    void shouldAcceptTokensWhenNothingWasRevoked() {
+        assertFalse(registry.isRevoked("test@example.com", registry.issueTime("test@example.com")));
+    }
+
+    @Test
+    void shouldRevokeTokensIssuedBeforeRevocation() {
+        Date issuedBefore = registry.issueTime("test@example.com");
+
+        registry.revokeAll("test@example.com");
+
+        assertTrue(registry.isRevoked("test@example.com", issuedBefore));
+        assertFalse(registry.isRevoked("test@example.com", registry.issueTime("test@example.com")));
+        assertFalse(registry.isRevoked("other@example.com", issuedBefore));
+    }
+
+    @Test
+    void shouldDateTokensIssuedInTheSecondOfARevocationAfterIt() {
+        registry.revokeAll("test@example.com");
+        now += 100;
+
+        // Tokens keep whole seconds only
+        Date issuedAt = registry.issueTime("test@example.com");
+        Date inToken = new Date(issuedAt.getTime() / 1000 * 1000);
+
+        assertFalse(registry.isRevoked("test@example.com", inToken));
+        assertTrue(issuedAt.getTime() > now);
+    }
+
+    @Test
+    void shouldRevokeTokensIssuedAfterAnExpiredRevocation() {
+        registry.revokeAll("test@example.com");
+        now += EXPIRATION_TIME + 1000;
+        Date issuedAfterExpiry = registry.issueTime("test@example.com");
+        now += 1000;
+
+        registry.revokeAll("test@example.com");
+
+        assertTrue(registry.isRevoked("test@example.com", issuedAfterExpiry));
+    }
+
+    @Test
+    void shouldRevokeOnEveryNode() {
+        TokenRevocationRegistry otherNode = registry(CacheInvalidationPublisher.NONE);
+        Date issuedBefore = registry.issueTime("test@example.com");
+        now += 1000;
+
+        registry.revokeAll("test@example.com");
+        assertEquals(1, published.size());
+        assertEquals(CacheNames.TOKEN_REVOCATIONS, published.get(0).cacheName());
+        now += 2000;
+        otherNode.applyRemote(published.get(0));
+
+        assertTrue(otherNode.isRevoked("test@example.com", issuedBefore));
+        // Dated with the revocation on the first node, not with when the second one heard of it
+        assertFalse(otherNode.isRevoked("test@example.com", new Date(now - 1000)));
+    }
+
+    @Test
+    void shouldIgnoreRemoteRevocationsOlderThanATokenLifetime() {
+        TokenRevocationRegistry otherNode = registry(CacheInvalidationPublisher.NONE);
+        Date issuedBefore = registry.issueTime("test@example.com");
+        registry.revokeAll("test@example.com");
+        now += EXPIRATION_TIME + 1000;
+
+        otherNode.applyRemote(published.get(0));
+        otherNode.applyRemote(new CacheInvalidation("other", CacheNames.PRODUCTS, CacheInvalidation.Type.EVICT, 1L));
+
+        assertFalse(otherNode.isRevoked("test@example.com", issuedBefore));
+    }
+
+    private TokenRevocationRegistry registry(CacheInvalidationPublisher publisher) {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now);
+            }
+        };
+        return new TokenRevocationRegistry(EXPIRATION_TIME, publisher, clock, () -> TimeUnit.MILLISECONDS.toNanos(now));
+    }
+}
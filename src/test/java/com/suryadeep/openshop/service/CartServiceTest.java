@@ -1,5 +1,8 @@
 package com.suryadeep.openshop.service;
 
+import com.suryadeep.openshop.dto.request.CartBatchRequest;
+import com.suryadeep.openshop.dto.request.CartItemOperation;
+import com.suryadeep.openshop.dto.request.CartItemOperation.Action;
 import com.suryadeep.openshop.dto.request.CartItemRequest;
 import com.suryadeep.openshop.dto.response.CartItemResponse;
 import com.suryadeep.openshop.dto.response.CartResponse;
@@ -7,6 +10,7 @@ import com.suryadeep.openshop.entity.Cart;
 import com.suryadeep.openshop.entity.CartItem;
 import com.suryadeep.openshop.entity.User;
 import com.suryadeep.openshop.entity.Variant;
+import com.suryadeep.openshop.exception.InvalidCartOperationException;
 import com.suryadeep.openshop.exception.ResourceNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CartItemRepository;
@@ -22,6 +26,8 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +62,105 @@ class CartServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @Test
+    void testApplyBatch_AddsUpdatesAndRemovesWithOneVariantLookup() {
+        Cart cart = cartWithItems(item(1L, variant(10L), 1), item(2L, variant(20L), 1));
+        when(variantRepository.findAllById(Set.of(30L, 40L))).thenReturn(List.of(variant(30L), variant(40L)));
+        when(entityMapper.toResponse(cart)).thenReturn(new CartResponse());
+
+        CartResponse response = cartService.applyBatch(new CartBatchRequest(List.of(
+                new CartItemOperation(Action.ADD, null, 30L, 2),
+                new CartItemOperation(Action.ADD, null, 10L, 5),
+                new CartItemOperation(Action.UPDATE, 2L, null, 3),
+                new CartItemOperation(Action.ADD, null, 40L, 1),
+                new CartItemOperation(Action.REMOVE, null, 40L, 0))));
+
+        assertNotNull(response);
+        assertEquals(3, cart.getCartItems().size());
+        assertEquals(5, quantityOf(cart, 10L));
+        assertEquals(3, quantityOf(cart, 20L));
+        assertEquals(2, quantityOf(cart, 30L));
+        verify(variantRepository, times(1)).findAllById(any());
+        verify(variantRepository, never()).findById(any());
+        verify(userService, times(1)).getCurrentAuthenticatedUser();
+        verify(cartRepository, times(1)).save(cart);
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void testApplyBatch_RemoveThenAddBackReusesCartVariant() {
+        Cart cart = cartWithItems(item(1L, variant(10L), 1));
+        when(entityMapper.toResponse(cart)).thenReturn(new CartResponse());
+
+        cartService.applyBatch(new CartBatchRequest(List.of(
+                new CartItemOperation(Action.REMOVE, 1L, null, 0),
+                new CartItemOperation(Action.ADD, null, 10L, 4))));
+
+        assertEquals(1, cart.getCartItems().size());
+        assertEquals(4, quantityOf(cart, 10L));
+        verify(variantRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testApplyBatch_UnknownVariantFailsBeforeAnyChange() {
+        Cart cart = cartWithItems(item(1L, variant(10L), 1));
+        when(variantRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+
+        CartBatchRequest request = new CartBatchRequest(List.of(
+                new CartItemOperation(Action.UPDATE, 1L, null, 7),
+                new CartItemOperation(Action.ADD, null, 99L, 1)));
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> cartService.applyBatch(request));
+
+        assertEquals("Variant with ID 99 not found", exception.getMessage());
+        assertEquals(1, quantityOf(cart, 10L));
+        verifyNoInteractions(cartRepository);
+    }
+
+    @Test
+    void testApplyBatch_RejectsInvalidOperations() {
+        cartWithItems(item(1L, variant(10L), 1));
+
+        assertThrows(InvalidCartOperationException.class, () -> cartService.applyBatch(new CartBatchRequest(
+                List.of(new CartItemOperation(Action.REMOVE, null, null, 0)))));
+        assertThrows(InvalidCartOperationException.class, () -> cartService.applyBatch(new CartBatchRequest(
+                List.of(new CartItemOperation(Action.UPDATE, 1L, null, 0)))));
+        assertThrows(ResourceNotFoundException.class, () -> cartService.applyBatch(new CartBatchRequest(
+                List.of(new CartItemOperation(Action.UPDATE, 5L, null, 1)))));
+    }
+
+    private Cart cartWithItems(CartItem... items) {
+        User user = new User();
+        Cart cart = new Cart();
+        for (CartItem item : items) {
+            item.setCart(cart);
+            cart.getCartItems().add(item);
+        }
+        user.setCart(cart);
+        when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+        return cart;
+    }
+
+    private static CartItem item(Long id, Variant variant, int quantity) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setVariant(variant);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Variant variant(Long id) {
+        Variant variant = new Variant();
+        variant.setId(id);
+        return variant;
+    }
+
+    private static int quantityOf(Cart cart, Long variantId) {
+        return cart.getCartItems().stream()
+                .filter(item -> item.getVariant().getId().equals(variantId))
+                .findFirst().orElseThrow().getQuantity();
+    }
+
     @Test
     void testGetCart() {
         User user = new User();
@@ -1,11 +1,17 @@
 package com.suryadeep.openshop.service;
 
+import com.suryadeep.openshop.cache.CacheInvalidator;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.RefreshAheadCache;
 import com.suryadeep.openshop.dto.request.CategoryRequest;
 import com.suryadeep.openshop.dto.response.CategoryResponse;
 import com.suryadeep.openshop.entity.Category;
 import com.suryadeep.openshop.exception.CategoryNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CategoryRepository;
+import com.suryadeep.openshop.search.ProductSearchIndexer;
+import com.suryadeep.openshop.search.ProductSuggester;
+import com.suryadeep.openshop.search.SuggestIndex;
 import com.suryadeep.openshop.service.implementation.CategoryServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,9 +24,11 @@ import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class CategoryServiceTest {
@@ -31,6 +39,18 @@ class CategoryServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private RefreshAheadCache catalogCache;
+
+    @Mock
+    private ProductSearchIndexer searchIndexer;
+
+    @Mock
+    private ProductSuggester suggester;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -58,6 +78,7 @@ class CategoryServiceTest {
 
         assertNotNull(categoryResponse);
         verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(suggester).nameChanged(SuggestIndex.Type.CATEGORY, 1L);
     }
 
     @Test
@@ -81,6 +102,27 @@ class CategoryServiceTest {
         assertNotNull(categoryResponse);
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(searchIndexer).reindexCategory(categoryId);
+        verify(suggester).nameChanged(SuggestIndex.Type.CATEGORY, categoryId);
+    }
+
+    @Test
+    void testUpdateCategory_SameName_KeepsSearchIndex() {
+        Long categoryId = 1L;
+        CategoryRequest categoryRequest = new CategoryRequest();
+        categoryRequest.setName("Books");
+        categoryRequest.setDescription("New description");
+        Category category = new Category();
+        category.setId(categoryId);
+        category.setName("Books");
+
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryRepository.save(any(Category.class))).thenReturn(category);
+
+        categoryService.updateCategory(categoryRequest, categoryId);
+
+        verify(searchIndexer, never()).reindexCategory(any());
+        verify(suggester, never()).nameChanged(any(), any());
     }
 
     @Test
@@ -95,6 +137,7 @@ class CategoryServiceTest {
 
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).delete(any(Category.class));
+        verify(suggester).nameChanged(SuggestIndex.Type.CATEGORY, categoryId);
     }
 
     @Test
@@ -139,4 +182,35 @@ class CategoryServiceTest {
 
         verify(categoryRepository, times(1)).findById(categoryId);
     }
+
+    @Test
+    void testGetAllCategories_LoadsThroughCatalogCache() {
+        when(catalogCache.getOrLoad(eq(CacheNames.ALL_CATEGORIES), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(), new Category()));
+        when(entityMapper.toCategoryResponse(any(Category.class))).thenReturn(new CategoryResponse());
+
+        List<CategoryResponse> categories = categoryService.getAllCategories();
+
+        assertEquals(2, categories.size());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testUpdateCategory_RefreshesCatalogListsInsteadOfEvicting() {
+        Long categoryId = 1L;
+        CategoryRequest categoryRequest = new CategoryRequest();
+        categoryRequest.setName("Books");
+        Category category = new Category();
+        category.setId(categoryId);
+
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryRepository.save(any(Category.class))).thenReturn(category);
+
+        categoryService.updateCategory(categoryRequest, categoryId);
+
+        verify(cacheInvalidator).refresh(CacheNames.CATALOG, CacheNames.ALL_CATEGORIES);
+        verify(cacheInvalidator).refresh(CacheNames.CATALOG, CacheNames.ALL_PRODUCTS);
+        verify(cacheInvalidator, never()).evict(any(), eq(CacheNames.ALL_PRODUCTS));
+    }
 }
@@ -0,0 +1,132 @@
+package com.suryadeep.openshop.service;
+
+import com.suryadeep.openshop.cache.CacheInvalidationPublisher;
+import com.suryadeep.openshop.entity.Role;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.security.CustomUserDetails;
+import com.suryadeep.openshop.security.TokenRevocationRegistry;
+import com.suryadeep.openshop.security.VerifiedToken;
+import com.suryadeep.openshop.service.implementation.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final long EXPIRATION_TIME = 900000;
+
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtServiceImpl jwtService;
+    private CustomUserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationRegistry = new TokenRevocationRegistry(EXPIRATION_TIME, CacheInvalidationPublisher.NONE);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtServiceImpl(SECRET_KEY, EXPIRATION_TIME, false, 100, tokenRevocationRegistry, meterRegistry);
+
+        Role role = new Role();
+        role.setRoleName("USER");
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+        user.setRoles(Set.of(role));
+        userDetails = new CustomUserDetails(user);
+    }
+
+    @Test
+    void testGenerateToken_ParsesBackToSubject() {
+        String token = jwtService.generateToken(userDetails);
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertEquals("test@example.com", claims.getSubject());
+        assertEquals("test@example.com", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(claims, userDetails));
+        assertTrue(jwtService.isTokenValid(token, userDetails));
+    }
+
+    @Test
+    void testIsTokenValid_OtherUser() {
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(userDetails));
+        UserDetails otherUser = new CustomUserDetails(2L, "other@example.com", Set.of());
+
+        assertFalse(jwtService.isTokenValid(claims, otherUser));
+    }
+
+    @Test
+    void testIsTokenValid_Revoked() {
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(userDetails));
+
+        jwtService.revokeTokens("test@example.com");
+
+        assertFalse(jwtService.isTokenValid(claims, userDetails));
+        assertTrue(jwtService.isTokenValid(jwtService.generateToken(userDetails), userDetails));
+    }
+
+    @Test
+    void testExtractAllClaims_TamperedToken() {
+        String token = jwtService.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+
+    @Test
+    void testExtractUserDetails_StatelessPrincipal() {
+        JwtServiceImpl statelessJwtService = new JwtServiceImpl(SECRET_KEY, EXPIRATION_TIME, true, 100, tokenRevocationRegistry, meterRegistry);
+        Claims claims = statelessJwtService.extractAllClaims(statelessJwtService.generateToken(userDetails));
+
+        UserDetails principal = statelessJwtService.extractUserDetails(claims);
+
+        assertNotNull(principal);
+        assertEquals("test@example.com", principal.getUsername());
+        assertEquals(1L, ((CustomUserDetails) principal).getId());
+        assertEquals(userDetails.getAuthorities(), principal.getAuthorities());
+        assertNull(jwtService.extractUserDetails(claims));
+    }
+
+    @Test
+    void testVerifyToken_CachesVerifiedToken() {
+        String token = jwtService.generateToken(userDetails);
+
+        VerifiedToken first = jwtService.verifyToken(token);
+        VerifiedToken second = jwtService.verifyToken(token);
+
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testVerifyToken_DoesNotCacheInvalidToken() {
+        String token = jwtService.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.verifyToken(tampered));
+        assertThrows(SignatureException.class, () -> jwtService.verifyToken(tampered));
+    }
+
+    @Test
+    void testVerifyToken_RevocationStillApplies() {
+        String token = jwtService.generateToken(userDetails);
+        VerifiedToken verifiedToken = jwtService.verifyToken(token);
+
+        jwtService.revokeTokens("test@example.com");
+
+        assertFalse(jwtService.isTokenValid(jwtService.verifyToken(token).claims(), userDetails));
+        assertSame(verifiedToken, jwtService.verifyToken(token));
+    }
+}
@@ -0,0 +1,166 @@
+package com.suryadeep.openshop.service;
+
+import com.suryadeep.openshop.dto.request.OrderRequest;
+import com.suryadeep.openshop.dto.response.OrderPlacementResponse;
+import com.suryadeep.openshop.entity.Cart;
+import com.suryadeep.openshop.entity.CartItem;
+import com.suryadeep.openshop.entity.User;
+import com.suryadeep.openshop.exception.OrderQueueFullException;
+import com.suryadeep.openshop.exception.ResourceNotFoundException;
+import com.suryadeep.openshop.order.OrderPlacement;
+import com.suryadeep.openshop.order.OrderPlacementPipeline;
+import com.suryadeep.openshop.order.OrderPlacementProperties;
+import com.suryadeep.openshop.repository.AddressRepository;
+import com.suryadeep.openshop.repository.OrderRepository;
+import com.suryadeep.openshop.service.implementation.OrderPlacementServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderPlacementServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderPlacementPipeline pipeline;
+
+    private OrderPlacementProperties properties;
+    private OrderPlacementServiceImpl orderPlacementService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new OrderPlacementProperties();
+        orderPlacementService = new OrderPlacementServiceImpl(userService, addressRepository, orderRepository,
+                pipeline, properties);
+        user = new User();
+        user.setId(5L);
+        Cart cart = new Cart();
+        cart.setCartItems(new ArrayList<>(List.of(new CartItem())));
+        user.setCart(cart);
+        when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+    }
+
+    @Test
+    void placeOrder_QueuesOrderWithNewNumber() {
+        when(addressRepository.existsById(1L)).thenReturn(true);
+        when(pipeline.submit(any())).thenReturn(true);
+
+        OrderPlacementResponse response = orderPlacementService.placeOrder(orderRequest());
+
+        ArgumentCaptor<OrderPlacement> placement = ArgumentCaptor.forClass(OrderPlacement.class);
+        verify(pipeline).submit(placement.capture());
+        assertEquals(OrderPlacementResponse.Status.QUEUED, response.getStatus());
+        assertEquals(placement.getValue().orderNumber(), response.getOrderNumber());
+        assertEquals(5L, placement.getValue().userId());
+        assertFalse(placement.getValue().result().isDone());
+    }
+
+    @Test
+    void placeOrder_QueueFull_ThrowsException() {
+        when(addressRepository.existsById(1L)).thenReturn(true);
+        when(pipeline.submit(any())).thenReturn(false);
+
+        assertThrows(OrderQueueFullException.class, () -> orderPlacementService.placeOrder(orderRequest()));
+    }
+
+    @Test
+    void placeOrder_EmptyCart_ThrowsException() {
+        user.getCart().getCartItems().clear();
+
+        assertThrows(IllegalStateException.class, () -> orderPlacementService.placeOrder(orderRequest()));
+        verify(pipeline, never()).submit(any());
+    }
+
+    @Test
+    void placeOrder_UnknownAddress_ThrowsException() {
+        when(addressRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> orderPlacementService.placeOrder(orderRequest()));
+        verify(pipeline, never()).submit(any());
+    }
+
+    @Test
+    void getPlacement_ReturnsOutcomeOnceKnown() {
+        OrderPlacement placement = placement(5L);
+        placement.result().complete(OrderPlacementResponse.placed("ORD-1", 42L));
+        when(pipeline.find("ORD-1")).thenReturn(Optional.of(placement));
+
+        OrderPlacementResponse response = orderPlacementService.getPlacement("ORD-1", Duration.ofSeconds(10)).join();
+
+        assertEquals(OrderPlacementResponse.Status.PLACED, response.getStatus());
+        assertEquals(42L, response.getOrderId());
+    }
+
+    @Test
+    void getPlacement_StillQueuedAfterWait_ReturnsQueued() {
+        OrderPlacement placement = placement(5L);
+        when(pipeline.find("ORD-1")).thenReturn(Optional.of(placement));
+
+        CompletableFuture<OrderPlacementResponse> response = orderPlacementService.getPlacement("ORD-1", Duration.ofMillis(10));
+
+        assertEquals(OrderPlacementResponse.Status.QUEUED, response.join().getStatus());
+        assertFalse(placement.result().isDone());
+    }
+
+    @Test
+    void getPlacement_CompletesWhenPlacedWhileWaiting() {
+        OrderPlacement placement = placement(5L);
+        when(pipeline.find("ORD-1")).thenReturn(Optional.of(placement));
+
+        CompletableFuture<OrderPlacementResponse> response = orderPlacementService.getPlacement("ORD-1", Duration.ofMinutes(1));
+        assertFalse(response.isDone());
+        placement.result().complete(OrderPlacementResponse.failed("ORD-1", "Not enough stock"));
+
+        assertEquals(OrderPlacementResponse.Status.FAILED, response.join().getStatus());
+    }
+
+    @Test
+    void getPlacement_NoLongerRetained_LooksUpOrder() {
+        when(pipeline.find("ORD-1")).thenReturn(Optional.empty());
+        when(orderRepository.findIdByOrderNumberAndUserId("ORD-1", 5L)).thenReturn(Optional.of(42L));
+
+        OrderPlacementResponse response = orderPlacementService.getPlacement("ORD-1", Duration.ZERO).join();
+
+        assertEquals(OrderPlacementResponse.Status.PLACED, response.getStatus());
+        assertEquals(42L, response.getOrderId());
+    }
+
+    @Test
+    void getPlacement_OfAnotherUser_ThrowsException() {
+        when(pipeline.find("ORD-1")).thenReturn(Optional.of(placement(6L)));
+        when(orderRepository.findIdByOrderNumberAndUserId("ORD-1", 5L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> orderPlacementService.getPlacement("ORD-1", Duration.ZERO));
+    }
+
+    private static OrderRequest orderRequest() {
+        OrderRequest orderRequest = new OrderRequest();
+        orderRequest.setShippingAddressId(1L);
+        return orderRequest;
+    }
+
+    private static OrderPlacement placement(Long userId) {
+        return new OrderPlacement("ORD-1", userId, null, orderRequest());
+    }
+}
@@ -1,25 +1,43 @@
     package com.suryadeep.openshop.service;
 
+    import com.suryadeep.openshop.cache.CacheInvalidator;
+    import com.suryadeep.openshop.cache.CacheNames;
+    import com.suryadeep.openshop.cache.ProductStockInvalidator;
     import com.suryadeep.openshop.dto.request.OrderRequest;
     import com.suryadeep.openshop.dto.response.OrderResponse;
+    import com.suryadeep.openshop.dto.response.ResourceVersion;
+    import com.suryadeep.openshop.dto.response.SliceResponse;
     import com.suryadeep.openshop.entity.*;
     import com.suryadeep.openshop.entity.enums.OrderStatus;
+    import com.suryadeep.openshop.exception.InsufficientStockException;
+    import com.suryadeep.openshop.exception.InvalidCursorException;
     import com.suryadeep.openshop.exception.ResourceNotFoundException;
+    import com.suryadeep.openshop.inventory.HotStockInventory;
     import com.suryadeep.openshop.mapper.OrderMapper;
     import com.suryadeep.openshop.repository.AddressRepository;
     import com.suryadeep.openshop.repository.CartRepository;
     import com.suryadeep.openshop.repository.OrderRepository;
+    import com.suryadeep.openshop.repository.VariantRepository;
+    import com.suryadeep.openshop.repository.projection.OrderVersion;
     import com.suryadeep.openshop.service.implementation.OrderServiceImpl;
     import org.junit.jupiter.api.BeforeEach;
     import org.junit.jupiter.api.Test;
     import org.mockito.InjectMocks;
     import org.mockito.Mock;
     import org.mockito.MockitoAnnotations;
+    import org.springframework.data.domain.Limit;
+    import org.springframework.transaction.support.TransactionSynchronization;
+    import org.springframework.transaction.support.TransactionSynchronizationManager;
 
     import java.math.BigDecimal;
+    import java.time.LocalDateTime;
+    import java.time.ZoneId;
+    import java.util.ArrayList;
     import java.util.Collections;
     import java.util.List;
+    import java.util.Map;
     import java.util.Optional;
+    import java.util.Set;
 
     import static org.junit.jupiter.api.Assertions.*;
     import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +60,18 @@
         @Mock
         private AddressRepository addressRepository;
 
+        @Mock
+        private VariantRepository variantRepository;
+
+        @Mock
+        private HotStockInventory hotStockInventory;
+
+        @Mock
+        private CacheInvalidator cacheInvalidator;
+
+        @Mock
+        private ProductStockInvalidator productStockInvalidator;
+
         @InjectMocks
         private OrderServiceImpl orderService;
 
@@ -59,12 +89,13 @@
             // Create and set a valid variant for the cart item
             Variant variant = new Variant();
             variant.setPrice(BigDecimal.valueOf(500)); // Set price for the variant
+            variant.setProduct(new Product());
 
             CartItem cartItem = new CartItem();
             cartItem.setVariant(variant); // Ensure the variant is not null
             cartItem.setQuantity(1); // Set quantity for the cart item
 
-            cart.setCartItems(Collections.singletonList(cartItem)); // Add cart item to cart
+            cart.setCartItems(new ArrayList<>(List.of(cartItem))); // Add cart item to cart
             user.setCart(cart); // Assign the cart to the user
 
             OrderRequest orderRequest = new OrderRequest();
@@ -81,9 +112,110 @@
             OrderResponse response = orderService.createOrder(orderRequest);
 
             assertNotNull(response);
+            assertTrue(cart.getCartItems().isEmpty());
             verify(cartRepository, times(1)).save(cart);
         }
 
+        @Test
+        void testCreateOrderReservesStockPerVariant() {
+            User user = new User();
+            Cart cart = new Cart();
+            Variant first = variant(7L);
+            Variant second = variant(3L);
+            cart.setCartItems(new ArrayList<>(List.of(cartItem(first, 2), cartItem(second, 1), cartItem(first, 1))));
+            user.setCart(cart);
+
+            when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+            when(addressRepository.findById(1L)).thenReturn(Optional.of(new Address()));
+            when(orderRepository.save(any(Order.class))).thenReturn(new Order());
+            when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+            orderService.createOrder(orderRequest());
+
+            verify(variantRepository).reserveStock(Map.of(7L, 3, 3L, 1));
+            verify(orderRepository).save(any(Order.class));
+            verify(productStockInvalidator).stockChanged(Set.of(70L, 30L));
+            verify(cacheInvalidator, never()).evict(eq(CacheNames.PRODUCTS), any());
+        }
+
+        @Test
+        void testCreateOrderWithInsufficientStock() {
+            User user = new User();
+            Cart cart = new Cart();
+            cart.setCartItems(new ArrayList<>(List.of(cartItem(variant(7L), 2), cartItem(variant(3L), 1))));
+            user.setCart(cart);
+
+            when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+            when(addressRepository.findById(1L)).thenReturn(Optional.of(new Address()));
+            when(variantRepository.reserveStock(any())).thenReturn(List.of(7L));
+
+            InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                    () -> orderService.createOrder(orderRequest()));
+
+            assertEquals(List.of(7L), exception.getVariantIds());
+            assertEquals(2, cart.getCartItems().size());
+            verify(orderRepository, never()).save(any(Order.class));
+            verify(cartRepository, never()).save(any(Cart.class));
+        }
+
+        @Test
+        void testCreateOrderReservesHotVariantsInMemory() {
+            User user = new User();
+            Cart cart = new Cart();
+            cart.setCartItems(new ArrayList<>(List.of(cartItem(variant(7L), 2), cartItem(variant(3L), 1))));
+            user.setCart(cart);
+
+            when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+            when(addressRepository.findById(1L)).thenReturn(Optional.of(new Address()));
+            when(hotStockInventory.isHot(7L)).thenReturn(true);
+            when(hotStockInventory.reserve(any())).thenReturn(List.of());
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                orderService.createOrder(orderRequest());
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            verify(hotStockInventory).reserve(Map.of(7L, 2));
+            verify(variantRepository).reserveStock(Map.of(3L, 1));
+            verify(hotStockInventory, never()).release(any());
+            // The hot variant's product is dropped when its stock is flushed
+            verify(productStockInvalidator).stockChanged(Set.of(30L));
+            verify(orderRepository).save(argThat(order -> order.getOrderItems().stream()
+                    .allMatch(item -> item.isStockPending() == (item.getVariant().getId() == 7L))));
+        }
+
+        @Test
+        void testCreateOrderReleasesHotVariantsOnRollback() {
+            User user = new User();
+            Cart cart = new Cart();
+            cart.setCartItems(new ArrayList<>(List.of(cartItem(variant(7L), 2), cartItem(variant(3L), 1))));
+            user.setCart(cart);
+
+            when(userService.getCurrentAuthenticatedUser()).thenReturn(user);
+            when(addressRepository.findById(1L)).thenReturn(Optional.of(new Address()));
+            when(hotStockInventory.isHot(7L)).thenReturn(true);
+            when(hotStockInventory.reserve(any())).thenReturn(List.of());
+            when(variantRepository.reserveStock(any())).thenReturn(List.of(3L));
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                assertThrows(InsufficientStockException.class, () -> orderService.createOrder(orderRequest()));
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            verify(hotStockInventory).release(Map.of(7L, 2));
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+
         @Test
         void testCreateOrderWithInvalidShippingAddress() {
             User user = new User();
@@ -168,6 +300,28 @@
             assertNotNull(response);
         }
 
+        @Test
+        void testGetOrderVersion() {
+            LocalDateTime lastUpdated = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+            OrderVersion version = mock(OrderVersion.class);
+            when(version.getVersion()).thenReturn(2L);
+            when(version.getLastUpdated()).thenReturn(lastUpdated);
+            when(orderRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+            ResourceVersion resourceVersion = orderService.getOrderVersion(1L);
+
+            assertEquals("W/\"1.2\"", resourceVersion.etag());
+            assertEquals(lastUpdated.atZone(ZoneId.systemDefault()).toInstant(), resourceVersion.lastModified());
+            verify(orderRepository, never()).findById(any());
+        }
+
+        @Test
+        void testGetOrderVersionNotFound() {
+            when(orderRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderVersion(1L));
+        }
+
         @Test
         void testCancelOrder() {
             Order order = new Order();
@@ -209,4 +363,66 @@
             assertNotNull(invoice);
             assertTrue(new String(invoice).contains("ORD-12345"));
         }
+    
+        @Test
+        void testScrollOrdersByStatus_ContinuesAfterCursor() {
+            LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+            List<Order> orders = new ArrayList<>();
+            for (long id = 3; id >= 1; id--) {
+                Order order = new Order();
+                order.setId(id);
+                order.setOrderDate(now.minusMinutes(3 - id));
+                orders.add(order);
+            }
+            when(orderRepository.findByStatusOrderByOrderDateDescIdDesc(OrderStatus.PENDING, Limit.of(3))).thenReturn(orders);
+            when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+            SliceResponse<OrderResponse> first = orderService.scrollOrdersByStatus(OrderStatus.PENDING, null, 2, false);
+
+            assertEquals(2, first.getContent().size());
+            assertTrue(first.isHasNext());
+            assertNull(first.getTotalElements());
+            verify(orderRepository, never()).countByStatus(any());
+
+            when(orderRepository.findByStatusBefore(OrderStatus.PENDING, now.minusMinutes(1), 2L, Limit.of(3)))
+                    .thenReturn(List.of(orders.get(2)));
+            when(orderRepository.countByStatus(OrderStatus.PENDING)).thenReturn(3L);
+
+            SliceResponse<OrderResponse> second = orderService.scrollOrdersByStatus(OrderStatus.PENDING, first.getNextCursor(), 2, true);
+
+            assertEquals(1, second.getContent().size());
+            assertFalse(second.isHasNext());
+            assertNull(second.getNextCursor());
+            assertEquals(3L, second.getTotalElements());
+        }
+
+        @Test
+        void testScrollOrders_InvalidCursor() {
+            assertThrows(InvalidCursorException.class, () -> orderService.scrollOrders("not-a-cursor", 10, false));
+            verifyNoInteractions(orderRepository);
+        }
+    
+        private static OrderRequest orderRequest() {
+            OrderRequest orderRequest = new OrderRequest();
+            orderRequest.setShippingAddressId(1L);
+            orderRequest.setPaymentMethod("Credit Card");
+            return orderRequest;
+        }
+
+        private static Variant variant(Long id) {
+            Product product = new Product();
+            product.setId(id * 10);
+            Variant variant = new Variant();
+            variant.setId(id);
+            variant.setPrice(BigDecimal.valueOf(100));
+            variant.setProduct(product);
+            return variant;
+        }
+
+        private static CartItem cartItem(Variant variant, int quantity) {
+            CartItem cartItem = new CartItem();
+            cartItem.setVariant(variant);
+            cartItem.setQuantity(quantity);
+            return cartItem;
+        }
     }
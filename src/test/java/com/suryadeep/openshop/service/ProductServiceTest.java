@@ -1,13 +1,25 @@
 package com.suryadeep.openshop.service;
 
+import com.suryadeep.openshop.cache.CacheInvalidator;
+import com.suryadeep.openshop.cache.CacheNames;
+import com.suryadeep.openshop.cache.RefreshAheadCache;
 import com.suryadeep.openshop.dto.request.ProductRequest;
 import com.suryadeep.openshop.dto.response.ProductResponse;
+import com.suryadeep.openshop.dto.response.SuggestionResponse;
+import com.suryadeep.openshop.dto.response.VariantResponse;
 import com.suryadeep.openshop.entity.Category;
 import com.suryadeep.openshop.entity.Product;
 import com.suryadeep.openshop.exception.CategoryNotFoundException;
 import com.suryadeep.openshop.mapper.EntityMapper;
 import com.suryadeep.openshop.repository.CategoryRepository;
 import com.suryadeep.openshop.repository.ProductRepository;
+import com.suryadeep.openshop.repository.projection.ProductSummary;
+import com.suryadeep.openshop.repository.projection.VariantSummary;
+import com.suryadeep.openshop.search.ProductSearchIndex;
+import com.suryadeep.openshop.search.ProductSearchIndexer;
+import com.suryadeep.openshop.search.ProductSearchQuery;
+import com.suryadeep.openshop.search.ProductSuggester;
+import com.suryadeep.openshop.search.SuggestIndex;
 import com.suryadeep.openshop.service.implementation.ProductServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +48,21 @@ class ProductServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private RefreshAheadCache catalogCache;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSearchIndexer searchIndexer;
+
+    @Mock
+    private ProductSuggester suggester;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -69,6 +96,8 @@ class ProductServiceTest {
 
         assertNotNull(productResponse);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(searchIndexer).index(product);
+        verify(suggester).nameChanged(SuggestIndex.Type.PRODUCT, 1L);
     }
 
     @Test
@@ -151,6 +180,37 @@ class ProductServiceTest {
         assertNotNull(productResponse);
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(suggester).nameChanged(SuggestIndex.Type.PRODUCT, productId);
+    }
+
+    @Test
+    void testUpdateProduct_EvictsListingsOfOldAndNewCategory() {
+        Long productId = 1L;
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Laptop");
+        productRequest.setCategoryId(2L);
+
+        Category oldCategory = new Category();
+        oldCategory.setId(1L);
+        Category newCategory = new Category();
+        newCategory.setId(2L);
+        Product existingProduct = new Product();
+        existingProduct.setId(productId);
+        existingProduct.setName("Laptop");
+        existingProduct.setCategory(oldCategory);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(newCategory));
+        when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
+
+        productService.updateProduct(productRequest, productId);
+
+        verify(cacheInvalidator).refresh(CacheNames.CATALOG, CacheNames.ALL_PRODUCTS);
+        verify(cacheInvalidator).evictTag(CacheNames.PRODUCTS, CacheNames.PAGES_TAG);
+        verify(cacheInvalidator).evictTag(CacheNames.PRODUCTS, "category_1");
+        verify(cacheInvalidator).evictTag(CacheNames.PRODUCTS, "category_2");
+        // Moving a product only changes the ranking of the categories, left to the suggestions' max age
+        verify(suggester, never()).nameChanged(any(), any());
     }
 
     @Test
@@ -165,23 +225,108 @@ class ProductServiceTest {
 
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).delete(any(Product.class));
+        verify(searchIndexer).remove(productId);
+        verify(suggester).nameChanged(SuggestIndex.Type.PRODUCT, productId);
+    }
+
+    @Test
+    void testSearchProducts_ReadsOnlyTheRankedPage() {
+        ProductSearchQuery query = new ProductSearchQuery("shirt", null, null, false);
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(7L);
+        ProductResponse response = new ProductResponse();
+
+        when(searchIndex.search(query, 10, 10)).thenReturn(new ProductSearchIndex.Hits(List.of(7L), 11));
+        when(productRepository.findSummariesByIdIn(List.of(7L))).thenReturn(List.of(summary));
+        when(entityMapper.toProductResponse(summary)).thenReturn(response);
+
+        Page<ProductResponse> page = productService.searchProducts(query, 1, 10);
+
+        assertEquals(List.of(response), page.getContent());
+        assertEquals(11, page.getTotalElements());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testSearchProducts_InStock_LeavesOutProductsSoldOutSinceIndexed() {
+        ProductSearchQuery query = new ProductSearchQuery("shirt", null, null, true);
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(7L);
+        VariantSummary variant = mock(VariantSummary.class);
+        when(variant.getProductId()).thenReturn(7L);
+        VariantResponse soldOut = new VariantResponse();
+        soldOut.setStockQuantity(0);
+
+        when(searchIndex.search(query, 0, 10)).thenReturn(new ProductSearchIndex.Hits(List.of(7L), 1));
+        when(productRepository.findSummariesByIdIn(List.of(7L))).thenReturn(List.of(summary));
+        when(productRepository.findVariantSummariesByProductIdIn(List.of(7L))).thenReturn(List.of(variant));
+        when(entityMapper.toProductResponse(summary)).thenReturn(new ProductResponse());
+        when(entityMapper.toVariantResponse(variant)).thenReturn(soldOut);
+
+        assertTrue(productService.searchProducts(query, 0, 10).getContent().isEmpty());
+    }
+
+    @Test
+    void testSuggest() {
+        when(suggester.suggest("shi", 5)).thenReturn(List.of(
+                new SuggestIndex.Suggestion(SuggestIndex.Type.CATEGORY, 3L, "Shirts"),
+                new SuggestIndex.Suggestion(SuggestIndex.Type.PRODUCT, 7L, "Blue Shirt")));
+
+        List<SuggestionResponse> suggestions = productService.suggest("shi", 5);
+
+        assertEquals(List.of(
+                new SuggestionResponse(SuggestIndex.Type.CATEGORY, 3L, "Shirts"),
+                new SuggestionResponse(SuggestIndex.Type.PRODUCT, 7L, "Blue Shirt")), suggestions);
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void testFindAllPaginated() {
         int page = 0;
         int size = 10;
-        List<Product> products = List.of(new Product(), new Product());
-        Page<Product> productPage = new PageImpl<>(products);
-
-        when(productRepository.findAll(PageRequest.of(page, size))).thenReturn(productPage);
-        when(entityMapper.toProductResponse(any(Product.class))).thenReturn(new ProductResponse());
+        ProductSummary first = mock(ProductSummary.class);
+        when(first.getId()).thenReturn(1L);
+        ProductSummary second = mock(ProductSummary.class);
+        when(second.getId()).thenReturn(2L);
+        VariantSummary variant = mock(VariantSummary.class);
+        when(variant.getProductId()).thenReturn(1L);
+        VariantResponse variantResponse = new VariantResponse();
+        Page<Long> idPage = new PageImpl<>(List.of(2L, 1L), PageRequest.of(page, size), 2);
+        ProductResponse firstResponse = new ProductResponse();
+        ProductResponse secondResponse = new ProductResponse();
+
+        when(productRepository.findIds(PageRequest.of(page, size))).thenReturn(idPage);
+        when(productRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+        when(productRepository.findVariantSummariesByProductIdIn(List.of(2L, 1L))).thenReturn(List.of(variant));
+        when(entityMapper.toProductResponse(first)).thenReturn(firstResponse);
+        when(entityMapper.toProductResponse(second)).thenReturn(secondResponse);
+        when(entityMapper.toVariantResponse(variant)).thenReturn(variantResponse);
 
         Page<ProductResponse> productResponses = productService.findAllPaginated(page, size);
 
         assertNotNull(productResponses);
         assertEquals(2, productResponses.getTotalElements());
-        verify(productRepository, times(1)).findAll(PageRequest.of(page, size));
+        // Responses keep the order of the id page, not the order the rows were read in
+        assertSame(secondResponse, productResponses.getContent().get(0));
+        assertSame(firstResponse, productResponses.getContent().get(1));
+        assertEquals(List.of(variantResponse), firstResponse.getVariants());
+        assertTrue(secondResponse.getVariants().isEmpty());
+        verify(productRepository, times(1)).findIds(PageRequest.of(page, size));
+        verify(productRepository, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    void testFindByCategoryPaginated_EmptyPage() {
+        Long categoryId = 1L;
+        Page<Long> idPage = new PageImpl<>(List.of(), PageRequest.of(3, 10), 20);
+
+        when(productRepository.findIdsByCategoryId(categoryId, PageRequest.of(3, 10))).thenReturn(idPage);
+
+        Page<ProductResponse> productResponses = productService.findByCategoryPaginated(categoryId, 3, 10);
+
+        assertTrue(productResponses.getContent().isEmpty());
+        assertEquals(20, productResponses.getTotalElements());
+        verify(productRepository, never()).findSummariesByIdIn(any());
     }
 
     @Test
@@ -16,9 +16,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -76,6 +79,24 @@ class UserServiceTest {
         verify(entityMapper, times(1)).toUserResponse(any(User.class));
     }
 
+    @Test
+    void testGetCurrentAuthenticatedUser_LoadsOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            User mockUser = new User();
+            mockUser.setId(1L);
+            mockUser.setEmail("john.doe@example.com");
+
+            when(userRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(mockUser));
+
+            assertSame(mockUser, userService.getCurrentAuthenticatedUser());
+            assertSame(mockUser, userService.getCurrentAuthenticatedUser());
+            verify(userRepository, times(1)).findByEmail(anyString());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     @Test
     void testGetCurrentUser_UserNotFound() {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());